@@ -0,0 +1,362 @@
+package org.onosproject.orch.bench;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.adt.elem.DirectedLink;
+import org.onosproject.orch.adt.elem.ProvisioningRequest;
+import org.onosproject.orch.json.Json;
+import org.onosproject.orch.metrics.OrchestrationMetrics;
+import org.onosproject.orch.monitor.ResourceTables;
+import org.onosproject.orch.monitor.TopologyInformation;
+import org.onosproject.orch.rest.server.RestServer;
+import org.onosproject.orch.trace.Trace;
+import org.onosproject.orch.trace.TraceStore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.onlab.util.Tools.groupedThreads;
+
+
+// a child controller without onos: the rest server of orch over a synthetic ring of devices.
+// GET /devices, /links, /hosts and /edgeUpdates are answered from the ring as the listeners of a real child fill them,
+// POST /provisioning, /provisioning/batch and /flows after a while, without installing anything.
+// links of the ring go down and up again at random, and requests can be delayed or refused to load the parent.
+//
+//     java -cp target/benchmarks.jar org.onosproject.orch.bench.ChildSimulator \
+//             --address 127.0.0.2 --devices 1000 --latency 5 --jitter 5 --churn-interval 100
+//
+// children of one parent listen on loopback addresses of their own (127.0.0.2, 127.0.0.3, ...) on the port the parent
+// connects to, with rings apart from each other by --first-device; a parent on the same host listens on another port
+public class ChildSimulator {
+
+    private static final String DEFAULT_ADDRESS = "127.0.0.2";
+    private static final int DEFAULT_PORT = 8888;
+    private static final int DEFAULT_DEVICES = 1000;
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_REPORT_INTERVAL = 10; // s
+
+
+    private final String address;
+    private final int port;
+    private final SyntheticTopology topology;
+    private final int threads;
+
+    private final TopologyInformation info;
+    private final OrchestrationMetrics metrics;
+    private final Orchestration orch;
+
+    private volatile long latencyMs; // before every request is handled
+    private volatile long jitterMs; // up to this much more at random
+    private volatile double failureRate; // of requests refused with 429
+    private volatile long provisioningLatencyMs; // of provisionings and flow rules, as if installed
+    private volatile double provisioningFailureRate; // of provisionings and flow rules failed with 500
+    private long churnIntervalMs; // between changes of links; 0 for none
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder refusedRequests = new LongAdder();
+    private final LongAdder provisionings = new LongAdder();
+    private final LongAdder failedProvisionings = new LongAdder();
+    private final LongAdder flowRules = new LongAdder();
+    private final LongAdder linkChanges = new LongAdder();
+
+    private final Set<Integer> downLinks = new HashSet<>(); // pairs of links of the ring which are down; by churn only
+
+    private ScheduledExecutorService scheduler;
+    private RestServer server;
+
+
+    ChildSimulator(String address, int port, SyntheticTopology topology, int threads) {
+        this.address = address;
+        this.port = port;
+        this.topology = topology;
+        this.threads = threads;
+
+        ResourceTables res = new ResourceTables();
+        info = new TopologyInformation();
+        metrics = new OrchestrationMetrics(res, info);
+        TraceStore traces = new TraceStore(1024);
+
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getMetrics", args -> metrics);
+        answers.put("getTraceStore", args -> traces);
+        answers.put("divideProvisioning", this::divideProvisioning);
+        answers.put("applyFlowRulesToMyself", args -> applyFlowRules((String) args[0]));
+        orch = Stubs.orchestration(res, info, false, null, null, answers);
+
+        for (int i = 0; i < topology.getDevices(); i++) {
+            ObjectNode summaryDeviceJson = Json.objectNode();
+            summaryDeviceJson.put("id", topology.device(i).toString());
+            info.putDevice(topology.device(i), topology.deviceJson(i), summaryDeviceJson);
+            info.putHost(topology.host(i), topology.hostJson(i));
+        }
+        for (int i = 0; i < topology.getDevices(); i++) {
+            putLink(topology.link(i), false);
+            putLink(topology.reverseLink(i), false);
+        }
+    }
+
+
+    void setLatency(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+    }
+
+    void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    void setProvisioningLatency(long provisioningLatencyMs) {
+        this.provisioningLatencyMs = provisioningLatencyMs;
+    }
+
+    void setProvisioningFailureRate(double provisioningFailureRate) {
+        this.provisioningFailureRate = provisioningFailureRate;
+    }
+
+    // takes effect when started
+    void setChurnInterval(long churnIntervalMs) {
+        this.churnIntervalMs = churnIntervalMs;
+    }
+
+    // a link to a device of another child, reported by /links/implicit too
+    void addInterlink(DirectedLink link) {
+        putLink(link, true);
+    }
+
+    SyntheticTopology getTopology() {
+        return topology;
+    }
+
+    String getAddress() {
+        return address;
+    }
+
+
+    void start() {
+        scheduler = Executors.newScheduledThreadPool(threads,
+                groupedThreads("onos/orch-sim", "child-" + address + "-%d"));
+        server = new RestServer(address, port, orch, this::executeRequest);
+        server.start();
+
+        if (churnIntervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::changeLink, churnIntervalMs, churnIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void stop() {
+        if (server != null) {
+            server.stop();
+            server = null;
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+
+    // the request executor of the rest server; a refused request is answered with 429 by the server
+    private void executeRequest(Runnable request) {
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            refusedRequests.increment();
+            throw new RejectedExecutionException("refused by the simulator");
+        }
+        requests.increment();
+        scheduler.schedule(request, delay(), TimeUnit.MILLISECONDS);
+    }
+
+    private long delay() {
+        long jitter = jitterMs;
+        return latencyMs + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+    }
+
+
+    // (src, dst), (src, dst, srcMac, dstMac) or (requests)
+    @SuppressWarnings("unchecked")
+    private Object divideProvisioning(Object[] args) {
+        if (args.length == 1) {
+            List<CompletableFuture<Void>> results = new ArrayList<>();
+            for (ProvisioningRequest request : (List<ProvisioningRequest>) args[0]) {
+                results.add(provision(request.getSrc(), request.getDst()));
+            }
+            return results;
+        }
+        return provision((ConnectPoint) args[0], (ConnectPoint) args[1]);
+    }
+
+    private CompletableFuture<Void> provision(ConnectPoint src, ConnectPoint dst) {
+        long startTime = System.nanoTime();
+        provisionings.increment();
+        if (!info.hasDevice(src.deviceId()) || !info.hasDevice(dst.deviceId())) {
+            failedProvisionings.increment();
+            metrics.observeProvisioning(false, System.nanoTime() - startTime);
+            return failedFuture(new IllegalArgumentException("no device of " + src + " or " + dst));
+        }
+        return complete(completion -> metrics.observeProvisioning(completion, System.nanoTime() - startTime));
+    }
+
+    // POST /flows of an explicit parent, {"flows":[...]}
+    private CompletableFuture<Void> applyFlowRules(String jsonString) {
+        int count;
+        try {
+            count = Json.getArray(Json.decodeObject(jsonString), "flows").size();
+        } catch (IOException | IllegalArgumentException e) {
+            return failedFuture(new IllegalArgumentException(e.toString()));
+        }
+        flowRules.add(count);
+        return complete(completion -> metrics.countFlowRules(completion, count));
+    }
+
+    // after the latency of provisioning, failed at the rate of it
+    private CompletableFuture<Void> complete(Consumer<Boolean> observer) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Trace.startSpan("flow-install", "simulated").endWhenComplete(future);
+        boolean fails = ThreadLocalRandom.current().nextDouble() < provisioningFailureRate;
+        scheduler.schedule(() -> {
+            observer.accept(!fails);
+            if (fails) {
+                failedProvisionings.increment();
+                future.completeExceptionally(new IllegalStateException("failed by the simulator"));
+            } else {
+                future.complete(null);
+            }
+        }, provisioningLatencyMs, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    private static CompletableFuture<Void> failedFuture(Throwable cause) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+        return future;
+    }
+
+
+    // a pair of links of the ring goes down, or up again if it is down
+    private void changeLink() {
+        int i = ThreadLocalRandom.current().nextInt(topology.getDevices());
+        if (downLinks.remove(i)) {
+            putLink(topology.link(i), false);
+            putLink(topology.reverseLink(i), false);
+        } else {
+            downLinks.add(i);
+            removeLink(topology.link(i));
+            removeLink(topology.reverseLink(i));
+        }
+        linkChanges.add(2);
+    }
+
+    // as LinkEventListener builds them; links between devices of the ring are not implicit
+    private void putLink(DirectedLink link, boolean interlink) {
+        ObjectNode summaryLinkJson = SyntheticTopology.linkJson(link);
+        info.putLink(link, explicitLinkJson(link), summaryLinkJson, interlink ? summaryLinkJson : null);
+    }
+
+    private void removeLink(DirectedLink link) {
+        info.removeLink(link, explicitLinkJson(link), SyntheticTopology.linkJson(link), null);
+    }
+
+    private static ObjectNode explicitLinkJson(DirectedLink link) {
+        ObjectNode linkJson = SyntheticTopology.linkJson(link);
+        linkJson.put("type", "DIRECT");
+        linkJson.put("state", "ACTIVE");
+        return linkJson;
+    }
+
+
+    long getRequests() {
+        return requests.sum();
+    }
+
+    long getRefusedRequests() {
+        return refusedRequests.sum();
+    }
+
+    long getProvisionings() {
+        return provisionings.sum();
+    }
+
+    long getFailedProvisionings() {
+        return failedProvisionings.sum();
+    }
+
+    long getFlowRules() {
+        return flowRules.sum();
+    }
+
+    long getLinkChanges() {
+        return linkChanges.sum();
+    }
+
+
+    // --name value ...
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parseOptions(args);
+
+        SyntheticTopology topology = new SyntheticTopology(getInt(options, "devices", DEFAULT_DEVICES),
+                getInt(options, "first-device", 0));
+        ChildSimulator simulator = new ChildSimulator(options.getOrDefault("address", DEFAULT_ADDRESS),
+                getInt(options, "port", DEFAULT_PORT), topology, getInt(options, "threads", DEFAULT_THREADS));
+        simulator.setLatency(getInt(options, "latency", 0), getInt(options, "jitter", 0));
+        simulator.setFailureRate(getDouble(options, "failure-rate"));
+        simulator.setProvisioningLatency(getInt(options, "provisioning-latency", 0));
+        simulator.setProvisioningFailureRate(getDouble(options, "provisioning-failure-rate"));
+        simulator.setChurnInterval(getInt(options, "churn-interval", 0));
+
+        simulator.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(simulator::stop));
+        System.out.printf("child %s:%d with %d devices from %s%n", simulator.address, simulator.port,
+                topology.getDevices(), topology.device(0));
+
+        long reportIntervalMs = TimeUnit.SECONDS.toMillis(getInt(options, "report-interval", DEFAULT_REPORT_INTERVAL));
+        long lastRequests = 0;
+        while (true) {
+            Thread.sleep(reportIntervalMs);
+            long requests = simulator.getRequests();
+            System.out.printf("%d requests (%.1f/s), %d refused, %d provisionings, %d failed, %d flow rules, "
+                            + "%d link changes%n",
+                    requests, (requests - lastRequests) * 1000.0 / reportIntervalMs, simulator.getRefusedRequests(),
+                    simulator.getProvisionings(), simulator.getFailedProvisionings(), simulator.getFlowRules(),
+                    simulator.getLinkChanges());
+            lastRequests = requests;
+        }
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("expected --name value: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    static int getInt(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return (value == null) ? defaultValue : Integer.parseInt(value);
+    }
+
+    static double getDouble(Map<String, String> options, String name) {
+        String value = options.get(name);
+        return (value == null) ? 0.0 : Double.parseDouble(value);
+    }
+
+}
@@ -0,0 +1,168 @@
+package org.onosproject.orch.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.onlab.graph.ScalarWeight;
+import org.onlab.packet.MacAddress;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.DefaultPath;
+import org.onosproject.net.Link;
+import org.onosproject.net.Path;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.link.LinkService;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyService;
+import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.core.explicit.FlowRuleConstructor;
+import org.onosproject.orch.json.Json;
+import org.onosproject.orch.monitor.ResourceTables;
+import org.onosproject.orch.monitor.TopologyInformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+
+// flow rules of a provisioning on the physical devices of this controller, in both directions as
+// divideProvisioning builds them, along a chain of devices; the path of the reverse direction comes from the cache.
+// the baselines build the same rules as the json handed to the codec of onos, as local provisioning did before
+// the rules were built directly: by jackson, and by org.json serialized and parsed again by jackson as before the
+// json of the bundle was jackson. the decoding by the codec, the same for both, is not part of them
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowRuleConstructorBenchmark {
+
+    private static final ProviderId PROVIDER_ID = new ProviderId("of", "org.onosproject.orch.bench");
+
+
+    @Param({"2", "8", "32"})
+    private int hops;
+
+    private FlowRuleConstructor flowRuleConstructor;
+    private FlowRuleJsonBaseline flowRuleJsonBaseline;
+
+    private ConnectPoint src;
+    private ConnectPoint dst;
+    private MacAddress srcMac;
+    private MacAddress dstMac;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Link> links = new ArrayList<>();
+        Map<List<ConnectPoint>, Link> linksByEnds = new HashMap<>();
+        for (int i = 0; i < hops; i++) {
+            ConnectPoint a = new ConnectPoint(SyntheticTopology.deviceId(i), PortNumber.portNumber(2));
+            ConnectPoint b = new ConnectPoint(SyntheticTopology.deviceId(i + 1), PortNumber.portNumber(1));
+            Link forward = buildLink(a, b);
+            Link backward = buildLink(b, a);
+            links.add(forward);
+            linksByEnds.put(Arrays.asList(a, b), forward);
+            linksByEnds.put(Arrays.asList(b, a), backward);
+        }
+        Path path = new DefaultPath(PROVIDER_ID, links, ScalarWeight.toWeight(hops));
+
+        Topology topology = Stubs.stub(Topology.class, Collections.emptyMap());
+
+        Map<String, Function<Object[], Object>> topologyAnswers = new HashMap<>();
+        topologyAnswers.put("currentTopology", args -> topology);
+        topologyAnswers.put("getPaths", args -> Collections.singleton(path));
+        TopologyService topologyService = Stubs.stub(TopologyService.class, topologyAnswers);
+
+        Map<String, Function<Object[], Object>> linkAnswers = new HashMap<>();
+        linkAnswers.put("getLink", args -> linksByEnds.get(Arrays.asList(args[0], args[1])));
+        LinkService linkService = Stubs.stub(LinkService.class, linkAnswers);
+
+        Orchestration orch = Stubs.orchestration(new ResourceTables(), new TopologyInformation(), false,
+                topologyService, linkService);
+        flowRuleConstructor = new FlowRuleConstructor(orch);
+        flowRuleJsonBaseline = new FlowRuleJsonBaseline(orch);
+
+        src = new ConnectPoint(SyntheticTopology.deviceId(0), PortNumber.portNumber(3));
+        dst = new ConnectPoint(SyntheticTopology.deviceId(hops), PortNumber.portNumber(3));
+        srcMac = MacAddress.valueOf(SyntheticTopology.mac(0));
+        dstMac = MacAddress.valueOf(SyntheticTopology.mac(hops));
+
+        // the baselines are compared per rule with the rules built directly
+        int rules = bothDirections().size();
+        if (bothDirectionsAsJson().size() != rules) {
+            throw new IllegalStateException("the baseline of jackson builds " + bothDirectionsAsJson().size()
+                    + " rules instead of " + rules);
+        }
+        try {
+            if (bothDirectionsAsOrgJson().size() != rules) {
+                throw new IllegalStateException("the baseline of org.json builds " + bothDirectionsAsOrgJson().size()
+                        + " rules instead of " + rules);
+            }
+        } catch (IOException | JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Link buildLink(ConnectPoint src, ConnectPoint dst) {
+        return DefaultLink.builder()
+                .providerId(PROVIDER_ID)
+                .src(src)
+                .dst(dst)
+                .type(Link.Type.DIRECT)
+                .state(Link.State.ACTIVE)
+                .build();
+    }
+
+
+    @Benchmark
+    public List<FlowRule> bothDirections() {
+        List<FlowRule> rules = flowRuleConstructor.buildFlowRules(src, dst, srcMac, dstMac);
+        rules.addAll(flowRuleConstructor.buildFlowRules(dst, src, dstMac, srcMac));
+        return rules;
+    }
+
+    // the flows handed to the codec since the json of the bundle is jackson
+    @Benchmark
+    public ArrayNode bothDirectionsAsJson() {
+        ArrayNode flows = Json.arrayNode();
+        flowRuleJsonBaseline.buildFlowRuleJson(flows, src, dst, srcMac, dstMac);
+        flowRuleJsonBaseline.buildFlowRuleJson(flows, dst, src, dstMac, srcMac);
+        return flows;
+    }
+
+    // the flows handed to the codec while the json of the bundle was org.json: toString() and parsed again
+    @Benchmark
+    public JsonNode bothDirectionsAsOrgJson() throws IOException, JSONException {
+        JSONArray flows = new JSONArray();
+        flowRuleJsonBaseline.buildFlowRuleOrgJson(flows, src, dst, srcMac, dstMac);
+        flowRuleJsonBaseline.buildFlowRuleOrgJson(flows, dst, src, dstMac, srcMac);
+        JSONObject root = new JSONObject();
+        root.put("flows", flows);
+        return Json.MAPPER.readTree(root.toString()).get("flows");
+    }
+
+}
@@ -0,0 +1,155 @@
+package org.onosproject.orch.bench;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.onlab.packet.MacAddress;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.Path;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyService;
+import org.onosproject.orch.Orchestration;
+
+import java.util.List;
+import java.util.Set;
+
+
+// the json of flow rules for the codec of onos, as FlowRuleJsonConstructor built it before the rules were built
+// directly as DefaultFlowRules: by org.json first, then by jackson; kept here only as the baselines of
+// FlowRuleConstructorBenchmark
+final class FlowRuleJsonBaseline {
+
+    private static final int PRIORITY_BY_IN_PORT_AND_ETH_SRC = 41000;
+    private static final int PRIORITY_BY_ETH_DST = 50000;
+
+    private static final int TIMEOUT_BY_IN_PORT_AND_ETH_SRC = 5;
+    private static final int TIMEOUT_BY_ETH_DST = 30;
+
+
+    private final ApplicationId appId;
+    private final TopologyService topologyService;
+
+
+    FlowRuleJsonBaseline(Orchestration orch) {
+        appId = orch.getApplicationId();
+        topologyService = orch.getTopologyService();
+    }
+
+
+    // appended to the "flows" of a document
+    void buildFlowRuleJson(ArrayNode flows, ConnectPoint src, ConnectPoint dst, MacAddress srcMac,
+                           MacAddress dstMac) {
+        forEachDevice(src, dst, (inPort, outPoint) -> addRules(flows, inPort, outPoint, srcMac, dstMac));
+    }
+
+    void buildFlowRuleOrgJson(JSONArray flows, ConnectPoint src, ConnectPoint dst, MacAddress srcMac,
+                              MacAddress dstMac) {
+        forEachDevice(src, dst, (inPort, outPoint) -> {
+            try {
+                addRules(flows, inPort, outPoint, srcMac, dstMac);
+            } catch (JSONException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+
+    private interface DeviceRules {
+        void add(PortNumber inPort, ConnectPoint outPoint);
+    }
+
+    private void forEachDevice(ConnectPoint src, ConnectPoint dst, DeviceRules rules) {
+        Topology topology = topologyService.currentTopology();
+        Set<Path> paths = topologyService.getPaths(topology, src.deviceId(), dst.deviceId());
+
+        if (paths.isEmpty()) {
+            rules.add(src.port(), dst);
+            return;
+        }
+
+        List<Link> links = paths.iterator().next().links();
+        rules.add(src.port(), links.get(0).src());
+        for (int i = 1; i < links.size(); i++) {
+            rules.add(links.get(i - 1).dst().port(), links.get(i).src());
+        }
+        rules.add(links.get(links.size() - 1).dst().port(), dst);
+    }
+
+
+    private void addRules(ArrayNode flows, PortNumber inPort, ConnectPoint outPoint, MacAddress srcMac,
+                          MacAddress dstMac) {
+        DeviceId deviceId = outPoint.deviceId();
+
+        ObjectNode byDst = addBaseFlowRule(flows, PRIORITY_BY_ETH_DST, TIMEOUT_BY_ETH_DST, deviceId);
+        addTreatment(byDst, outPoint.port());
+        ArrayNode dstCriteria = byDst.putObject("selector").putArray("criteria");
+        dstCriteria.addObject().put("type", "ETH_DST").put("mac", dstMac.toString());
+
+        ObjectNode byInPortAndSrc = addBaseFlowRule(flows, PRIORITY_BY_IN_PORT_AND_ETH_SRC,
+                TIMEOUT_BY_IN_PORT_AND_ETH_SRC, deviceId);
+        addTreatment(byInPortAndSrc, outPoint.port());
+        ArrayNode srcCriteria = byInPortAndSrc.putObject("selector").putArray("criteria");
+        srcCriteria.addObject().put("type", "IN_PORT").put("port", inPort.toString());
+        srcCriteria.addObject().put("type", "ETH_SRC").put("mac", srcMac.toString());
+    }
+
+    private ObjectNode addBaseFlowRule(ArrayNode flows, int priority, int timeout, DeviceId deviceId) {
+        ObjectNode root = flows.addObject();
+        root.put("priority", priority);
+        root.put("timeout", timeout);
+        root.put("isPermanent", false);
+        root.put("deviceId", deviceId.toString());
+        root.put("appId", appId.name());
+        return root;
+    }
+
+    private static void addTreatment(ObjectNode root, PortNumber output) {
+        ArrayNode instructions = root.putObject("treatment").putArray("instructions");
+        instructions.addObject().put("type", "OUTPUT").put("port", output.toString());
+    }
+
+
+    private void addRules(JSONArray flows, PortNumber inPort, ConnectPoint outPoint, MacAddress srcMac,
+                          MacAddress dstMac) throws JSONException {
+        DeviceId deviceId = outPoint.deviceId();
+
+        JSONObject byDst = buildBaseFlowRule(PRIORITY_BY_ETH_DST, TIMEOUT_BY_ETH_DST, deviceId);
+        byDst.put("treatment", buildTreatment(outPoint.port()));
+        JSONArray dstCriteria = new JSONArray();
+        dstCriteria.put(new JSONObject().put("type", "ETH_DST").put("mac", dstMac.toString()));
+        byDst.put("selector", new JSONObject().put("criteria", dstCriteria));
+        flows.put(byDst);
+
+        JSONObject byInPortAndSrc = buildBaseFlowRule(PRIORITY_BY_IN_PORT_AND_ETH_SRC,
+                TIMEOUT_BY_IN_PORT_AND_ETH_SRC, deviceId);
+        byInPortAndSrc.put("treatment", buildTreatment(outPoint.port()));
+        JSONArray srcCriteria = new JSONArray();
+        srcCriteria.put(new JSONObject().put("type", "IN_PORT").put("port", inPort.toString()));
+        srcCriteria.put(new JSONObject().put("type", "ETH_SRC").put("mac", srcMac.toString()));
+        byInPortAndSrc.put("selector", new JSONObject().put("criteria", srcCriteria));
+        flows.put(byInPortAndSrc);
+    }
+
+    private JSONObject buildBaseFlowRule(int priority, int timeout, DeviceId deviceId) throws JSONException {
+        JSONObject root = new JSONObject();
+        root.put("priority", priority);
+        root.put("timeout", timeout);
+        root.put("isPermanent", false);
+        root.put("deviceId", deviceId.toString());
+        root.put("appId", appId.name());
+        return root;
+    }
+
+    private static JSONObject buildTreatment(PortNumber output) throws JSONException {
+        JSONArray instructions = new JSONArray();
+        instructions.put(new JSONObject().put("type", "OUTPUT").put("port", output.toString()));
+        return new JSONObject().put("instructions", instructions);
+    }
+
+}
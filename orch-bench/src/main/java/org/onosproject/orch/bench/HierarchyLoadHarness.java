@@ -0,0 +1,369 @@
+package org.onosproject.orch.bench;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onlab.packet.MacAddress;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.orch.adt.elem.DirectedLink;
+import org.onosproject.orch.adt.elem.ProvisioningRequest;
+import org.onosproject.orch.core.OrchestrationImpl;
+import org.onosproject.orch.json.Json;
+import org.osgi.service.component.ComponentContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.onosproject.orch.core.OsgiPropertyConstants.CHILD_PORT;
+import static org.onosproject.orch.core.OsgiPropertyConstants.COMPACT_WIRE_FORMAT;
+import static org.onosproject.orch.core.OsgiPropertyConstants.PROVISIONING_TIMEOUT_DEFAULT;
+import static org.onosproject.orch.core.OsgiPropertyConstants.SERVER_ADDRESS;
+import static org.onosproject.orch.core.OsgiPropertyConstants.SERVER_PORT;
+
+
+// provisionings across the domains of a hierarchy on one host: orchestrations of the bundle over a simulated core of
+// onos, in levels of the given fanout above simulated children (see ChildSimulator), each on a loopback address.
+//
+//     java -cp target/benchmarks.jar org.onosproject.orch.bench.HierarchyLoadHarness \
+//             --levels 3 --fanout 2 --devices 16 --rate 50 --duration 60 [--wire compact]
+//
+// level 1 is the root. the rings of neighbouring leaves are joined by a link in both directions, so a provisioning
+// between two leaves goes through every leaf between them, and is divided by every orchestrator above them
+// up to the lowest common one. requests are posted to the root at the given rate whether or not earlier ones are
+// answered; the latency of a level is the one of the provisionings of its orchestrators, from being divided until
+// every segment below is done, and the total is the one of POST /provisioning to the root since it was due
+public class HierarchyLoadHarness {
+
+    private static final int DEFAULT_LEVELS = 2;
+    private static final int DEFAULT_FANOUT = 2;
+    private static final int DEFAULT_DEVICES = 16; // of each leaf
+    private static final int DEFAULT_RATE = 20; // provisionings per s
+    private static final int DEFAULT_DURATION = 30; // s
+    private static final int DEFAULT_CLIENTS = 16;
+    private static final int DEFAULT_PORT = 8888;
+
+    private static final long DISCOVERY_WAIT_MS = 60000;
+    private static final int NEXT_LEAF_PORT = 4; // of the last device of a leaf
+    private static final int PREVIOUS_LEAF_PORT = 5; // of the first device of a leaf
+
+    private static final double[] PERCENTILES = {50, 90, 99, 100};
+
+
+    private final int levels;
+    private final int fanout;
+    private final int devices;
+    private final int port;
+    private final boolean implicit;
+    private final boolean compact; // orchestrators ask their children for the form of CompactJson
+    private final Map<String, String> options;
+
+    private final int leafCount;
+    private int nextAddress;
+
+    private final List<OrchestrationImpl> orchestrations = new ArrayList<>();
+    private final List<ChildSimulator> leaves = new ArrayList<>();
+    private final int[] orchestrationsOfLevels;
+    private final LatencyRecorder[] latenciesOfLevels;
+
+    private String rootAddress;
+    private SimulatedCore rootCore;
+    private ConnectPoint[] rootLocations; // of the host of every device of every leaf, as the root sees them
+
+    private final LatencyRecorder totalLatencies = new LatencyRecorder();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>(); // status code or exception
+
+
+    HierarchyLoadHarness(Map<String, String> options) {
+        this.options = options;
+        levels = ChildSimulator.getInt(options, "levels", DEFAULT_LEVELS);
+        fanout = ChildSimulator.getInt(options, "fanout", DEFAULT_FANOUT);
+        devices = ChildSimulator.getInt(options, "devices", DEFAULT_DEVICES);
+        port = ChildSimulator.getInt(options, "port", DEFAULT_PORT);
+        implicit = "implicit".equals(options.get("abstraction"));
+        compact = "compact".equals(options.get("wire"));
+
+        leafCount = (int) Math.pow(fanout, levels);
+        orchestrationsOfLevels = new int[levels + 1];
+        latenciesOfLevels = new LatencyRecorder[levels + 1];
+        for (int level = 1; level <= levels; level++) {
+            latenciesOfLevels[level] = new LatencyRecorder();
+        }
+    }
+
+
+    // from the leaves up, each orchestrator discovering its children once they have discovered theirs
+    void start() throws InterruptedException {
+        rootAddress = startNode(1);
+
+        rootLocations = new ConnectPoint[leafCount * devices];
+        for (int i = 0; i < rootLocations.length; i++) {
+            rootLocations[i] = rootCore.getLocation(SyntheticTopology.mac(i));
+            if (rootLocations[i] == null) {
+                throw new IllegalStateException("host of " + SyntheticTopology.deviceId(i) + " is not discovered");
+            }
+        }
+        System.out.printf("%d levels of %d orchestrators above %d leaves of %d devices, root on %s:%d%n",
+                levels, orchestrations.size(), leafCount, devices, rootAddress, port);
+    }
+
+    private String startNode(int level) throws InterruptedException {
+        if (level > levels) {
+            return startLeaf();
+        }
+
+        List<String> children = new ArrayList<>();
+        for (int i = 0; i < fanout; i++) {
+            children.add(startNode(level + 1));
+        }
+
+        String address = nextAddress();
+        SimulatedCore core = new SimulatedCore();
+        OrchestrationImpl orch = new MeasuredOrchestration(latenciesOfLevels[level]);
+        core.inject(orch, OrchestrationImpl.class);
+
+        Hashtable<String, Object> properties = new Hashtable<>();
+        properties.put(SERVER_ADDRESS, address);
+        properties.put(SERVER_PORT, String.valueOf(port));
+        properties.put(CHILD_PORT, String.valueOf(port));
+        properties.put(COMPACT_WIRE_FORMAT, String.valueOf(compact));
+        orch.activate(Stubs.stub(ComponentContext.class,
+                Collections.singletonMap("getProperties", args -> properties)));
+        orchestrations.add(orch);
+        orchestrationsOfLevels[level]++;
+        if (level == 1) {
+            rootCore = core;
+        }
+
+        if (implicit) {
+            orch.changeOrchestrationToImplicit();
+        }
+        orch.executeTopologyDiscoveryAndAddChildren(new ArrayList<>(children));
+        long deadline = System.currentTimeMillis() + DISCOVERY_WAIT_MS;
+        while (orch.getChildren().size() < children.size()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("children of " + address + " are not discovered: " + children);
+            }
+            Thread.sleep(100);
+        }
+        return address;
+    }
+
+    private String startLeaf() {
+        int leaf = leaves.size();
+        SyntheticTopology topology = new SyntheticTopology(devices, leaf * devices);
+        ChildSimulator simulator = new ChildSimulator(nextAddress(), port, topology,
+                ChildSimulator.getInt(options, "leaf-threads", 2));
+        simulator.setLatency(ChildSimulator.getInt(options, "leaf-latency", 0), 0);
+        simulator.setProvisioningLatency(ChildSimulator.getInt(options, "provisioning-latency", 0));
+
+        // reported by the leaf whose device is the source, as a child detects links to its devices
+        if (leaf > 0) {
+            simulator.addInterlink(new DirectedLink(topology.device(0), PREVIOUS_LEAF_PORT,
+                    SyntheticTopology.deviceId(leaf * devices - 1), NEXT_LEAF_PORT));
+        }
+        if (leaf < leafCount - 1) {
+            simulator.addInterlink(new DirectedLink(topology.device(devices - 1), NEXT_LEAF_PORT,
+                    SyntheticTopology.deviceId((leaf + 1) * devices), PREVIOUS_LEAF_PORT));
+        }
+
+        simulator.start();
+        leaves.add(simulator);
+        return simulator.getAddress();
+    }
+
+    private String nextAddress() {
+        int n = nextAddress++;
+        return "127.1." + (n / 250) + "." + (n % 250 + 1);
+    }
+
+    void stop() {
+        for (OrchestrationImpl orch : orchestrations) {
+            orch.deactivate();
+        }
+        for (ChildSimulator leaf : leaves) {
+            leaf.stop();
+        }
+    }
+
+
+    void run(int rate, int durationSeconds, int clients) throws InterruptedException {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(clients);
+        ScheduledExecutorService pacer = Executors.newSingleThreadScheduledExecutor();
+        pacer.scheduleAtFixedRate(() -> {
+            long dueTime = System.nanoTime();
+            clientExecutor.execute(() -> provision(dueTime));
+        }, 0, TimeUnit.SECONDS.toNanos(1) / rate, TimeUnit.NANOSECONDS);
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        pacer.shutdownNow();
+        clientExecutor.shutdown();
+        clientExecutor.awaitTermination(PROVISIONING_TIMEOUT_DEFAULT * 2, TimeUnit.MILLISECONDS);
+    }
+
+    // between hosts of two devices at random, most likely in different leaves
+    private void provision(long dueTime) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ConnectPoint src = rootLocations[random.nextInt(rootLocations.length)];
+        ConnectPoint dst = rootLocations[random.nextInt(rootLocations.length)];
+
+        ObjectNode root = Json.objectNode();
+        ObjectNode provisioningNode = root.putObject("provisioning");
+        ObjectNode srcNode = provisioningNode.putObject("src");
+        srcNode.put("device", src.deviceId().toString());
+        srcNode.put("port", src.port().toLong());
+        ObjectNode dstNode = provisioningNode.putObject("dst");
+        dstNode.put("device", dst.deviceId().toString());
+        dstNode.put("port", dst.port().toLong());
+
+        String outcome;
+        try {
+            int status = post("/provisioning", Json.encode(root));
+            if (status == 200) {
+                totalLatencies.record(System.nanoTime() - dueTime);
+            } else {
+                totalLatencies.recordFailure();
+            }
+            outcome = String.valueOf(status);
+        } catch (IOException e) {
+            totalLatencies.recordFailure();
+            outcome = e.getClass().getSimpleName();
+        }
+        outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+    }
+
+    private int post(String uri, byte[] content) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http", rootAddress, port, uri).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setReadTimeout((int) PROVISIONING_TIMEOUT_DEFAULT * 2);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(content);
+        }
+
+        int status = connection.getResponseCode();
+        // read to the end, so that the connection is kept alive for the next request
+        try (InputStream in = (status < 400) ? connection.getInputStream() : connection.getErrorStream()) {
+            if (in != null) {
+                byte[] buffer = new byte[1024];
+                while (in.read(buffer) >= 0) {
+                    continue;
+                }
+            }
+        }
+        return status;
+    }
+
+
+    void report(int durationSeconds) {
+        System.out.printf("%-8s %6s %10s %8s %9s %9s %9s %9s%n",
+                "level", "nodes", "messages", "failed", "p50 ms", "p90 ms", "p99 ms", "max ms");
+
+        long messages = 0;
+        for (int level = 1; level <= levels; level++) {
+            LatencyRecorder latencies = latenciesOfLevels[level];
+            long received = latencies.getCount() + latencies.getFailures();
+            messages += received;
+            printRow(String.valueOf(level), orchestrationsOfLevels[level], received, latencies);
+        }
+
+        long leafProvisionings = 0;
+        long leafFailures = 0;
+        long leafRequests = 0;
+        for (ChildSimulator leaf : leaves) {
+            leafProvisionings += leaf.getProvisionings();
+            leafFailures += leaf.getFailedProvisionings();
+            leafRequests += leaf.getRequests();
+        }
+        messages += leafProvisionings;
+        System.out.printf("%-8s %6d %10d %8d %9s %9s %9s %9s%n",
+                "leaves", leaves.size(), leafProvisionings, leafFailures, "-", "-", "-", "-");
+
+        long sent = totalLatencies.getCount() + totalLatencies.getFailures();
+        printRow("total", 1, sent, totalLatencies);
+
+        System.out.printf("%d provisionings in %d s (%.1f/s) %s, %.1f messages of provisioning per provisioning, "
+                        + "%d requests to leaves in total%n",
+                totalLatencies.getCount(), durationSeconds, totalLatencies.getCount() / (double) durationSeconds,
+                new TreeMap<>(outcomes), (sent == 0) ? 0.0 : messages / (double) sent, leafRequests);
+    }
+
+    private static void printRow(String name, int nodes, long messages, LatencyRecorder latencies) {
+        double[] values = latencies.getPercentiles(PERCENTILES);
+        System.out.printf("%-8s %6d %10d %8d %9.2f %9.2f %9.2f %9.2f%n",
+                name, nodes, messages, latencies.getFailures(), values[0], values[1], values[2], values[3]);
+    }
+
+
+    // --name value ...
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = ChildSimulator.parseOptions(args);
+        int rate = ChildSimulator.getInt(options, "rate", DEFAULT_RATE);
+        int duration = ChildSimulator.getInt(options, "duration", DEFAULT_DURATION);
+        int clients = ChildSimulator.getInt(options, "clients", DEFAULT_CLIENTS);
+
+        HierarchyLoadHarness harness = new HierarchyLoadHarness(options);
+        try {
+            harness.start();
+            harness.run(rate, duration, clients);
+            harness.report(duration);
+        } finally {
+            harness.stop();
+        }
+        System.exit(0);
+    }
+
+
+    // records the provisionings of an orchestration in the latencies of its level; divideProvisioning(src, dst)
+    // comes here once the mac addresses are looked up
+    private static class MeasuredOrchestration extends OrchestrationImpl {
+
+        private final LatencyRecorder latencies;
+
+        MeasuredOrchestration(LatencyRecorder latencies) {
+            this.latencies = latencies;
+        }
+
+        @Override
+        public CompletableFuture<Void> divideProvisioning(ConnectPoint src, ConnectPoint dst,
+                                                          MacAddress srcMac, MacAddress dstMac) {
+            return record(System.nanoTime(), super.divideProvisioning(src, dst, srcMac, dstMac));
+        }
+
+        @Override
+        public List<CompletableFuture<Void>> divideProvisioning(List<ProvisioningRequest> requests) {
+            long startTime = System.nanoTime();
+            List<CompletableFuture<Void>> results = super.divideProvisioning(requests);
+            for (CompletableFuture<Void> result : results) {
+                record(startTime, result);
+            }
+            return results;
+        }
+
+        private CompletableFuture<Void> record(long startTime, CompletableFuture<Void> provisioning) {
+            provisioning.whenComplete((result, cause) -> {
+                if (cause == null) {
+                    latencies.record(System.nanoTime() - startTime);
+                } else {
+                    latencies.recordFailure();
+                }
+            });
+            return provisioning;
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package org.onosproject.orch.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+
+// latencies of successful requests of one kind, kept whole for exact percentiles at the end of a run,
+// and the number of failed ones
+final class LatencyRecorder {
+
+    private long[] samples = new long[1024]; // ns
+    private int count;
+    private final LongAdder failures = new LongAdder();
+
+
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    void recordFailure() {
+        failures.increment();
+    }
+
+    synchronized int getCount() {
+        return count;
+    }
+
+    long getFailures() {
+        return failures.sum();
+    }
+
+    // in ms, for each of the percentiles in [0, 100]; 0 if nothing is recorded
+    synchronized double[] getPercentiles(double... percentiles) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+
+        double[] values = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length && sorted.length > 0; i++) {
+            int rank = (int) Math.ceil(percentiles[i] / 100.0 * sorted.length);
+            long nanos = sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+            values[i] = nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+        return values;
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.onosproject.orch.bench;
+
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.orch.adt.elem.DirectedLink;
+import org.onosproject.orch.adt.elem.UndirectedLink;
+import org.onosproject.orch.monitor.ResourceTables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+// lookups of the mapping tables by the provisioning, the constructors and the withdrawal of a child,
+// over the tables of children with the given number of devices in total
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceTablesBenchmark {
+
+    private static final int CHILDREN = 16;
+
+
+    @Param({"1000", "10000", "100000"})
+    private int devices;
+
+    private ResourceTables res;
+
+    private DeviceId[] explicitDevices;
+    private DirectedLink[] explicitLinks;
+    private ConnectPoint[] hostLocations;
+    private DeviceId[] implicitDevices;
+    private long[] hostPorts;
+    private int next;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticTopology topology = new SyntheticTopology(devices);
+        res = new ResourceTables();
+
+        explicitDevices = new DeviceId[devices];
+        explicitLinks = new DirectedLink[devices];
+        hostLocations = new ConnectPoint[devices];
+        implicitDevices = new DeviceId[devices];
+        hostPorts = new long[devices];
+
+        // devices of every child are mapped to the implicit device of the child
+        for (int i = 0; i < devices; i++) {
+            String child = childIp(i);
+            DeviceId explicitDevice = SyntheticTopology.deviceId(i);
+            DeviceId implicitDevice = DeviceId.deviceId("imvs:" + child);
+            explicitDevices[i] = explicitDevice;
+            implicitDevices[i] = implicitDevice;
+
+            res.putIntoDeviceOwnerTable(explicitDevice, child);
+            res.putIntoActualDeviceIdTable(explicitDevice, explicitDevice);
+            res.putIntoDeviceMappingTable(explicitDevice, implicitDevice);
+        }
+        for (int i = 0; i < devices; i++) {
+            explicitLinks[i] = topology.link(i);
+            res.buildImplicitLinkAndPutIntoLinkMappingTable(explicitLinks[i]);
+
+            hostLocations[i] = new ConnectPoint(explicitDevices[i], PortNumber.portNumber(3));
+            hostPorts[i] = res.putIntoPortTableAndAllocatePort(hostLocations[i]);
+        }
+    }
+
+    private static String childIp(int device) {
+        return "10.0.0." + (device % CHILDREN + 1);
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % devices;
+        return next;
+    }
+
+
+    @Benchmark
+    public String deviceOwner() {
+        return res.getFromDeviceOwnerTable(explicitDevices[nextIndex()]);
+    }
+
+    @Benchmark
+    public DeviceId actualDeviceId() {
+        return res.getActualDeviceId(explicitDevices[nextIndex()]);
+    }
+
+    @Benchmark
+    public DeviceId implicitDevice() {
+        return res.getImplicitFromDeviceMappingTable(explicitDevices[nextIndex()]);
+    }
+
+    // a link reported again by a snapshot
+    @Benchmark
+    public UndirectedLink implicitLinkOfReportedLink() {
+        return res.buildImplicitLinkAndPutIntoLinkMappingTable(explicitLinks[nextIndex()]);
+    }
+
+    @Benchmark
+    public ConnectPoint explicitConnectPoint() {
+        int i = nextIndex();
+        return res.getExplicitConnectPoint(implicitDevices[i], hostPorts[i]);
+    }
+
+    // scans the owners of every device
+    @Benchmark
+    public List<DeviceId> devicesOwnedByChild() {
+        return res.getDevicesOwnedBy(childIp(nextIndex()));
+    }
+
+}
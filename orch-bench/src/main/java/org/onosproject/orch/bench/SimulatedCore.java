@@ -0,0 +1,359 @@
+package org.onosproject.orch.bench;
+
+import org.onlab.graph.ScalarWeight;
+import org.onosproject.cfg.ComponentConfigService;
+import org.onosproject.codec.CodecService;
+import org.onosproject.core.CoreService;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultDevice;
+import org.onosproject.net.DefaultHost;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.DefaultPath;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Host;
+import org.onosproject.net.HostId;
+import org.onosproject.net.Link;
+import org.onosproject.net.MastershipRole;
+import org.onosproject.net.Path;
+import org.onosproject.net.device.DeviceDescription;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
+import org.onosproject.net.device.DeviceProviderRegistry;
+import org.onosproject.net.device.DeviceProviderService;
+import org.onosproject.net.device.DeviceService;
+import org.onosproject.net.flow.FlowRuleOperations;
+import org.onosproject.net.flow.FlowRuleService;
+import org.onosproject.net.host.HostDescription;
+import org.onosproject.net.host.HostEvent;
+import org.onosproject.net.host.HostListener;
+import org.onosproject.net.host.HostProviderRegistry;
+import org.onosproject.net.host.HostProviderService;
+import org.onosproject.net.host.HostService;
+import org.onosproject.net.link.LinkDescription;
+import org.onosproject.net.link.LinkEvent;
+import org.onosproject.net.link.LinkListener;
+import org.onosproject.net.link.LinkProviderRegistry;
+import org.onosproject.net.link.LinkProviderService;
+import org.onosproject.net.link.LinkService;
+import org.onosproject.net.provider.Provider;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyService;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+
+// the services of onos which an orchestration refers to, over devices, links and hosts kept in memory.
+// elements from the providers are added at once and notified to the listeners on the calling thread;
+// a link is kept even if one of its devices is unknown, as the interlinks of a child are,
+// but paths only go through links between known devices. flow rules are installed without devices
+final class SimulatedCore {
+
+    private final Map<DeviceId, Device> devices = new ConcurrentHashMap<>();
+    private final Map<List<ConnectPoint>, Link> links = new ConcurrentHashMap<>();
+    private final Map<HostId, Host> hosts = new ConcurrentHashMap<>();
+    private final Map<ConnectPoint, Host> hostsByLocation = new ConcurrentHashMap<>();
+
+    private final List<DeviceListener> deviceListeners = new CopyOnWriteArrayList<>();
+    private final List<LinkListener> linkListeners = new CopyOnWriteArrayList<>();
+    private final List<HostListener> hostListeners = new CopyOnWriteArrayList<>();
+
+    private volatile Graph graph; // null after a change, until the topology is asked again
+
+    private final Map<Class<?>, Object> services = new HashMap<>();
+
+
+    SimulatedCore() {
+        Map<String, Function<Object[], Object>> coreAnswers = new HashMap<>();
+        coreAnswers.put("registerApplication", args -> new DefaultApplicationId(1, (String) args[0]));
+        services.put(CoreService.class, Stubs.stub(CoreService.class, coreAnswers));
+        services.put(ComponentConfigService.class, Stubs.stub(ComponentConfigService.class, Collections.emptyMap()));
+        services.put(CodecService.class, Stubs.stub(CodecService.class, Collections.emptyMap()));
+
+        services.put(DeviceProviderRegistry.class, Stubs.stub(DeviceProviderRegistry.class,
+                Collections.singletonMap("register", args -> deviceProviderService(((Provider) args[0]).id()))));
+        services.put(LinkProviderRegistry.class, Stubs.stub(LinkProviderRegistry.class,
+                Collections.singletonMap("register", args -> linkProviderService(((Provider) args[0]).id()))));
+        services.put(HostProviderRegistry.class, Stubs.stub(HostProviderRegistry.class,
+                Collections.singletonMap("register", args -> hostProviderService(((Provider) args[0]).id()))));
+
+        Map<String, Function<Object[], Object>> deviceAnswers = new HashMap<>();
+        deviceAnswers.put("getDevice", args -> devices.get(args[0]));
+        deviceAnswers.put("getDevices", args -> new ArrayList<>(devices.values()));
+        deviceAnswers.put("getDeviceCount", args -> devices.size());
+        deviceAnswers.put("isAvailable", args -> devices.containsKey(args[0]));
+        deviceAnswers.put("getRole", args -> MastershipRole.MASTER);
+        deviceAnswers.put("addListener", args -> deviceListeners.add((DeviceListener) args[0]));
+        deviceAnswers.put("removeListener", args -> deviceListeners.remove(args[0]));
+        services.put(DeviceService.class, Stubs.stub(DeviceService.class, deviceAnswers));
+
+        Map<String, Function<Object[], Object>> linkAnswers = new HashMap<>();
+        linkAnswers.put("getLink", args -> links.get(Arrays.asList(args[0], args[1])));
+        linkAnswers.put("getLinks", args -> new ArrayList<>(links.values()));
+        linkAnswers.put("getLinkCount", args -> links.size());
+        linkAnswers.put("addListener", args -> linkListeners.add((LinkListener) args[0]));
+        linkAnswers.put("removeListener", args -> linkListeners.remove(args[0]));
+        services.put(LinkService.class, Stubs.stub(LinkService.class, linkAnswers));
+
+        Map<String, Function<Object[], Object>> hostAnswers = new HashMap<>();
+        hostAnswers.put("getHost", args -> hosts.get(args[0]));
+        hostAnswers.put("getHostCount", args -> hosts.size());
+        hostAnswers.put("getConnectedHosts", args -> getConnectedHosts(args[0]));
+        hostAnswers.put("addListener", args -> hostListeners.add((HostListener) args[0]));
+        hostAnswers.put("removeListener", args -> hostListeners.remove(args[0]));
+        services.put(HostService.class, Stubs.stub(HostService.class, hostAnswers));
+
+        // paths are dropped by the path cache when the topology is another one
+        Map<String, Function<Object[], Object>> topologyAnswers = new HashMap<>();
+        topologyAnswers.put("currentTopology", args -> getGraph().topology);
+        topologyAnswers.put("getPaths", args -> getPaths((DeviceId) args[1], (DeviceId) args[2]));
+        services.put(TopologyService.class, Stubs.stub(TopologyService.class, topologyAnswers));
+
+        services.put(FlowRuleService.class, Stubs.stub(FlowRuleService.class,
+                Collections.singletonMap("apply", args -> applyFlowRules((FlowRuleOperations) args[0]))));
+    }
+
+
+    // fields of the component whose types are services of this core, as the service component runtime sets them
+    void inject(Object component, Class<?> type) {
+        for (Field field : type.getDeclaredFields()) {
+            Object service = services.get(field.getType());
+            if (service == null) {
+                continue;
+            }
+            field.setAccessible(true);
+            try {
+                field.set(component, service);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("cannot set " + field.getName(), e);
+            }
+        }
+    }
+
+    // where a host with the mac address is attached in this core, or null
+    ConnectPoint getLocation(String mac) {
+        for (Host host : hosts.values()) {
+            if (host.mac().toString().equalsIgnoreCase(mac)) {
+                return host.location();
+            }
+        }
+        return null;
+    }
+
+
+    private DeviceProviderService deviceProviderService(ProviderId providerId) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("deviceConnected", args -> {
+            addDevice(providerId, (DeviceId) args[0], (DeviceDescription) args[1]);
+            return null;
+        });
+        answers.put("deviceDisconnected", args -> {
+            removeDevice((DeviceId) args[0]);
+            return null;
+        });
+        return Stubs.stub(DeviceProviderService.class, answers);
+    }
+
+    private LinkProviderService linkProviderService(ProviderId providerId) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("linkDetected", args -> {
+            addLink(providerId, (LinkDescription) args[0]);
+            return null;
+        });
+        answers.put("linkVanished", args -> {
+            LinkDescription description = (LinkDescription) args[0];
+            removeLink(description.src(), description.dst());
+            return null;
+        });
+        return Stubs.stub(LinkProviderService.class, answers);
+    }
+
+    private HostProviderService hostProviderService(ProviderId providerId) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("hostDetected", args -> {
+            addHost(providerId, (HostId) args[0], (HostDescription) args[1]);
+            return null;
+        });
+        return Stubs.stub(HostProviderService.class, answers);
+    }
+
+
+    private synchronized void addDevice(ProviderId providerId, DeviceId deviceId, DeviceDescription description) {
+        if (devices.containsKey(deviceId)) {
+            return;
+        }
+        Device device = new DefaultDevice(providerId, deviceId, description.type(), description.manufacturer(),
+                description.hwVersion(), description.swVersion(), description.serialNumber(),
+                description.chassisId(), description.annotations());
+        devices.put(deviceId, device);
+        graph = null;
+
+        DeviceEvent event = new DeviceEvent(DeviceEvent.Type.DEVICE_ADDED, device);
+        deviceListeners.forEach(listener -> listener.event(event));
+    }
+
+    // with its links and hosts
+    private synchronized void removeDevice(DeviceId deviceId) {
+        Device device = devices.remove(deviceId);
+        if (device == null) {
+            return;
+        }
+        graph = null;
+
+        for (Link link : new ArrayList<>(links.values())) {
+            if (link.src().deviceId().equals(deviceId) || link.dst().deviceId().equals(deviceId)) {
+                removeLink(link.src(), link.dst());
+            }
+        }
+        for (Host host : new ArrayList<>(hosts.values())) {
+            if (host.location().deviceId().equals(deviceId)) {
+                hosts.remove(host.id());
+                hostsByLocation.remove(host.location());
+                HostEvent event = new HostEvent(HostEvent.Type.HOST_REMOVED, host);
+                hostListeners.forEach(listener -> listener.event(event));
+            }
+        }
+
+        DeviceEvent event = new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, device);
+        deviceListeners.forEach(listener -> listener.event(event));
+    }
+
+    private synchronized void addLink(ProviderId providerId, LinkDescription description) {
+        List<ConnectPoint> key = Arrays.asList(description.src(), description.dst());
+        if (links.containsKey(key)) {
+            return;
+        }
+        Link link = DefaultLink.builder()
+                .providerId(providerId)
+                .src(description.src())
+                .dst(description.dst())
+                .type(description.type())
+                .state(Link.State.ACTIVE)
+                .build();
+        links.put(key, link);
+        graph = null;
+
+        LinkEvent event = new LinkEvent(LinkEvent.Type.LINK_ADDED, link);
+        linkListeners.forEach(listener -> listener.event(event));
+    }
+
+    private synchronized void removeLink(ConnectPoint src, ConnectPoint dst) {
+        Link link = links.remove(Arrays.asList(src, dst));
+        if (link == null) {
+            return;
+        }
+        graph = null;
+
+        LinkEvent event = new LinkEvent(LinkEvent.Type.LINK_REMOVED, link);
+        linkListeners.forEach(listener -> listener.event(event));
+    }
+
+    private synchronized void addHost(ProviderId providerId, HostId hostId, HostDescription description) {
+        if (hosts.containsKey(hostId)) {
+            return;
+        }
+        Host host = new DefaultHost(providerId, hostId, description.hwAddress(), description.vlan(),
+                description.location(), description.ipAddress());
+        hosts.put(hostId, host);
+        hostsByLocation.put(host.location(), host);
+
+        HostEvent event = new HostEvent(HostEvent.Type.HOST_ADDED, host);
+        hostListeners.forEach(listener -> listener.event(event));
+    }
+
+    private Set<Host> getConnectedHosts(Object location) {
+        Host host = (location instanceof ConnectPoint) ? hostsByLocation.get(location) : null;
+        return (host == null) ? Collections.emptySet() : Collections.singleton(host);
+    }
+
+    private Object applyFlowRules(FlowRuleOperations ops) {
+        if (ops.callback() != null) {
+            ops.callback().onSuccess(ops);
+        }
+        return null;
+    }
+
+
+    private Graph getGraph() {
+        Graph current = graph;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (graph == null) {
+                graph = new Graph(devices.keySet(), links.values());
+            }
+            return graph;
+        }
+    }
+
+    // the shortest by hops, as the first path of onos is
+    private Set<Path> getPaths(DeviceId src, DeviceId dst) {
+        Map<DeviceId, List<Link>> egressLinks = getGraph().egressLinks;
+        if (src.equals(dst) || !egressLinks.containsKey(src) || !egressLinks.containsKey(dst)) {
+            return Collections.emptySet();
+        }
+
+        Map<DeviceId, Link> ingressLinkOnPath = new HashMap<>();
+        Deque<DeviceId> queue = new ArrayDeque<>();
+        ingressLinkOnPath.put(src, null);
+        queue.add(src);
+        while (!queue.isEmpty() && !ingressLinkOnPath.containsKey(dst)) {
+            for (Link link : egressLinks.get(queue.poll())) {
+                if (!ingressLinkOnPath.containsKey(link.dst().deviceId())) {
+                    ingressLinkOnPath.put(link.dst().deviceId(), link);
+                    queue.add(link.dst().deviceId());
+                }
+            }
+        }
+        if (!ingressLinkOnPath.containsKey(dst)) {
+            return Collections.emptySet();
+        }
+
+        List<Link> pathLinks = new ArrayList<>();
+        Link link = ingressLinkOnPath.get(dst);
+        while (link != null) {
+            pathLinks.add(link);
+            link = ingressLinkOnPath.get(link.src().deviceId());
+        }
+        Collections.reverse(pathLinks);
+        return Collections.singleton(new DefaultPath(pathLinks.get(0).providerId(), pathLinks,
+                ScalarWeight.toWeight(pathLinks.size())));
+    }
+
+
+    // links between known devices of one version of the topology
+    private static final class Graph {
+        private final Topology topology = Stubs.stub(Topology.class, Collections.emptyMap());
+        private final Map<DeviceId, List<Link>> egressLinks = new HashMap<>();
+
+        private Graph(Set<DeviceId> devices, Iterable<Link> links) {
+            for (DeviceId deviceId : devices) {
+                egressLinks.put(deviceId, new ArrayList<>());
+            }
+            for (Link link : links) {
+                if (egressLinks.containsKey(link.dst().deviceId())) {
+                    List<Link> egress = egressLinks.get(link.src().deviceId());
+                    if (egress != null) {
+                        egress.add(link);
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package org.onosproject.orch.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onosproject.orch.json.CompactJson;
+import org.onosproject.orch.json.Json;
+import org.onosproject.orch.rest.client.StreamingJsonDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+
+// decoding of a document of links alone, element by element while its chunks arrive,
+// against the whole tree decoded at once as before the streaming decoder, and the same document in the form of
+// CompactJson between orchestrators which have it
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingJsonDecoderBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int elements;
+
+    @Param({"8192"})
+    private int chunkSize;
+
+    private byte[] linksDocument;
+    private byte[] compactLinksDocument;
+
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        linksDocument = SyntheticTopology.ofElements(elements).linksDocument();
+        compactLinksDocument = CompactJson.encode(Json.MAPPER.readTree(linksDocument));
+    }
+
+
+    @Benchmark
+    public boolean streaming(Blackhole bh) {
+        return decode(new StreamingJsonDecoder(createListener(bh)), linksDocument);
+    }
+
+    @Benchmark
+    public boolean streamingCompact(Blackhole bh) {
+        return decode(new StreamingJsonDecoder(createListener(bh), true), compactLinksDocument);
+    }
+
+    @Benchmark
+    public JsonNode wholeTree() throws IOException {
+        return Json.MAPPER.readTree(linksDocument);
+    }
+
+
+    private boolean decode(StreamingJsonDecoder decoder, byte[] document) {
+        for (int offset = 0; offset < document.length; offset += chunkSize) {
+            decoder.feed(document, offset, Math.min(chunkSize, document.length - offset));
+        }
+        return decoder.end();
+    }
+
+    private static StreamingJsonDecoder.Listener createListener(Blackhole bh) {
+        return new StreamingJsonDecoder.Listener() {
+            @Override
+            public void arrayStarted(String path) {
+            }
+
+            @Override
+            public void elementDecoded(String path, ObjectNode element) {
+                bh.consume(element);
+            }
+
+            @Override
+            public void valueDecoded(String path, JsonNode value) {
+                bh.consume(value);
+            }
+
+            @Override
+            public void decodingFinished() {
+            }
+        };
+    }
+
+}
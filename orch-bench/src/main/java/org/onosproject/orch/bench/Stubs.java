@@ -0,0 +1,98 @@
+package org.onosproject.orch.bench;
+
+import org.onosproject.core.ApplicationId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.link.LinkService;
+import org.onosproject.net.topology.TopologyService;
+import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.core.PathCache;
+import org.onosproject.orch.monitor.ResourceTables;
+import org.onosproject.orch.monitor.TopologyInformation;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+
+// services of onos and the orchestration answered by the name of the method, and by defaults otherwise;
+// calls to the core, such as addDevice, do nothing
+final class Stubs {
+
+    private Stubs() {
+    }
+
+
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (p, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(p);
+                    case "equals":
+                        return p == args[0];
+                    default:
+                        return type.getSimpleName() + " stub";
+                }
+            }
+            return defaultValue(method.getReturnType());
+        });
+        return type.cast(proxy);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0.0;
+        }
+        return null;
+    }
+
+
+    // the orchestration of explicit (or implicit) orchestration over the given tables
+    static Orchestration orchestration(ResourceTables res, TopologyInformation info, boolean implicit) {
+        return orchestration(res, info, implicit, null, null);
+    }
+
+    static Orchestration orchestration(ResourceTables res, TopologyInformation info, boolean implicit,
+                                       TopologyService topologyService, LinkService linkService) {
+        return orchestration(res, info, implicit, topologyService, linkService, Collections.emptyMap());
+    }
+
+    // with answers of other methods, or instead of the ones above
+    static Orchestration orchestration(ResourceTables res, TopologyInformation info, boolean implicit,
+                                       TopologyService topologyService, LinkService linkService,
+                                       Map<String, Function<Object[], Object>> otherAnswers) {
+        ApplicationId appId = new DefaultApplicationId(1, "org.onosproject.orch");
+        PathCache[] pathCache = new PathCache[1];
+
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getApplicationId", args -> appId);
+        answers.put("getResourceTables", args -> res);
+        answers.put("getTopologyInformation", args -> info);
+        answers.put("getTopologyService", args -> topologyService);
+        answers.put("getLinkService", args -> linkService);
+        answers.put("getPathCache", args -> pathCache[0]);
+        answers.put("isImplicitOrchestration", args -> implicit);
+        answers.put("getSchemeForExplicit", args -> "exvs");
+        answers.put("getSchemeForImplicit", args -> "imvs");
+        answers.putAll(otherAnswers);
+
+        Orchestration orch = stub(Orchestration.class, answers);
+        if (topologyService != null) {
+            pathCache[0] = new PathCache(orch);
+        }
+        return orch;
+    }
+
+}
@@ -0,0 +1,141 @@
+package org.onosproject.orch.bench;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.HostId;
+import org.onosproject.orch.adt.elem.DirectedLink;
+import org.onosproject.orch.json.Json;
+
+
+// a ring of devices of a child, each of them with one host, in the documents of GET /devices, /links and /hosts.
+// every device has links to both of its neighbours on ports 1 and 2, and its host on port 3,
+// so a ring of n devices has 4n elements: n devices, 2n links and n hosts.
+// rings of several children are numbered apart from each other by the first device of each
+final class SyntheticTopology {
+
+    static final String CHILD_IP = "10.0.0.1";
+
+
+    private final int devices;
+    private final int first;
+
+
+    // as many devices as fit in the number of elements
+    static SyntheticTopology ofElements(int elements) {
+        return new SyntheticTopology(Math.max(2, elements / 4));
+    }
+
+    SyntheticTopology(int devices) {
+        this(devices, 0);
+    }
+
+    SyntheticTopology(int devices, int first) {
+        this.devices = devices;
+        this.first = first;
+    }
+
+
+    int getDevices() {
+        return devices;
+    }
+
+    int getFirst() {
+        return first;
+    }
+
+    static DeviceId deviceId(int i) {
+        return DeviceId.deviceId(String.format("of:%016x", i + 1));
+    }
+
+    static String mac(int i) {
+        return String.format("02:00:%02x:%02x:%02x:%02x", (i >>> 24) & 0xff, (i >>> 16) & 0xff,
+                (i >>> 8) & 0xff, i & 0xff);
+    }
+
+    static HostId hostId(int i) {
+        return HostId.hostId(mac(i) + "/None");
+    }
+
+    // i-th device of this ring
+    DeviceId device(int i) {
+        return deviceId(first + i);
+    }
+
+    HostId host(int i) {
+        return hostId(first + i);
+    }
+
+    // from device i to the next one on the ring
+    DirectedLink link(int i) {
+        return new DirectedLink(device(i), 2, device((i + 1) % devices), 1);
+    }
+
+    DirectedLink reverseLink(int i) {
+        return new DirectedLink(device((i + 1) % devices), 1, device(i), 2);
+    }
+
+
+    ObjectNode deviceJson(int i) {
+        ObjectNode deviceNode = Json.objectNode();
+        deviceNode.put("id", device(i).toString());
+        deviceNode.put("type", "SWITCH");
+        deviceNode.put("available", true);
+        return deviceNode;
+    }
+
+    static ObjectNode linkJson(DirectedLink link) {
+        ObjectNode linkNode = Json.objectNode();
+        ObjectNode srcNode = linkNode.putObject("src");
+        srcNode.put("device", link.getSrc().deviceId().toString());
+        srcNode.put("port", link.getSrc().port().toLong());
+        ObjectNode dstNode = linkNode.putObject("dst");
+        dstNode.put("device", link.getDst().deviceId().toString());
+        dstNode.put("port", link.getDst().port().toLong());
+        return linkNode;
+    }
+
+    ObjectNode hostJson(int i) {
+        ObjectNode hostNode = Json.objectNode();
+        hostNode.put("mac", mac(first + i));
+        hostNode.put("vlan", "None");
+        ObjectNode locationNode = hostNode.putObject("location");
+        locationNode.put("elementId", device(i).toString());
+        locationNode.put("port", 3);
+        return hostNode;
+    }
+
+
+    // {"devices":[...]}
+    byte[] devicesDocument() {
+        ObjectNode root = Json.objectNode();
+        ArrayNode devicesNode = root.putArray("devices");
+        for (int i = 0; i < devices; i++) {
+            devicesNode.add(deviceJson(i));
+        }
+        return Json.encode(root);
+    }
+
+    // {"links":[...],"seq":0}
+    byte[] linksDocument() {
+        ObjectNode root = Json.objectNode();
+        ArrayNode linksNode = root.putArray("links");
+        for (int i = 0; i < devices; i++) {
+            linksNode.add(linkJson(link(i)));
+            linksNode.add(linkJson(reverseLink(i)));
+        }
+        root.put("seq", 0);
+        return Json.encode(root);
+    }
+
+    // {"hosts":[...]}
+    byte[] hostsDocument() {
+        ObjectNode root = Json.objectNode();
+        ArrayNode hostsNode = root.putArray("hosts");
+        for (int i = 0; i < devices; i++) {
+            hostsNode.add(hostJson(i));
+        }
+        return Json.encode(root);
+    }
+
+}
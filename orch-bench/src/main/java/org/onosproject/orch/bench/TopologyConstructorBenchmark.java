@@ -0,0 +1,106 @@
+package org.onosproject.orch.bench;
+
+import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.core.explicit.ExplicitTopologyConstructor;
+import org.onosproject.orch.core.implicit.ImplicitTopologyConstructor;
+import org.onosproject.orch.monitor.ResourceTables;
+import org.onosproject.orch.monitor.TopologyInformation;
+import org.onosproject.orch.rest.client.StreamingJsonDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+// documents of a child applied by the topology constructors while they are decoded, as the response handlers do:
+// discovery of a new child, and a snapshot of links polled again without changes
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopologyConstructorBenchmark {
+
+    private static final int CHUNK_SIZE = 8192; // about a read of the event loop
+
+
+    @Param({"1000", "10000", "100000"})
+    private int elements;
+
+    @Param({"explicit", "implicit"})
+    private String abstraction;
+
+    private byte[] devicesDocument;
+    private byte[] linksDocument;
+    private byte[] hostsDocument;
+
+    private Orchestration discoveredOrch; // the child is already discovered
+    private Orchestration newOrch; // nothing is known about the child
+
+
+    @Setup(Level.Trial)
+    public void setUpDocuments() {
+        SyntheticTopology topology = SyntheticTopology.ofElements(elements);
+        devicesDocument = topology.devicesDocument();
+        linksDocument = topology.linksDocument();
+        hostsDocument = topology.hostsDocument();
+
+        discoveredOrch = newOrchestration();
+        discover(discoveredOrch);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpTables() {
+        newOrch = newOrchestration();
+    }
+
+    private Orchestration newOrchestration() {
+        return Stubs.orchestration(new ResourceTables(), new TopologyInformation(), abstraction.equals("implicit"));
+    }
+
+
+    @Benchmark
+    public Orchestration discoverChild() {
+        discover(newOrch);
+        return newOrch;
+    }
+
+    @Benchmark
+    public Orchestration applyUnchangedLinks() {
+        apply(discoveredOrch, linksDocument);
+        return discoveredOrch;
+    }
+
+
+    private void discover(Orchestration orch) {
+        apply(orch, devicesDocument);
+        apply(orch, linksDocument);
+        apply(orch, hostsDocument);
+    }
+
+    private void apply(Orchestration orch, byte[] document) {
+        StreamingJsonDecoder.Listener constructor = orch.isImplicitOrchestration()
+                ? ImplicitTopologyConstructor.create(SyntheticTopology.CHILD_IP, orch)
+                : ExplicitTopologyConstructor.create(SyntheticTopology.CHILD_IP, orch);
+
+        StreamingJsonDecoder decoder = new StreamingJsonDecoder(constructor);
+        for (int offset = 0; offset < document.length; offset += CHUNK_SIZE) {
+            decoder.feed(document, offset, Math.min(CHUNK_SIZE, document.length - offset));
+        }
+        if (!decoder.end()) {
+            throw new IllegalStateException("document is broken");
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package org.onosproject.orch.bench;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onosproject.orch.adt.elem.DirectedLink;
+import org.onosproject.orch.monitor.LinkChangeLog;
+import org.onosproject.orch.monitor.TopologyInformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+// what a parent asks of this controller: the documents of GET /devices, /links and /hosts,
+// snapshots of the views, and changes since a cursor of GET /edgeUpdates
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopologyInformationBenchmark {
+
+    private static final int CHANGES_SINCE_CURSOR = 64;
+
+
+    @Param({"1000", "10000", "100000"})
+    private int elements;
+
+    private SyntheticTopology topology;
+    private TopologyInformation info;
+
+    private DirectedLink flappingLink;
+    private ObjectNode flappingLinkJson;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        topology = SyntheticTopology.ofElements(elements);
+        info = new TopologyInformation();
+
+        for (int i = 0; i < topology.getDevices(); i++) {
+            ObjectNode deviceJson = topology.deviceJson(i);
+            info.putDevice(SyntheticTopology.deviceId(i), deviceJson, deviceJson);
+            info.putHost(SyntheticTopology.hostId(i), topology.hostJson(i));
+
+            for (DirectedLink link : new DirectedLink[] {topology.link(i), topology.reverseLink(i)}) {
+                ObjectNode linkJson = SyntheticTopology.linkJson(link);
+                info.putLink(link, linkJson, linkJson, linkJson);
+            }
+        }
+
+        flappingLink = topology.link(0);
+        flappingLinkJson = SyntheticTopology.linkJson(flappingLink);
+        for (int i = 0; i < CHANGES_SINCE_CURSOR; i++) {
+            info.putLink(flappingLink, flappingLinkJson, flappingLinkJson, flappingLinkJson);
+        }
+    }
+
+
+    // shared until the next change
+    @Benchmark
+    public byte[] linksDocument() {
+        return info.getExplicitLinksDocument();
+    }
+
+    // the first request after a change encodes the document again
+    @Benchmark
+    public byte[] linksDocumentAfterChange() {
+        info.putLink(flappingLink, flappingLinkJson, flappingLinkJson, flappingLinkJson);
+        return info.getExplicitLinksDocument();
+    }
+
+    @Benchmark
+    public String linksEntityTag() {
+        return info.getExplicitLinksEntityTag();
+    }
+
+    @Benchmark
+    public List<ObjectNode> linksSnapshot() {
+        return info.getExplicitLinksJson();
+    }
+
+    @Benchmark
+    public List<ObjectNode> devicesSnapshot() {
+        return info.getExplicitDevicesJson();
+    }
+
+    @Benchmark
+    public List<ObjectNode> hostsSnapshot() {
+        return info.getHostsJson();
+    }
+
+    @Benchmark
+    public Collection<LinkChangeLog.Entry> linkChangesSinceCursor() {
+        return info.getLinkChangesSince(info.getLastSeqOfLinkChanges() - CHANGES_SINCE_CURSOR);
+    }
+
+}
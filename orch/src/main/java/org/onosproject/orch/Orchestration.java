@@ -11,10 +11,21 @@ import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.host.HostService;
 import org.onosproject.net.link.LinkService;
 import org.onosproject.net.topology.TopologyService;
+import org.onosproject.orch.adt.elem.ProvisioningRequest;
+import org.onosproject.orch.core.ChildHealth;
+import org.onosproject.orch.core.OrchestrationExecutors;
+import org.onosproject.orch.core.PathCache;
+import org.onosproject.orch.metrics.OrchestrationMetrics;
 import org.onosproject.orch.monitor.ResourceTables;
 import org.onosproject.orch.monitor.TopologyInformation;
+import org.onosproject.orch.rest.client.RestClientPool;
+import org.onosproject.orch.trace.TraceStore;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 
 public interface Orchestration {
@@ -29,6 +40,11 @@ public interface Orchestration {
 
     ResourceTables getResourceTables();
     TopologyInformation getTopologyInformation();
+    RestClientPool getRestClientPool();
+    PathCache getPathCache();
+    OrchestrationExecutors getExecutors();
+    OrchestrationMetrics getMetrics();
+    TraceStore getTraceStore();
 
     boolean isImplicitOrchestration();
     String getSchemeForExplicit();
@@ -38,14 +54,31 @@ public interface Orchestration {
     boolean changeOrchestrationToImplicit();
 
     void executeTopologyDiscoveryAndAddChildren(ArrayList<String> children);
+    // number of fault monitoring cycles whose deadline each child has missed
+    Map<String, Long> getMissedMonitoringDeadlines();
+    // current polling interval of each polled child in ms, and the ceiling of them
+    Map<String, Long> getPollingIntervals();
+    long getMaxPollingInterval();
+    void setMaxPollingInterval(long intervalMs);
+    boolean isStreamingChild(String child);
+
+    Set<String> getChildren();
+    ChildHealth getChildHealth(String child);
+    // devices of a child are withdrawn after an outage of this length in ms; 0 to keep them
+    long getChildWithdrawalTimeout();
+    void setChildWithdrawalTimeout(long timeoutMs);
 
     void addDevice(DeviceId deviceId);
+    void removeDevice(DeviceId deviceId);
     void addLink(ConnectPoint src, ConnectPoint dst);
     void deleteLink(ConnectPoint src, ConnectPoint dst);
     void addHost(MacAddress macAddress, VlanId vlanId, HostLocation location);
 
-    void divideProvisioning(ConnectPoint src, ConnectPoint dst);
-    void divideProvisioning(ConnectPoint src, ConnectPoint dst, MacAddress srcMac, MacAddress dstMac);
-    void applyFlowRulesToMyself(String jsonString);
+    // completed when the flow rules are installed
+    CompletableFuture<Void> divideProvisioning(ConnectPoint src, ConnectPoint dst);
+    CompletableFuture<Void> divideProvisioning(ConnectPoint src, ConnectPoint dst,
+                                               MacAddress srcMac, MacAddress dstMac);
+    List<CompletableFuture<Void>> divideProvisioning(List<ProvisioningRequest> requests);
+    CompletableFuture<Void> applyFlowRulesToMyself(String jsonString);
 
 }
@@ -0,0 +1,38 @@
+package org.onosproject.orch.adt.elem;
+
+import org.onlab.packet.MacAddress;
+import org.onosproject.net.ConnectPoint;
+
+
+// a pair of hosts to connect; mac addresses are null if they are looked up from the locations
+public class ProvisioningRequest {
+    private ConnectPoint src;
+    private ConnectPoint dst;
+    private MacAddress srcMac;
+    private MacAddress dstMac;
+
+    public ProvisioningRequest(ConnectPoint src, ConnectPoint dst, MacAddress srcMac, MacAddress dstMac) {
+        this.src = src;
+        this.dst = dst;
+        this.srcMac = srcMac;
+        this.dstMac = dstMac;
+    }
+
+    public ConnectPoint getSrc() {
+        return src;
+    }
+    public ConnectPoint getDst() {
+        return dst;
+    }
+    public MacAddress getSrcMac() {
+        return srcMac;
+    }
+    public MacAddress getDstMac() {
+        return dstMac;
+    }
+
+    @Override
+    public String toString() {
+        return src + " -> " + dst;
+    }
+}
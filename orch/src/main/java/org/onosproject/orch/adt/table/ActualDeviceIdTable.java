@@ -27,4 +27,8 @@ public class ActualDeviceIdTable {
         return ex2acTable.get(explicitDevice);
     }
 
+    public int size() {
+        return ex2acTable.size();
+    }
+
 }
@@ -19,4 +19,8 @@ public class DeviceMappingTable {
     public DeviceId getImplicit(DeviceId explicitDevice) {
         return table.get(explicitDevice);
     }
+
+    public int size() {
+        return table.size();
+    }
 }
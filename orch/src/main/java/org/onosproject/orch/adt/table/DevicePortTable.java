@@ -55,6 +55,11 @@ public class DevicePortTable {
         return table.get(implicitDeviceId).get(port);
     }
 
+    // explicit connect points, each of them mapped to a port of an implicit device
+    public int size() {
+        return checkTable.size();
+    }
+
     private boolean isMapped(ConnectPoint explicitConnectPoint) {
         return checkTable.containsKey(explicitConnectPoint);
     }
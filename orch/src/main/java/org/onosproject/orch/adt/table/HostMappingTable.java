@@ -25,4 +25,8 @@ public class HostMappingTable {
     public boolean containsImplicitHost(SimpleHost implicitHost) {
         return im2exTable.containsKey(implicitHost);
     }
+
+    public int size() {
+        return ex2imTable.size();
+    }
 }
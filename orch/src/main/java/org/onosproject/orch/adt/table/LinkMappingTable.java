@@ -80,6 +80,11 @@ public class LinkMappingTable {
         return im2exTable.containsKey(implicitLink);
     }
 
+    // explicit links, each of them mapped to an implicit link
+    public int size() {
+        return ex2imTable.size();
+    }
+
     public boolean hasConnectionBetween(DeviceId deviceId1, DeviceId deviceId2) {
         if (!connectionTable.containsKey(deviceId1) || !connectionTable.containsKey(deviceId2)) {
             return false;
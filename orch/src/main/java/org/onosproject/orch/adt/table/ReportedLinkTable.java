@@ -0,0 +1,45 @@
+package org.onosproject.orch.adt.table;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onosproject.orch.adt.elem.DirectedLink;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+public class ReportedLinkTable {
+    // links as reported by each child, to find links missing in a snapshot
+    private final ConcurrentHashMap<String, ConcurrentHashMap<DirectedLink, ObjectNode>> table; // IP:(link:json)
+
+    public ReportedLinkTable() {
+        table = new ConcurrentHashMap<>();
+    }
+
+    public void put(String ip, DirectedLink link, ObjectNode linkJson) {
+        table.computeIfAbsent(ip, k -> new ConcurrentHashMap<>()).put(link, linkJson);
+    }
+
+    public void remove(String ip, DirectedLink link) {
+        Map<DirectedLink, ObjectNode> links = table.get(ip);
+        if (links != null) {
+            links.remove(link);
+        }
+    }
+
+    public Map<DirectedLink, ObjectNode> getLinks(String ip) {
+        Map<DirectedLink, ObjectNode> links = table.get(ip);
+        if (links == null) {
+            return new HashMap<>();
+        }
+        return new HashMap<>(links);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<DirectedLink, ObjectNode> links : table.values()) {
+            size += links.size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,132 @@
+package org.onosproject.orch.core;
+
+
+// liveness of a child from the results of the requests to it, with a circuit breaker over them.
+// the circuit opens after consecutive failures; while it is open, one probe is let through after each backoff
+public class ChildHealth {
+
+    public enum State {
+        CLOSED, // requests are sent
+        OPEN, // requests fail fast until the next probe
+        HALF_OPEN // a probe is in flight
+    }
+
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long INITIAL_BACKOFF_MS = 5000;
+    private static final long MAX_BACKOFF_MS = 300000;
+    private static final double RTT_WEIGHT = 0.2; // weight of the latest sample
+
+
+    private State state;
+    private int consecutiveFailures;
+    private long lastSuccessTime; // 0 if never succeeded
+    private double rttEwma; // in ms, negative if never measured
+
+    private long openedTime;
+    private long backoff;
+    private long nextProbeTime;
+    private boolean withdrawn; // devices of the child are withdrawn during the outage
+
+
+    public ChildHealth() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        lastSuccessTime = 0;
+        rttEwma = -1;
+        withdrawn = false;
+    }
+
+
+    // false if the circuit is open; a request let through while it is open is the probe
+    public synchronized boolean allowRequest(long now) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now < nextProbeTime) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // true if the devices of the child were withdrawn, and should be discovered again;
+    // a negative rtt, such as of a stream which lasted until now, is no sample
+    public synchronized boolean recordSuccess(long rttMs, long now) {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        lastSuccessTime = now;
+        if (rttMs >= 0) {
+            rttEwma = (rttEwma < 0) ? rttMs : RTT_WEIGHT * rttMs + (1 - RTT_WEIGHT) * rttEwma;
+        }
+
+        boolean wasWithdrawn = withdrawn;
+        withdrawn = false;
+        return wasWithdrawn;
+    }
+
+    public synchronized void recordFailure(long now) {
+        consecutiveFailures++;
+
+        if (state == State.HALF_OPEN) {
+            // the probe failed
+            backoff = Math.min(MAX_BACKOFF_MS, backoff * 2);
+            state = State.OPEN;
+            nextProbeTime = now + backoff;
+
+        } else if (state == State.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD) {
+            backoff = INITIAL_BACKOFF_MS;
+            state = State.OPEN;
+            openedTime = now;
+            nextProbeTime = now + backoff;
+        }
+    }
+
+    // true only once per outage, when it has lasted longer than the timeout
+    public synchronized boolean shouldWithdraw(long now, long timeoutMs) {
+        if (withdrawn || state == State.CLOSED || timeoutMs <= 0 || now - openedTime < timeoutMs) {
+            return false;
+        }
+        withdrawn = true;
+        return true;
+    }
+
+
+    // until the next probe while the circuit is open, one backoff while a probe is in flight, 0 if closed
+    public synchronized long getRetryDelay(long now) {
+        switch (state) {
+            case OPEN:
+                return Math.max(0, nextProbeTime - now);
+            case HALF_OPEN:
+                return backoff;
+            default:
+                return 0;
+        }
+    }
+
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized long getLastSuccessTime() {
+        return lastSuccessTime;
+    }
+
+    public synchronized double getRttEwma() {
+        return rttEwma;
+    }
+
+    public synchronized boolean isWithdrawn() {
+        return withdrawn;
+    }
+
+}
@@ -0,0 +1,103 @@
+package org.onosproject.orch.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.onlab.util.Tools.groupedThreads;
+
+
+// every thread pool of the orchestration, named after its role and bounded.
+// network i/o runs on the event loops of netty; these pools only run the work around it
+public class OrchestrationExecutors {
+
+    private static final String GROUP_NAME = "onos/orch";
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    // waits for the stages of topology discovery
+    private final ThreadPoolExecutor discoveryExecutor;
+    // builds responses of the rest server; full queue -> 429
+    private final ThreadPoolExecutor requestExecutor;
+    // fault monitoring cycles, deadlines and timeouts; every task is short
+    private final ScheduledThreadPoolExecutor monitoringExecutor;
+
+
+    public OrchestrationExecutors(int discoveryThreads, int requestThreads) {
+        discoveryExecutor = newBoundedPool("discovery-%d", sizeOf(discoveryThreads));
+        requestExecutor = newBoundedPool("request-%d", sizeOf(requestThreads));
+        monitoringExecutor = new ScheduledThreadPoolExecutor(1, groupedThreads(GROUP_NAME, "monitoring-%d", log));
+        monitoringExecutor.setRemoveOnCancelPolicy(true); // timeouts are mostly cancelled
+    }
+
+    private ThreadPoolExecutor newBoundedPool(String pattern, int threads) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), groupedThreads(GROUP_NAME, pattern, log),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // 0 or less for the number of cores, at least 2
+    private static int sizeOf(int threads) {
+        return (threads > 0) ? threads : Math.max(2, Runtime.getRuntime().availableProcessors());
+    }
+
+
+    public ExecutorService getDiscoveryExecutor() {
+        return discoveryExecutor;
+    }
+
+    public ExecutorService getRequestExecutor() {
+        return requestExecutor;
+    }
+
+    public ScheduledExecutorService getMonitoringExecutor() {
+        return monitoringExecutor;
+    }
+
+    // by name, for statistics
+    public Map<String, ThreadPoolExecutor> getPools() {
+        Map<String, ThreadPoolExecutor> pools = new LinkedHashMap<>();
+        pools.put("discovery", discoveryExecutor);
+        pools.put("request", requestExecutor);
+        pools.put("monitoring", monitoringExecutor);
+        return pools;
+    }
+
+
+    public void resize(int discoveryThreads, int requestThreads) {
+        resize(discoveryExecutor, sizeOf(discoveryThreads));
+        resize(requestExecutor, sizeOf(requestThreads));
+        log.info("pools are resized: discovery {}, request {}",
+                discoveryExecutor.getMaximumPoolSize(), requestExecutor.getMaximumPoolSize());
+    }
+
+    private void resize(ThreadPoolExecutor pool, int threads) {
+        // the core size can never exceed the maximum size
+        if (threads > pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(threads);
+            pool.setCorePoolSize(threads);
+        } else {
+            pool.setCorePoolSize(threads);
+            pool.setMaximumPoolSize(threads);
+        }
+    }
+
+
+    public void shutdown() {
+        monitoringExecutor.shutdownNow();
+        discoveryExecutor.shutdownNow();
+        requestExecutor.shutdownNow();
+    }
+
+}
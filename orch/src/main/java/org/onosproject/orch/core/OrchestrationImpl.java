@@ -1,33 +1,46 @@
 package org.onosproject.orch.core;
 
 import io.netty.handler.codec.http.HttpMethod;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Strings;
 import org.onlab.packet.ChassisId;
 import org.onlab.packet.MacAddress;
 import org.onlab.packet.VlanId;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.codec.CodecService;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.net.*;
 import org.onosproject.net.device.*;
 import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleOperations;
+import org.onosproject.net.flow.FlowRuleOperationsContext;
 import org.onosproject.net.flow.FlowRuleService;
 import org.onosproject.net.host.*;
 import org.onosproject.net.link.*;
 import org.onosproject.net.provider.AbstractProvider;
 import org.onosproject.net.provider.ProviderId;
-import org.onosproject.net.topology.Topology;
 import org.onosproject.net.topology.TopologyService;
 import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.adt.elem.ProvisioningRequest;
 import org.onosproject.orch.core.explicit.FlowRuleDecoder;
-import org.onosproject.orch.core.explicit.FlowRuleJsonConstructor;
+import org.onosproject.orch.core.explicit.FlowRuleConstructor;
+import org.onosproject.orch.json.Json;
+import org.onosproject.orch.metrics.OrchestrationMetrics;
 import org.onosproject.orch.monitor.*;
 import org.onosproject.orch.rest.client.RestClient;
+import org.onosproject.orch.rest.client.RestClientForProvisioningBatch;
+import org.onosproject.orch.rest.client.RestClientPool;
+import org.onosproject.orch.rest.client.ResponseStatusException;
 import org.onosproject.orch.rest.client.explicit.RestClientForExplicitElements;
 import org.onosproject.orch.rest.client.implicit.RestClientForImplicitElements;
 import org.onosproject.orch.rest.server.RestServer;
+import org.onosproject.orch.trace.Span;
+import org.onosproject.orch.trace.Trace;
+import org.onosproject.orch.trace.TraceStore;
+import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,8 +49,32 @@ import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
 
-
-@Component(immediate = true)
+import static org.onosproject.orch.core.OsgiPropertyConstants.*;
+
+
+@Component(immediate = true,
+        property = {
+                SERVER_PORT + ":Integer=" + SERVER_PORT_DEFAULT,
+                SERVER_ADDRESS + "=" + SERVER_ADDRESS_DEFAULT,
+                CHILD_PORT + ":Integer=" + CHILD_PORT_DEFAULT,
+                CHILD_CONNECT_TIMEOUT + ":Integer=" + CHILD_CONNECT_TIMEOUT_DEFAULT,
+                CHILD_READ_TIMEOUT + ":Integer=" + CHILD_READ_TIMEOUT_DEFAULT,
+                DISCOVERY_TIMEOUT + ":Integer=" + DISCOVERY_TIMEOUT_DEFAULT,
+                PROVISIONING_TIMEOUT + ":Integer=" + PROVISIONING_TIMEOUT_DEFAULT,
+                MONITORING_TICK + ":Integer=" + MONITORING_TICK_DEFAULT,
+                MONITORING_DEADLINE + ":Integer=" + MONITORING_DEADLINE_DEFAULT,
+                MIN_POLLING_INTERVAL + ":Integer=" + MIN_POLLING_INTERVAL_DEFAULT,
+                INITIAL_POLLING_INTERVAL + ":Integer=" + INITIAL_POLLING_INTERVAL_DEFAULT,
+                MAX_POLLING_INTERVAL + ":Integer=" + MAX_POLLING_INTERVAL_DEFAULT,
+                CHILD_WITHDRAWAL_TIMEOUT + ":Integer=" + CHILD_WITHDRAWAL_TIMEOUT_DEFAULT,
+                FLOW_PRIORITY_BY_IN_PORT_AND_ETH_SRC + ":Integer=" + FLOW_PRIORITY_BY_IN_PORT_AND_ETH_SRC_DEFAULT,
+                FLOW_PRIORITY_BY_ETH_DST + ":Integer=" + FLOW_PRIORITY_BY_ETH_DST_DEFAULT,
+                FLOW_TIMEOUT_BY_IN_PORT_AND_ETH_SRC + ":Integer=" + FLOW_TIMEOUT_BY_IN_PORT_AND_ETH_SRC_DEFAULT,
+                FLOW_TIMEOUT_BY_ETH_DST + ":Integer=" + FLOW_TIMEOUT_BY_ETH_DST_DEFAULT,
+                DISCOVERY_THREADS + ":Integer=" + DISCOVERY_THREADS_DEFAULT,
+                REQUEST_THREADS + ":Integer=" + REQUEST_THREADS_DEFAULT,
+                COMPACT_WIRE_FORMAT + ":Boolean=" + COMPACT_WIRE_FORMAT_DEFAULT,
+        })
 public class OrchestrationImpl implements Orchestration {
 
     private static final String SCHEME_FOR_EXPLICIT = "exvs"; // EXplicit Virtual Switch
@@ -49,19 +86,28 @@ public class OrchestrationImpl implements Orchestration {
     private static final ProviderId PROVIDER_ID_FOR_IMPLICIT = new ProviderId(SCHEME_FOR_IMPLICIT, APP_NAME);
 
     private static final String IP_OF_LOCALHOST = "127.0.0.1";
-    private static final int PORT_OF_ORCHESTRATION_SERVER = 8888;
+
+    private static final int MAX_CONNECTIONS_PER_CHILD = 8;
+    private static final int MAX_PENDING_ACQUIRES_PER_CHILD = 1024;
+
+    private static final long EDGE_UPDATES_STREAM_MIN_RETRY_MS = 30000; // the backoff of the child if longer
+
+    private static final int MAX_TRACES = 1024;
 
     private static final String URI_OF_EXPLICIT_DEVICES = "/devices";
     private static final String URI_OF_EXPLICIT_LINKS = "/links";
     private static final String URI_OF_EXPLICIT_HOSTS = "/hosts";
     private static final String URI_OF_EXPLICIT_EDGE_UPDATES = "/edgeUpdates";
+    private static final String URI_OF_EXPLICIT_EDGE_UPDATES_STREAM = "/edgeUpdates/stream";
 
     private static final String URI_OF_IMPLICIT_DEVICES = "/devices/summary";
     private static final String URI_OF_IMPLICIT_LINKS = "/links/implicit";
     private static final String URI_OF_IMPLICIT_HOSTS = "/hosts";
     private static final String URI_OF_IMPLICIT_EDGE_UPDATES = "/edgeUpdates/implicit";
+    private static final String URI_OF_IMPLICIT_EDGE_UPDATES_STREAM = "/edgeUpdates/stream/implicit";
 
     private static final String URI_OF_PROVISIONING = "/provisioning";
+    private static final String URI_OF_PROVISIONING_BATCH = "/provisioning/batch";
     private static final String URI_OF_FLOWS = "/flows";
 
 
@@ -95,11 +141,26 @@ public class OrchestrationImpl implements Orchestration {
     private ResourceTables res;
     private TopologyInformation info;
 
-    private FlowRuleJsonConstructor flowRuleJsonConstructor;
+    private OrchestrationMetrics metrics;
+    private TraceStore traces;
+
+    private RestClientPool restClientPool;
+
+    private PathCache pathCache;
+
+    private FlowRuleConstructor flowRuleConstructor;
     private FlowRuleDecoder flowRuleDecoder;
 
     private ArrayList<String> topologyDiscoveryUri;
     private ConcurrentHashMap<String, Boolean> children;
+    private ConcurrentHashMap<String, Boolean> streamingChildren; // children which push edge updates
+    private ConcurrentHashMap<String, CompletableFuture<Void>> monitoringRequests; // last request per child
+    private ConcurrentHashMap<String, Long> missedMonitoringDeadlines; // number of cycles missed per child
+    private ConcurrentHashMap<String, Long> pollingIntervals; // in ms
+    private ConcurrentHashMap<String, Long> nextPollingTimes;
+
+
+    private ConcurrentHashMap<String, ChildHealth> childHealth;
 
     private DeviceListener deviceListener;
     private LinkListener linkListener;
@@ -109,15 +170,43 @@ public class OrchestrationImpl implements Orchestration {
     private boolean implicitOrchestration;
 
 
-    private ExecutorService orchestrationServerExecutor;
+    // component configuration; see OsgiPropertyConstants
+    private volatile int serverPort = SERVER_PORT_DEFAULT;
+    private volatile String serverAddress = null; // every address
+    private volatile int childPort = CHILD_PORT_DEFAULT;
+    private volatile int childConnectTimeoutMs = CHILD_CONNECT_TIMEOUT_DEFAULT;
+    private volatile int childReadTimeoutMs = CHILD_READ_TIMEOUT_DEFAULT;
+    private volatile long discoveryTimeoutMs = DISCOVERY_TIMEOUT_DEFAULT;
+    private volatile long provisioningTimeoutMs = PROVISIONING_TIMEOUT_DEFAULT;
+    private volatile long monitoringTickMs = MONITORING_TICK_DEFAULT;
+    private volatile long monitoringDeadlineMs = MONITORING_DEADLINE_DEFAULT;
+    private volatile long minPollingIntervalMs = MIN_POLLING_INTERVAL_DEFAULT;
+    private volatile long initialPollingIntervalMs = INITIAL_POLLING_INTERVAL_DEFAULT;
+    private volatile long maxPollingIntervalMs = MAX_POLLING_INTERVAL_DEFAULT;
+    private volatile long childWithdrawalTimeoutMs = CHILD_WITHDRAWAL_TIMEOUT_DEFAULT;
+    private int flowPriorityByInPortAndEthSrc = FLOW_PRIORITY_BY_IN_PORT_AND_ETH_SRC_DEFAULT;
+    private int flowPriorityByEthDst = FLOW_PRIORITY_BY_ETH_DST_DEFAULT;
+    private int flowTimeoutByInPortAndEthSrc = FLOW_TIMEOUT_BY_IN_PORT_AND_ETH_SRC_DEFAULT;
+    private int flowTimeoutByEthDst = FLOW_TIMEOUT_BY_ETH_DST_DEFAULT;
+    private int discoveryThreads = DISCOVERY_THREADS_DEFAULT;
+    private int requestThreads = REQUEST_THREADS_DEFAULT;
+    private volatile boolean compactWireFormat = COMPACT_WIRE_FORMAT_DEFAULT;
+
+
+    private OrchestrationExecutors executors;
     private ExecutorService topologyDiscoveryExecutor;
     private ScheduledExecutorService faultMonitoringExecutor;
-    private ExecutorService provisioningExecutor;
+
+    private RestServer server;
+    private ScheduledFuture<?> faultMonitoringTask;
 
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     private CoreService coreService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    private ComponentConfigService cfgService;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     private DeviceProviderRegistry deviceProviderRegistry;
 
@@ -148,9 +237,12 @@ public class OrchestrationImpl implements Orchestration {
 
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
         appId = coreService.registerApplication(APP_NAME);
 
+        cfgService.registerProperties(getClass());
+        readComponentConfiguration(context);
+
 
         explicitDeviceProviderService = deviceProviderRegistry.register(explicitDeviceProvider);
         explicitLinkProviderService = linkProviderRegistry.register(explicitLinkProvider);
@@ -164,11 +256,30 @@ public class OrchestrationImpl implements Orchestration {
         res = new ResourceTables();
         info = new TopologyInformation();
 
-        flowRuleJsonConstructor = new FlowRuleJsonConstructor(this);
+        metrics = new OrchestrationMetrics(res, info);
+        traces = new TraceStore(MAX_TRACES);
+
+        restClientPool = new RestClientPool(MAX_CONNECTIONS_PER_CHILD, MAX_PENDING_ACQUIRES_PER_CHILD,
+                childConnectTimeoutMs, childReadTimeoutMs, metrics);
+        restClientPool.setCompactWireFormat(compactWireFormat);
+
+        pathCache = new PathCache(this);
+        topologyService.addListener(pathCache);
+
+        flowRuleConstructor = new FlowRuleConstructor(this);
+        flowRuleConstructor.configure(flowPriorityByInPortAndEthSrc, flowPriorityByEthDst,
+                flowTimeoutByInPortAndEthSrc, flowTimeoutByEthDst);
         flowRuleDecoder = new FlowRuleDecoder(this);
 
         topologyDiscoveryUri = new ArrayList<>();
         children = new ConcurrentHashMap<>();
+        streamingChildren = new ConcurrentHashMap<>();
+        monitoringRequests = new ConcurrentHashMap<>();
+        missedMonitoringDeadlines = new ConcurrentHashMap<>();
+        pollingIntervals = new ConcurrentHashMap<>();
+        nextPollingTimes = new ConcurrentHashMap<>();
+
+        childHealth = new ConcurrentHashMap<>();
 
         orchestrationStarted = false;
         implicitOrchestration = true;
@@ -183,30 +294,105 @@ public class OrchestrationImpl implements Orchestration {
         hostService.addListener(hostListener);
 
 
-        orchestrationServerExecutor = Executors.newSingleThreadExecutor();
-        orchestrationServerExecutor.execute(() -> {
-            RestServer server = new RestServer(PORT_OF_ORCHESTRATION_SERVER, this);
-            try {
-                server.run();
-            } catch (Exception e) {
-                log.warn("cannot run orchestration server: {}", e.toString());
-            }
-        });
+        executors = new OrchestrationExecutors(discoveryThreads, requestThreads);
+        topologyDiscoveryExecutor = executors.getDiscoveryExecutor();
+        faultMonitoringExecutor = executors.getMonitoringExecutor();
 
-        topologyDiscoveryExecutor = Executors.newFixedThreadPool(128);
-        faultMonitoringExecutor = Executors.newSingleThreadScheduledExecutor();
-        provisioningExecutor = Executors.newFixedThreadPool(128);
+        server = new RestServer(serverAddress, serverPort, this, executors.getRequestExecutor());
+        server.start();
 
 
         log.info("Started");
     }
 
+    // applied while running: pools are resized, the server is bound again on a new port,
+    // and fault monitoring is scheduled again on a new tick
+    @Modified
+    public void modified(ComponentContext context) {
+        int oldServerPort = serverPort;
+        String oldServerAddress = serverAddress;
+        long oldMonitoringTickMs = monitoringTickMs;
+
+        readComponentConfiguration(context);
+
+        executors.resize(discoveryThreads, requestThreads);
+        restClientPool.setTimeouts(childConnectTimeoutMs, childReadTimeoutMs);
+        restClientPool.setCompactWireFormat(compactWireFormat);
+        flowRuleConstructor.configure(flowPriorityByInPortAndEthSrc, flowPriorityByEthDst,
+                flowTimeoutByInPortAndEthSrc, flowTimeoutByEthDst);
+        pollingIntervals.replaceAll((child, interval) ->
+                Math.max(minPollingIntervalMs, Math.min(interval, maxPollingIntervalMs)));
+
+        if (serverPort != oldServerPort || !Objects.equals(serverAddress, oldServerAddress)) {
+            log.info("rebinding orchestration server from {}:{} to {}:{}",
+                    oldServerAddress, oldServerPort, serverAddress, serverPort);
+            server.stop();
+            server = new RestServer(serverAddress, serverPort, this, executors.getRequestExecutor());
+            server.start();
+        }
+
+        synchronized (this) {
+            if (monitoringTickMs != oldMonitoringTickMs && faultMonitoringTask != null) {
+                faultMonitoringTask.cancel(false);
+                scheduleFaultMonitoring();
+            }
+        }
+    }
+
+    private void readComponentConfiguration(ComponentContext context) {
+        Dictionary<?, ?> properties = context.getProperties();
+
+        serverPort = getIntegerProperty(properties, SERVER_PORT, SERVER_PORT_DEFAULT);
+        serverAddress = Strings.emptyToNull(Tools.get(properties, SERVER_ADDRESS));
+        childPort = getIntegerProperty(properties, CHILD_PORT, CHILD_PORT_DEFAULT);
+        childConnectTimeoutMs = getIntegerProperty(properties, CHILD_CONNECT_TIMEOUT, CHILD_CONNECT_TIMEOUT_DEFAULT);
+        childReadTimeoutMs = getIntegerProperty(properties, CHILD_READ_TIMEOUT, CHILD_READ_TIMEOUT_DEFAULT);
+        discoveryTimeoutMs = getIntegerProperty(properties, DISCOVERY_TIMEOUT, DISCOVERY_TIMEOUT_DEFAULT);
+        provisioningTimeoutMs = getIntegerProperty(properties, PROVISIONING_TIMEOUT, PROVISIONING_TIMEOUT_DEFAULT);
+        monitoringTickMs = Math.max(1, getIntegerProperty(properties, MONITORING_TICK, MONITORING_TICK_DEFAULT));
+        monitoringDeadlineMs = getIntegerProperty(properties, MONITORING_DEADLINE, MONITORING_DEADLINE_DEFAULT);
+        minPollingIntervalMs = getIntegerProperty(properties, MIN_POLLING_INTERVAL, MIN_POLLING_INTERVAL_DEFAULT);
+        initialPollingIntervalMs = getIntegerProperty(properties,
+                INITIAL_POLLING_INTERVAL, INITIAL_POLLING_INTERVAL_DEFAULT);
+        maxPollingIntervalMs = Math.max(minPollingIntervalMs,
+                getIntegerProperty(properties, MAX_POLLING_INTERVAL, MAX_POLLING_INTERVAL_DEFAULT));
+        childWithdrawalTimeoutMs = Math.max(0,
+                getIntegerProperty(properties, CHILD_WITHDRAWAL_TIMEOUT, CHILD_WITHDRAWAL_TIMEOUT_DEFAULT));
+        flowPriorityByInPortAndEthSrc = getIntegerProperty(properties,
+                FLOW_PRIORITY_BY_IN_PORT_AND_ETH_SRC, FLOW_PRIORITY_BY_IN_PORT_AND_ETH_SRC_DEFAULT);
+        flowPriorityByEthDst = getIntegerProperty(properties,
+                FLOW_PRIORITY_BY_ETH_DST, FLOW_PRIORITY_BY_ETH_DST_DEFAULT);
+        flowTimeoutByInPortAndEthSrc = getIntegerProperty(properties,
+                FLOW_TIMEOUT_BY_IN_PORT_AND_ETH_SRC, FLOW_TIMEOUT_BY_IN_PORT_AND_ETH_SRC_DEFAULT);
+        flowTimeoutByEthDst = getIntegerProperty(properties, FLOW_TIMEOUT_BY_ETH_DST, FLOW_TIMEOUT_BY_ETH_DST_DEFAULT);
+        discoveryThreads = getIntegerProperty(properties, DISCOVERY_THREADS, DISCOVERY_THREADS_DEFAULT);
+        requestThreads = getIntegerProperty(properties, REQUEST_THREADS, REQUEST_THREADS_DEFAULT);
+        compactWireFormat = getBooleanProperty(properties, COMPACT_WIRE_FORMAT, COMPACT_WIRE_FORMAT_DEFAULT);
+
+        log.info("configured: {}", properties);
+    }
+
+    private static int getIntegerProperty(Dictionary<?, ?> properties, String name, int defaultValue) {
+        Integer value = Tools.getIntegerProperty(properties, name);
+        return (value == null) ? defaultValue : value;
+    }
+
+    private static boolean getBooleanProperty(Dictionary<?, ?> properties, String name, boolean defaultValue) {
+        Boolean value = Tools.isPropertyEnabled(properties, name);
+        return (value == null) ? defaultValue : value;
+    }
+
     @Deactivate
     public void deactivate() {
-        provisioningExecutor.shutdownNow();
-        faultMonitoringExecutor.shutdownNow();
-        topologyDiscoveryExecutor.shutdownNow();
-        orchestrationServerExecutor.shutdownNow();
+        cfgService.unregisterProperties(getClass(), false);
+
+        server.stop();
+        server = null;
+
+        executors.shutdown();
+
+        restClientPool.close();
+        restClientPool = null;
 
 
         deviceProviderRegistry.unregister(explicitDeviceProvider);
@@ -236,10 +422,19 @@ public class OrchestrationImpl implements Orchestration {
 
         topologyDiscoveryUri = null;
         children = null;
-
-        flowRuleJsonConstructor = null;
+        streamingChildren = null;
+        monitoringRequests = null;
+        missedMonitoringDeadlines = null;
+        pollingIntervals = null;
+        nextPollingTimes = null;
+        childHealth = null;
+
+        flowRuleConstructor = null;
         flowRuleDecoder = null;
 
+        topologyService.removeListener(pathCache);
+        pathCache = null;
+
         res = null;
         info = null;
 
@@ -283,6 +478,31 @@ public class OrchestrationImpl implements Orchestration {
         return info;
     }
 
+    @Override
+    public RestClientPool getRestClientPool() {
+        return restClientPool;
+    }
+
+    @Override
+    public OrchestrationExecutors getExecutors() {
+        return executors;
+    }
+
+    @Override
+    public PathCache getPathCache() {
+        return pathCache;
+    }
+
+    @Override
+    public OrchestrationMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public TraceStore getTraceStore() {
+        return traces;
+    }
+
 
     @Override
     public String getSchemeForExplicit() {
@@ -343,62 +563,333 @@ public class OrchestrationImpl implements Orchestration {
         boolean firstExecution = !orchestrationStarted;
         orchestrationStarted = true;
 
-        topologyDiscoveryExecutor.execute(() -> {
-            executeTopologyDiscovery(newChildren);
+        try {
+            topologyDiscoveryExecutor.execute(() -> {
+                executeTopologyDiscovery(newChildren);
 
-            for (String child : newChildren) {
-                children.put(child, true);
-            }
-            log.info("children is added to the list for fault monitoring: now these children are {}",
-                    children.keySet().toString());
+                for (String child : newChildren) {
+                    children.put(child, true);
+                    subscribeEdgeUpdates(child);
+                }
+                log.info("children is added to the list for fault monitoring: now these children are {}",
+                        children.keySet().toString());
 
-            if (firstExecution) {
-                scheduleFaultMonitoring();
-            }
-        });
+                if (firstExecution) {
+                    scheduleFaultMonitoring();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("exception: {}", e.toString());
+        }
+    }
+
+    @Override
+    public Map<String, Long> getMissedMonitoringDeadlines() {
+        return new TreeMap<>(missedMonitoringDeadlines);
+    }
+
+    @Override
+    public Map<String, Long> getPollingIntervals() {
+        return new TreeMap<>(pollingIntervals);
+    }
+
+    @Override
+    public long getMaxPollingInterval() {
+        return maxPollingIntervalMs;
+    }
+
+    @Override
+    public void setMaxPollingInterval(long intervalMs) {
+        maxPollingIntervalMs = Math.max(minPollingIntervalMs, intervalMs);
+        // longer intervals are shortened from their next response
+        pollingIntervals.replaceAll((child, interval) -> Math.min(interval, maxPollingIntervalMs));
+        log.info("max polling interval is changed to {} ms", maxPollingIntervalMs);
+    }
+
+    @Override
+    public Set<String> getChildren() {
+        return new TreeSet<>(children.keySet());
+    }
+
+    @Override
+    public ChildHealth getChildHealth(String child) {
+        return childHealth.computeIfAbsent(child, k -> new ChildHealth());
+    }
+
+    @Override
+    public long getChildWithdrawalTimeout() {
+        return childWithdrawalTimeoutMs;
+    }
+
+    @Override
+    public void setChildWithdrawalTimeout(long timeoutMs) {
+        childWithdrawalTimeoutMs = Math.max(0, timeoutMs);
+        log.info("child withdrawal timeout is changed to {} ms", childWithdrawalTimeoutMs);
+    }
+
+    @Override
+    public boolean isStreamingChild(String child) {
+        return streamingChildren.containsKey(child);
     }
 
     private void executeTopologyDiscovery(ArrayList<String> newChildren) {
+        // devices -> links -> hosts; each stage waits for the responses of all children of the prior stage,
+        // to prevent the core from ignoring links and hosts whose devices are not added yet
+        long startTime = System.nanoTime();
+        List<String> reachableChildren = new ArrayList<>(newChildren);
+
         for (String uri : topologyDiscoveryUri) {
-            for (String child : newChildren) {
+            long deadline = System.currentTimeMillis() + discoveryTimeoutMs;
+
+            Map<String, CompletableFuture<Void>> responses = new LinkedHashMap<>();
+            for (String child : reachableChildren) {
                 RestClient client;
                 if (implicitOrchestration) {
                     client = new RestClientForImplicitElements(
-                            child, PORT_OF_ORCHESTRATION_SERVER, uri, this);
+                            child, childPort, uri, this);
                 } else {
                     client = new RestClientForExplicitElements(
-                            child, PORT_OF_ORCHESTRATION_SERVER, uri, this);
+                            child, childPort, uri, this);
                 }
-                client.connect();
+                responses.put(child, trackChildHealth(child, client.connect()));
             }
-            try {
-                // wait for handling response, to prevent the core from ignoring links and hosts
-                // FIXME continue next loop after handling response of prior request, not after some seconds
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                log.warn("exception: {}", e.toString());
+
+            for (Map.Entry<String, CompletableFuture<Void>> response : responses.entrySet()) {
+                String child = response.getKey();
+                try {
+                    long timeout = Math.max(0, deadline - System.currentTimeMillis());
+                    response.getValue().get(timeout, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    log.warn("topology discovery is interrupted: {}", e.toString());
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException | TimeoutException e) {
+                    // the rest of stages are meaningless for this child
+                    log.warn("topology discovery of {}{} failed: {}", child, uri, e.toString());
+                    reachableChildren.remove(child);
+                }
             }
         }
-        log.info("topology discovery is done with children: {}", newChildren.toString());
+        metrics.observeDiscovery(System.nanoTime() - startTime);
+        log.info("topology discovery is done with children: {} (completed: {})",
+                newChildren.toString(), reachableChildren.toString());
     }
 
-    private void scheduleFaultMonitoring() {
-        faultMonitoringExecutor.scheduleAtFixedRate(() -> {
+    private synchronized void scheduleFaultMonitoring() {
+        faultMonitoringTask = faultMonitoringExecutor.scheduleAtFixedRate(() -> {
             if (!orchestrationStarted) {
                 return;
             }
-            for (String child : children.keySet()) {
-                RestClient client;
-                if (implicitOrchestration) {
-                    client = new RestClientForImplicitElements(child, PORT_OF_ORCHESTRATION_SERVER,
-                            URI_OF_IMPLICIT_EDGE_UPDATES, this);
-                } else {
-                    client = new RestClientForExplicitElements(child, PORT_OF_ORCHESTRATION_SERVER,
-                            URI_OF_EXPLICIT_EDGE_UPDATES, this);
+            executeFaultMonitoringCycle();
+        }, monitoringTickMs, monitoringTickMs, TimeUnit.MILLISECONDS);
+    }
+
+    // requests to every child due in this cycle are sent at once, and only checked against the deadline of the cycle;
+    // a child whose request of a previous cycle is still in flight is skipped
+    private void executeFaultMonitoringCycle() {
+        long startTime = System.nanoTime();
+        long now = System.currentTimeMillis();
+        Map<String, CompletableFuture<Void>> requests = new LinkedHashMap<>();
+        List<String> skippedChildren = new ArrayList<>();
+
+        for (String child : children.keySet()) {
+            if (getChildHealth(child).shouldWithdraw(now, childWithdrawalTimeoutMs)) {
+                withdrawChild(child);
+            }
+
+            if (streamingChildren.containsKey(child)) {
+                // edge updates are pushed by the child
+                continue;
+            }
+
+            long interval = pollingIntervals.computeIfAbsent(child, k -> initialPollingIntervalMs);
+            if (nextPollingTimes.computeIfAbsent(child, k -> now + interval) > now) {
+                continue;
+            }
+            nextPollingTimes.put(child, now + interval);
+
+            CompletableFuture<Void> previous = monitoringRequests.get(child);
+            if (previous != null && !previous.isDone()) {
+                skippedChildren.add(child);
+                continue;
+            }
+
+            if (!getChildHealth(child).allowRequest(now)) {
+                // the circuit is open until the next probe
+                continue;
+            }
+
+            RestClient client;
+            if (implicitOrchestration) {
+                client = new RestClientForImplicitElements(child, childPort,
+                        withCursor(URI_OF_IMPLICIT_EDGE_UPDATES, child), this);
+            } else {
+                client = new RestClientForExplicitElements(child, childPort,
+                        withCursor(URI_OF_EXPLICIT_EDGE_UPDATES, child), this);
+            }
+            Long cursor = res.getFromEdgeUpdateCursorTable(child);
+            CompletableFuture<Void> request = trackChildHealth(child, client.connect());
+            request.whenComplete((result, cause) -> {
+                if (cause == null) {
+                    adaptPollingInterval(child, cursor);
+                }
+            });
+            monitoringRequests.put(child, request);
+            requests.put(child, request);
+        }
+
+        if (!skippedChildren.isEmpty()) {
+            log.warn("fault monitoring skipped children with a request in flight: {}", skippedChildren);
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture.allOf(requests.values().toArray(new CompletableFuture[0]))
+                .whenComplete((result, cause) -> metrics.observeEdgeUpdateCycle(System.nanoTime() - startTime));
+
+        try {
+            faultMonitoringExecutor.schedule(() -> {
+                List<String> lateChildren = new ArrayList<>();
+                for (Map.Entry<String, CompletableFuture<Void>> request : requests.entrySet()) {
+                    if (!request.getValue().isDone()) {
+                        lateChildren.add(request.getKey());
+                        missedMonitoringDeadlines.merge(request.getKey(), 1L, Long::sum);
+                    }
+                }
+                if (!lateChildren.isEmpty()) {
+                    log.warn("children missed the deadline of fault monitoring ({} ms): {}",
+                            monitoringDeadlineMs, lateChildren);
                 }
-                client.connect();
+            }, monitoringDeadlineMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("exception: {}", e.toString());
+        }
+    }
+
+
+    // error statuses come from a live child; other failures, such as timeouts, count against its health
+    private CompletableFuture<Void> trackChildHealth(String child, CompletableFuture<Void> request) {
+        long startTime = System.currentTimeMillis();
+        request.whenComplete((result, cause) ->
+                recordChildHealth(child, cause, System.currentTimeMillis() - startTime));
+        return request;
+    }
+
+    // a negative rtt is no sample
+    private void recordChildHealth(String child, Throwable cause, long rttMs) {
+        ChildHealth health = getChildHealth(child);
+        long now = System.currentTimeMillis();
+        Throwable c = (cause instanceof CompletionException && cause.getCause() != null)
+                ? cause.getCause() : cause;
+        if (c == null || c instanceof ResponseStatusException) {
+            if (health.recordSuccess(rttMs, now)) {
+                rediscoverChild(child);
             }
-        }, 10, 10, TimeUnit.SECONDS);
+        } else {
+            health.recordFailure(now);
+            if (health.getState() != ChildHealth.State.CLOSED) {
+                log.warn("{} is unreachable after {} failures", child, health.getConsecutiveFailures());
+            }
+        }
+    }
+
+    // devices of a dead child are removed, so that paths do not go through its domain
+    private void withdrawChild(String child) {
+        List<DeviceId> devices = res.getDevicesOwnedBy(child);
+        log.warn("withdrawing {} devices of {}, unreachable for {} ms",
+                devices.size(), child, childWithdrawalTimeoutMs);
+        for (DeviceId deviceId : devices) {
+            removeDevice(deviceId);
+        }
+    }
+
+    // the whole topology of a child back from an outage is fetched again, without conditions and cursors
+    private void rediscoverChild(String child) {
+        log.info("{} is reachable again, discovering its topology", child);
+        restClientPool.removeEntityTags(child, childPort);
+        res.removeFromEdgeUpdateCursorTable(child);
+        try {
+            topologyDiscoveryExecutor.execute(
+                    () -> executeTopologyDiscovery(new ArrayList<>(Collections.singletonList(child))));
+        } catch (RejectedExecutionException e) {
+            log.warn("exception: {}", e.toString());
+        }
+    }
+
+    // the cursor of the child moves only if its response had changes
+    private void adaptPollingInterval(String child, Long cursorBefore) {
+        if (pollingIntervals == null) {
+            return; // deactivated
+        }
+        Long cursorAfter = res.getFromEdgeUpdateCursorTable(child);
+        boolean changed = cursorBefore != null && !cursorBefore.equals(cursorAfter);
+
+        long interval = pollingIntervals.compute(child, (k, current) -> {
+            long previous = (current == null) ? initialPollingIntervalMs : current;
+            return changed
+                    ? Math.max(minPollingIntervalMs, previous / 2)
+                    : Math.min(Math.max(minPollingIntervalMs, maxPollingIntervalMs), previous * 2);
+        });
+        // a shortened interval is applied from this response, not from the next poll planned
+        nextPollingTimes.merge(child, System.currentTimeMillis() + interval, Math::min);
+        log.debug("polling interval of {} is {} ms (changed: {})", child, interval, changed);
+    }
+
+
+    // the child returns changes after the cursor, or a full snapshot if the cursor is missing or too old
+    private String withCursor(String uri, String child) {
+        Long cursor = res.getFromEdgeUpdateCursorTable(child);
+        if (cursor == null) {
+            return uri;
+        }
+        return uri + "?since=" + cursor;
+    }
+
+    // subscribe once per child; while the stream is down, the child is polled by fault monitoring.
+    // a child whose circuit is not closed is not subscribed: the polls of fault monitoring are its probes,
+    // since a stream is not completed while it is up and so cannot tell that the probe succeeded
+    private void subscribeEdgeUpdates(String child) {
+        if (faultMonitoringExecutor.isShutdown()) {
+            return;
+        }
+
+        ChildHealth health = getChildHealth(child);
+        if (health.getState() != ChildHealth.State.CLOSED) {
+            scheduleEdgeUpdatesSubscription(child, health);
+            return;
+        }
+
+        RestClient client;
+        if (implicitOrchestration) {
+            client = new RestClientForImplicitElements(child, childPort,
+                    withCursor(URI_OF_IMPLICIT_EDGE_UPDATES_STREAM, child), this);
+        } else {
+            client = new RestClientForExplicitElements(child, childPort,
+                    withCursor(URI_OF_EXPLICIT_EDGE_UPDATES_STREAM, child), this);
+        }
+
+        streamingChildren.put(child, true);
+        client.subscribe().whenComplete((result, cause) -> {
+            if (faultMonitoringExecutor.isShutdown()) {
+                return;
+            }
+            streamingChildren.remove(child);
+            log.warn("edge update stream of {} is down, polling until it is subscribed again", child);
+
+            // failures to connect count against the child; a stream is no sample of the rtt
+            recordChildHealth(child, cause, -1);
+            scheduleEdgeUpdatesSubscription(child, health);
+        });
+    }
+
+    private void scheduleEdgeUpdatesSubscription(String child, ChildHealth health) {
+        long delay = Math.max(EDGE_UPDATES_STREAM_MIN_RETRY_MS, health.getRetryDelay(System.currentTimeMillis()));
+        try {
+            faultMonitoringExecutor.schedule(() -> subscribeEdgeUpdates(child), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("exception: {}", e.toString());
+        }
     }
 
 
@@ -425,6 +916,23 @@ public class OrchestrationImpl implements Orchestration {
         }
     }
 
+    @Override
+    public void removeDevice(DeviceId deviceId) {
+        String scheme = deviceId.uri().getScheme();
+
+        if (SCHEME_FOR_EXPLICIT.equals(scheme)) {
+            explicitDeviceProviderService.deviceDisconnected(deviceId);
+            log.info("Notified DeviceProviderService to remove an explicit device {}", deviceId);
+
+        } else if (SCHEME_FOR_IMPLICIT.equals(scheme)) {
+            implicitDeviceProviderService.deviceDisconnected(deviceId);
+            log.info("Notified DeviceProviderService to remove an implicit device {}", deviceId);
+
+        } else {
+            log.warn("Cannot remove a device {}, which has an invalid scheme", deviceId);
+        }
+    }
+
     @Override
     public void addLink(ConnectPoint src, ConnectPoint dst) {
         String scheme = src.deviceId().uri().getScheme();
@@ -489,43 +997,161 @@ public class OrchestrationImpl implements Orchestration {
 
 
     @Override
-    public void divideProvisioning(ConnectPoint src, ConnectPoint dst) {
+    public CompletableFuture<Void> divideProvisioning(ConnectPoint src, ConnectPoint dst) {
         MacAddress srcMac = getMacAddressFromLocation(src);
         MacAddress dstMac = getMacAddressFromLocation(dst);
 
         if (srcMac == null || dstMac == null) {
             log.warn("failed to divide provisioning: src or dst is not host");
-            return;
+            return failedFuture(new IllegalArgumentException("src or dst is not host"));
         }
 
-        divideProvisioning(src, dst, srcMac, dstMac);
+        return divideProvisioning(src, dst, srcMac, dstMac);
     }
 
+    // completed when flow rules are installed on every device and every child of the path, in both directions
     @Override
-    public void divideProvisioning(ConnectPoint src, ConnectPoint dst, MacAddress srcMac, MacAddress dstMac) {
-        Topology topology = topologyService.currentTopology();
-        Set<Path> paths = topologyService.getPaths(topology, src.deviceId(), dst.deviceId());
+    public CompletableFuture<Void> divideProvisioning(ConnectPoint src, ConnectPoint dst,
+                                                      MacAddress srcMac, MacAddress dstMac) {
+        long startTime = System.currentTimeMillis();
 
-        if (paths.size() <= 0) {
-            if (!src.deviceId().equals(dst.deviceId())) {
-                log.warn("no path from src {} to dst {}", src.toString(), dst.toString());
-                return;
-            }
+        List<Segment> segments;
+        try {
+            segments = divideIntoSegments(new ProvisioningRequest(src, dst, srcMac, dstMac));
+        } catch (IllegalArgumentException e) {
+            log.warn("failed to divide provisioning: {}", e.getMessage());
+            return failedFuture(e);
+        }
 
-            // same device -> provisioning request to the child that has that device
-            String domain = res.getFromDeviceOwnerTable(src.deviceId());
-            if (domain == null) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Segment segment : segments) {
+            ProvisioningRequest request = segment.request;
+            CompletableFuture<Void> future;
+            if (segment.domain == null) {
                 // physical device -> build and add flow rules
-                buildAndApplyFlowRulesForMyself(src, dst, srcMac, dstMac);
+                future = buildAndApplyFlowRulesForMyself(
+                        request.getSrc(), request.getDst(), request.getSrcMac(), request.getDstMac());
             } else {
-                sendProvisioningRequestToChild(src, dst, srcMac, dstMac, domain);
+                future = sendProvisioningRequestToChild(
+                        request.getSrc(), request.getDst(), request.getSrcMac(), request.getDstMac(),
+                        segment.domain);
             }
-            return;
+            futures.add(observeProvisioningSegment(segment.domain, future));
+        }
+        return completeProvisioning(src, dst, futures, startTime);
+    }
+
+    // one future per request, in the same order.
+    // flow rules of every request are installed in one batch per device,
+    // and segments of every request are sent in one batch per child
+    @Override
+    public List<CompletableFuture<Void>> divideProvisioning(List<ProvisioningRequest> requests) {
+        long startTime = System.currentTimeMillis();
+        long segmentStartTime = System.nanoTime();
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        List<List<CompletableFuture<Void>>> futuresOfRequests = new ArrayList<>();
+
+        List<FlowRule> localRules = new ArrayList<>();
+        List<Set<DeviceId>> localDevicesOfRequests = new ArrayList<>();
+        Map<String, List<Segment>> segmentsOfChildren = new LinkedHashMap<>();
+        Map<String, List<CompletableFuture<Void>>> futuresOfChildren = new LinkedHashMap<>();
+
+        for (ProvisioningRequest request : requests) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            Set<DeviceId> localDevices = new HashSet<>();
+            futuresOfRequests.add(futures);
+            localDevicesOfRequests.add(localDevices);
+
+            List<Segment> segments;
+            try {
+                segments = divideIntoSegments(resolveMacAddresses(request));
+            } catch (IllegalArgumentException e) {
+                log.warn("failed to divide provisioning {}: {}", request, e.getMessage());
+                futures.add(failedFuture(e));
+                continue;
+            }
+
+            for (Segment segment : segments) {
+                if (segment.domain == null) {
+                    List<FlowRule> rules = buildFlowRulesOfBothDirections(segment.request);
+                    for (FlowRule rule : rules) {
+                        localDevices.add(rule.deviceId());
+                    }
+                    localRules.addAll(rules);
+                } else {
+                    CompletableFuture<Void> future = new CompletableFuture<>();
+                    segmentsOfChildren.computeIfAbsent(segment.domain, k -> new ArrayList<>()).add(segment);
+                    futuresOfChildren.computeIfAbsent(segment.domain, k -> new ArrayList<>()).add(future);
+                    futures.add(observeProvisioningSegment(segment.domain, future, segmentStartTime));
+                }
+            }
+        }
+
+        // local segments of every request are installed together, so each batch of a device is observed once
+        Map<DeviceId, CompletableFuture<Void>> installations = installFlowRulesPerDevice(localRules);
+        for (CompletableFuture<Void> installation : installations.values()) {
+            observeProvisioningSegment(null, installation, segmentStartTime);
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            for (DeviceId deviceId : localDevicesOfRequests.get(i)) {
+                futuresOfRequests.get(i).add(installations.get(deviceId));
+            }
+        }
+
+        for (Map.Entry<String, List<Segment>> child : segmentsOfChildren.entrySet()) {
+            sendProvisioningBatchToChild(child.getKey(), child.getValue(), futuresOfChildren.get(child.getKey()));
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            ProvisioningRequest request = requests.get(i);
+            results.add(completeProvisioning(request.getSrc(), request.getDst(), futuresOfRequests.get(i), startTime));
+        }
+        log.info("{} provisionings are divided into {} flow rules and batches to {} children",
+                requests.size(), localRules.size(), segmentsOfChildren.size());
+        return results;
+    }
+
+    private ProvisioningRequest resolveMacAddresses(ProvisioningRequest request) {
+        if (request.getSrcMac() != null && request.getDstMac() != null) {
+            return request;
+        }
+
+        MacAddress srcMac = getMacAddressFromLocation(request.getSrc());
+        MacAddress dstMac = getMacAddressFromLocation(request.getDst());
+        if (srcMac == null || dstMac == null) {
+            throw new IllegalArgumentException("src or dst is not host");
+        }
+        return new ProvisioningRequest(request.getSrc(), request.getDst(), srcMac, dstMac);
+    }
+
+    // parts of the path from src to dst, each of them on the devices of a single domain
+    private List<Segment> divideIntoSegments(ProvisioningRequest request) {
+        ConnectPoint src = request.getSrc();
+        ConnectPoint dst = request.getDst();
+        MacAddress srcMac = request.getSrcMac();
+        MacAddress dstMac = request.getDstMac();
+
+        List<Segment> segments = new ArrayList<>();
+
+        // also used by the flow rule construction of both directions
+        Span pathSpan = Trace.startSpan("path", src + " -> " + dst);
+        Path path = pathCache.getPath(src.deviceId(), dst.deviceId());
+        pathSpan.end();
+
+        if (path == null) {
+            if (!src.deviceId().equals(dst.deviceId())) {
+                throw new IllegalArgumentException("no path from src " + src + " to dst " + dst);
+            }
+
+            // same device -> provisioning request to the child that has that device
+            segments.add(new Segment(res.getFromDeviceOwnerTable(src.deviceId()), request));
+            return segments;
         }
 
         // traversing links on path,
         // build and send provisioning request whenever owner controller of dst becomes different from one of src
-        List<Link> links = paths.iterator().next().links();
+        List<Link> links = path.links();
         String currentDomain = res.getFromDeviceOwnerTable(src.deviceId());
         ConnectPoint srcOfCurrentDomain = src;
 
@@ -533,115 +1159,221 @@ public class OrchestrationImpl implements Orchestration {
             String dstDomain = res.getFromDeviceOwnerTable(link.dst().deviceId());
             // owner controller of dst becomes different from one of src
             if (!Objects.equals(currentDomain, dstDomain)) { // two strings are can be null
-                if (currentDomain == null) {
-                    // physical device -> apply flow rules and clear flow rule list
-                    buildAndApplyFlowRulesForMyself(srcOfCurrentDomain, link.src(), srcMac, dstMac);
-                } else {
-                    sendProvisioningRequestToChild(srcOfCurrentDomain, link.src(), srcMac, dstMac, currentDomain);
-                }
+                segments.add(new Segment(currentDomain,
+                        new ProvisioningRequest(srcOfCurrentDomain, link.src(), srcMac, dstMac)));
                 currentDomain = dstDomain;
                 srcOfCurrentDomain = link.dst();
             }
         }
 
-        // postprocessing: apply final path segment
-        if (currentDomain == null) {
-            // physical device -> apply flow rules and clear flow rule list
-            buildAndApplyFlowRulesForMyself(srcOfCurrentDomain, dst, srcMac, dstMac);
-        } else {
-            sendProvisioningRequestToChild(srcOfCurrentDomain, dst, srcMac, dstMac, currentDomain);
-        }
+        // postprocessing: final path segment
+        segments.add(new Segment(currentDomain, new ProvisioningRequest(srcOfCurrentDomain, dst, srcMac, dstMac)));
+        return segments;
     }
 
-    private void buildAndApplyFlowRulesForMyself(ConnectPoint src, ConnectPoint dst,
-                                                 MacAddress srcMac, MacAddress dstMac) {
-        JSONObject root = new JSONObject();
-        JSONArray flowsNode = new JSONArray();
+    private CompletableFuture<Void> completeProvisioning(ConnectPoint src, ConnectPoint dst,
+                                                         List<CompletableFuture<Void>> segments, long startTime) {
+        CompletableFuture<Void> provisioning = withTimeout(
+                CompletableFuture.allOf(segments.toArray(new CompletableFuture[0])), provisioningTimeoutMs);
+
+        provisioning.whenComplete((result, cause) -> {
+            long elapsed = System.currentTimeMillis() - startTime;
+            metrics.observeProvisioning(cause == null, TimeUnit.MILLISECONDS.toNanos(elapsed));
+            if (cause == null) {
+                log.info("provisioning from {} to {} is installed in {} ms ({} segments)",
+                        src, dst, elapsed, segments.size());
+            } else {
+                log.warn("provisioning from {} to {} failed in {} ms: {}", src, dst, elapsed, cause.toString());
+            }
+        });
+        return provisioning;
+    }
+
+    private CompletableFuture<Void> observeProvisioningSegment(String domain, CompletableFuture<Void> segment) {
+        return observeProvisioningSegment(domain, segment, System.nanoTime());
+    }
+
+    // domain is null for the physical devices of this controller;
+    // the span of a child names the child to ask for the rest of the trace
+    private CompletableFuture<Void> observeProvisioningSegment(String domain, CompletableFuture<Void> segment,
+                                                               long startTime) {
+        Trace.startSpan("segment", (domain == null) ? "local" : domain, startTime).endWhenComplete(segment);
+        segment.whenComplete((result, cause) ->
+                metrics.observeProvisioningSegment(domain, cause == null, System.nanoTime() - startTime));
+        return segment;
+    }
+
+    private CompletableFuture<Void> buildAndApplyFlowRulesForMyself(ConnectPoint src, ConnectPoint dst,
+                                                                    MacAddress srcMac, MacAddress dstMac) {
+        return installFlowRules(buildFlowRulesOfBothDirections(new ProvisioningRequest(src, dst, srcMac, dstMac)));
+    }
+
+    // built as flow rules directly; json and the codecs of onos are only for POST /flows
+    private List<FlowRule> buildFlowRulesOfBothDirections(ProvisioningRequest request) {
+        List<FlowRule> rules = flowRuleConstructor.buildFlowRules(
+                request.getSrc(), request.getDst(), request.getSrcMac(), request.getDstMac());
+        rules.addAll(flowRuleConstructor.buildFlowRules(
+                request.getDst(), request.getSrc(), request.getDstMac(), request.getSrcMac()));
+        return rules;
+    }
+
+    // completed when every batch is acknowledged by its device
+    private CompletableFuture<Void> installFlowRules(Collection<FlowRule> rules) {
+        Collection<CompletableFuture<Void>> installations = installFlowRulesPerDevice(rules).values();
+        return CompletableFuture.allOf(installations.toArray(new CompletableFuture[0]));
+    }
+
+    // one batch of operations per device
+    private Map<DeviceId, CompletableFuture<Void>> installFlowRulesPerDevice(Collection<FlowRule> rules) {
+        Map<DeviceId, FlowRuleOperations.Builder> batches = new LinkedHashMap<>();
+        Map<DeviceId, Integer> counts = new HashMap<>();
+        for (FlowRule rule : rules) {
+            batches.computeIfAbsent(rule.deviceId(), k -> FlowRuleOperations.builder()).add(rule);
+            counts.merge(rule.deviceId(), 1, Integer::sum);
+        }
+
+        Map<DeviceId, CompletableFuture<Void>> installations = new LinkedHashMap<>();
+        for (Map.Entry<DeviceId, FlowRuleOperations.Builder> batch : batches.entrySet()) {
+            DeviceId deviceId = batch.getKey();
+            int count = counts.get(deviceId);
+            CompletableFuture<Void> installation = new CompletableFuture<>();
+            Trace.startSpan("flow-install", deviceId + " (" + count + " rules)").endWhenComplete(installation);
+
+            flowRuleService.apply(batch.getValue().build(new FlowRuleOperationsContext() {
+                @Override
+                public void onSuccess(FlowRuleOperations ops) {
+                    metrics.countFlowRules(true, count);
+                    installation.complete(null);
+                }
 
-        Set<JSONObject> rulesPerDevice = flowRuleJsonConstructor.buildFlowRuleJson(src, dst, srcMac, dstMac);
-        rulesPerDevice.addAll(flowRuleJsonConstructor.buildFlowRuleJson(dst, src, dstMac, srcMac));
-        for (JSONObject rule : rulesPerDevice) {
-            flowsNode.put(rule);
+                @Override
+                public void onError(FlowRuleOperations ops) {
+                    metrics.countFlowRules(false, count);
+                    installation.completeExceptionally(
+                            new IllegalStateException("failed to install flow rules on " + deviceId));
+                }
+            }));
+            installations.put(deviceId, installation);
         }
+        return installations;
+    }
 
+    private CompletableFuture<Void> withTimeout(CompletableFuture<Void> future, long timeoutMs) {
         try {
-            root.put("flows", flowsNode);
-        } catch (JSONException e) {
+            ScheduledFuture<?> timeout = faultMonitoringExecutor.schedule(
+                    () -> future.completeExceptionally(new TimeoutException("no completion in " + timeoutMs + " ms")),
+                    timeoutMs, TimeUnit.MILLISECONDS);
+            future.whenComplete((result, cause) -> timeout.cancel(false));
+        } catch (RejectedExecutionException e) {
             log.warn("exception: {}", e.toString());
-            return;
         }
+        return future;
+    }
 
-        // json decoders of onos use the different json library -> toString() -> re-parse
-        applyFlowRulesToMyself(root.toString());
+    private static CompletableFuture<Void> failedFuture(Throwable cause) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+        return future;
     }
 
-    private void sendProvisioningRequestToChild(ConnectPoint src, ConnectPoint dst,
-                                                MacAddress srcMac, MacAddress dstMac, String domain) {
-        try {
-            String jsonString = buildProvisioningRequestJson(src, dst, srcMac, dstMac).toString();
-            RestClient client;
-            if (implicitOrchestration) {
-                client = new RestClientForImplicitElements(domain, PORT_OF_ORCHESTRATION_SERVER,
-                        HttpMethod.POST, URI_OF_PROVISIONING, jsonString, this);
-            } else {
-                client = new RestClientForExplicitElements(domain, PORT_OF_ORCHESTRATION_SERVER,
-                        HttpMethod.POST, URI_OF_PROVISIONING, jsonString, this);
+    // completed by the response of the child, which answers when its part of the path is installed
+    private CompletableFuture<Void> sendProvisioningRequestToChild(ConnectPoint src, ConnectPoint dst,
+                                                                   MacAddress srcMac, MacAddress dstMac,
+                                                                   String domain) {
+        if (!getChildHealth(domain).allowRequest(System.currentTimeMillis())) {
+            return failedFuture(new IllegalStateException(domain + " is unreachable"));
+        }
+
+        // encoded when sent, in the form the child has
+        ObjectNode body = buildProvisioningRequestJson(src, dst, srcMac, dstMac);
+        RestClient client;
+        if (implicitOrchestration) {
+            client = new RestClientForImplicitElements(domain, childPort,
+                    HttpMethod.POST, URI_OF_PROVISIONING, body, this);
+        } else {
+            client = new RestClientForExplicitElements(domain, childPort,
+                    HttpMethod.POST, URI_OF_PROVISIONING, body, this);
+        }
+        return trackChildHealth(domain, client.connect());
+    }
+
+    // completes the future of every segment by its result in the response of the child
+    private void sendProvisioningBatchToChild(String domain, List<Segment> segments,
+                                              List<CompletableFuture<Void>> futures) {
+        ObjectNode root = Json.objectNode();
+        ArrayNode provisioningsNode = root.putArray("provisionings");
+        for (Segment segment : segments) {
+            ProvisioningRequest request = segment.request;
+            buildProvisioningJson(provisioningsNode.addObject(),
+                    request.getSrc(), request.getDst(), request.getSrcMac(), request.getDstMac());
+        }
+
+        if (!getChildHealth(domain).allowRequest(System.currentTimeMillis())) {
+            for (CompletableFuture<Void> future : futures) {
+                future.completeExceptionally(new IllegalStateException(domain + " is unreachable"));
             }
-            client.connect();
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
+            return;
         }
+
+        RestClient client = new RestClientForProvisioningBatch(domain, childPort,
+                URI_OF_PROVISIONING_BATCH, root, this, futures);
+        trackChildHealth(domain, client.connect()).whenComplete((result, cause) -> {
+            for (CompletableFuture<Void> future : futures) {
+                // no effect on segments which have their results
+                future.completeExceptionally((cause != null) ? cause
+                        : new IOException("no result of the provisioning from " + domain));
+            }
+        });
     }
 
-    private JSONObject buildProvisioningRequestJson(ConnectPoint src, ConnectPoint dst,
-                                                    MacAddress srcMac, MacAddress dstMac) throws JSONException {
-        JSONObject root = new JSONObject();
-        JSONObject provisioningNode = new JSONObject();
+    private ObjectNode buildProvisioningRequestJson(ConnectPoint src, ConnectPoint dst,
+                                                    MacAddress srcMac, MacAddress dstMac) {
+        ObjectNode root = Json.objectNode();
+        buildProvisioningJson(root.putObject("provisioning"), src, dst, srcMac, dstMac);
+        return root;
+    }
 
-        JSONObject srcNode = new JSONObject();
-        JSONObject dstNode = new JSONObject();
+    private void buildProvisioningJson(ObjectNode provisioningNode, ConnectPoint src, ConnectPoint dst,
+                                       MacAddress srcMac, MacAddress dstMac) {
+        ObjectNode srcNode = provisioningNode.putObject("src");
+        ObjectNode dstNode = provisioningNode.putObject("dst");
 
         if (implicitOrchestration) {
             ConnectPoint explicitSrc = res.getExplicitConnectPoint(src.deviceId(), src.port().toLong());
-            srcNode.put("device", explicitSrc.deviceId());
+            srcNode.put("device", explicitSrc.deviceId().toString());
             srcNode.put("port", explicitSrc.port().toLong());
 
             ConnectPoint explicitDst = res.getExplicitConnectPoint(dst.deviceId(), dst.port().toLong());
-            dstNode.put("device", explicitDst.deviceId());
+            dstNode.put("device", explicitDst.deviceId().toString());
             dstNode.put("port", explicitDst.port().toLong());
 
         } else {
-            srcNode.put("device", res.getActualDeviceId(src.deviceId()));
-            srcNode.put("port", src.port());
+            srcNode.put("device", res.getActualDeviceId(src.deviceId()).toString());
+            srcNode.put("port", src.port().toString());
 
-            dstNode.put("device", res.getActualDeviceId(dst.deviceId()));
-            dstNode.put("port", dst.port());
+            dstNode.put("device", res.getActualDeviceId(dst.deviceId()).toString());
+            dstNode.put("port", dst.port().toString());
         }
 
-        provisioningNode.put("src", srcNode);
-        provisioningNode.put("dst", dstNode);
-
-        JSONObject terminalNode = new JSONObject();
+        ObjectNode terminalNode = provisioningNode.putObject("terminal");
         terminalNode.put("src", srcMac.toString());
         terminalNode.put("dst", dstMac.toString());
-        provisioningNode.put("terminal", terminalNode);
-
-        root.put("provisioning", provisioningNode);
-
-        return root;
     }
 
 
     @Override
-    public void applyFlowRulesToMyself(String jsonString) {
+    public CompletableFuture<Void> applyFlowRulesToMyself(String jsonString) {
         FlowRule[] rules;
+        Span parseSpan = Trace.startSpan("parse", null);
         try {
             rules = flowRuleDecoder.decodeFlowRules(jsonString);
+            parseSpan.end();
         } catch (Exception e) {
+            parseSpan.end(e);
             log.warn("exception: {}", e.toString());
-            return;
+            return failedFuture(new IllegalArgumentException(e.toString()));
         }
-        flowRuleService.applyFlowRules(rules);
+        return withTimeout(installFlowRules(Arrays.asList(rules)), provisioningTimeoutMs);
     }
 
     private MacAddress getMacAddressFromLocation(ConnectPoint location) {
@@ -657,6 +1389,18 @@ public class OrchestrationImpl implements Orchestration {
 
 
 
+    // part of a provisioning on the devices of a single domain; null for the physical devices of this controller
+    private static class Segment {
+        private final String domain;
+        private final ProvisioningRequest request;
+
+        private Segment(String domain, ProvisioningRequest request) {
+            this.domain = domain;
+            this.request = request;
+        }
+    }
+
+
     // nothing to do with InternalElementProvider
     private class InternalElementProvider
             extends AbstractProvider implements DeviceProvider, LinkProvider, HostProvider {
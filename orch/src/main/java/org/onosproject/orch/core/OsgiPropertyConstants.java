@@ -0,0 +1,83 @@
+package org.onosproject.orch.core;
+
+
+// names and defaults of the component configuration of the orchestration; times in ms
+public final class OsgiPropertyConstants {
+
+    private OsgiPropertyConstants() {
+    }
+
+
+    // port of the rest server of this controller, and the one of the servers of children
+    public static final String SERVER_PORT = "serverPort";
+    public static final int SERVER_PORT_DEFAULT = 8888;
+
+    // address the rest server is bound to; every address of the host if empty
+    public static final String SERVER_ADDRESS = "serverAddress";
+    public static final String SERVER_ADDRESS_DEFAULT = "";
+
+    public static final String CHILD_PORT = "childPort";
+    public static final int CHILD_PORT_DEFAULT = 8888;
+
+    // the connect timeout applies to children connected after a change
+    public static final String CHILD_CONNECT_TIMEOUT = "childConnectTimeoutMs";
+    public static final int CHILD_CONNECT_TIMEOUT_DEFAULT = 3000;
+
+    // longer than a provisioning of the child
+    public static final String CHILD_READ_TIMEOUT = "childReadTimeoutMs";
+    public static final int CHILD_READ_TIMEOUT_DEFAULT = 15000;
+
+    // for each stage of topology discovery
+    public static final String DISCOVERY_TIMEOUT = "discoveryTimeoutMs";
+    public static final int DISCOVERY_TIMEOUT_DEFAULT = 5000;
+
+    public static final String PROVISIONING_TIMEOUT = "provisioningTimeoutMs";
+    public static final int PROVISIONING_TIMEOUT_DEFAULT = 10000;
+
+    // children are polled when their intervals elapse, checked every tick
+    public static final String MONITORING_TICK = "monitoringTickMs";
+    public static final int MONITORING_TICK_DEFAULT = 1000;
+
+    public static final String MONITORING_DEADLINE = "monitoringDeadlineMs";
+    public static final int MONITORING_DEADLINE_DEFAULT = 5000;
+
+    // polling intervals of children, halved on changes and doubled while quiet
+    public static final String MIN_POLLING_INTERVAL = "minPollingIntervalMs";
+    public static final int MIN_POLLING_INTERVAL_DEFAULT = 2000;
+
+    public static final String INITIAL_POLLING_INTERVAL = "initialPollingIntervalMs";
+    public static final int INITIAL_POLLING_INTERVAL_DEFAULT = 10000;
+
+    public static final String MAX_POLLING_INTERVAL = "maxPollingIntervalMs";
+    public static final int MAX_POLLING_INTERVAL_DEFAULT = 60000;
+
+    // devices of a child are withdrawn after its circuit has been open this long; 0 to keep them
+    public static final String CHILD_WITHDRAWAL_TIMEOUT = "childWithdrawalTimeoutMs";
+    public static final int CHILD_WITHDRAWAL_TIMEOUT_DEFAULT = 0;
+
+    // flow rules installed on the physical devices of this controller; timeouts in seconds
+    public static final String FLOW_PRIORITY_BY_IN_PORT_AND_ETH_SRC = "flowPriorityByInPortAndEthSrc";
+    public static final int FLOW_PRIORITY_BY_IN_PORT_AND_ETH_SRC_DEFAULT = 41000;
+
+    public static final String FLOW_PRIORITY_BY_ETH_DST = "flowPriorityByEthDst";
+    public static final int FLOW_PRIORITY_BY_ETH_DST_DEFAULT = 50000;
+
+    public static final String FLOW_TIMEOUT_BY_IN_PORT_AND_ETH_SRC = "flowTimeoutByInPortAndEthSrc";
+    public static final int FLOW_TIMEOUT_BY_IN_PORT_AND_ETH_SRC_DEFAULT = 5;
+
+    public static final String FLOW_TIMEOUT_BY_ETH_DST = "flowTimeoutByEthDst";
+    public static final int FLOW_TIMEOUT_BY_ETH_DST_DEFAULT = 30;
+
+    // 0 to size the pool from the number of cores
+    public static final String DISCOVERY_THREADS = "discoveryThreads";
+    public static final int DISCOVERY_THREADS_DEFAULT = 0;
+
+    public static final String REQUEST_THREADS = "requestThreads";
+    public static final int REQUEST_THREADS_DEFAULT = 0;
+
+    // documents and provisionings are exchanged with children in the form of CompactJson if they have it;
+    // the rest server answers in it whenever asked, whatever this is
+    public static final String COMPACT_WIRE_FORMAT = "compactWireFormat";
+    public static final boolean COMPACT_WIRE_FORMAT_DEFAULT = false;
+
+}
@@ -0,0 +1,167 @@
+package org.onosproject.orch.core;
+
+import org.onosproject.net.DefaultPath;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.Path;
+import org.onosproject.net.link.LinkService;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyEvent;
+import org.onosproject.net.topology.TopologyListener;
+import org.onosproject.net.topology.TopologyService;
+import org.onosproject.orch.Orchestration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+// paths between two devices, shared by the provisioning and the construction of flow rules.
+// a path is valid only for the topology it is computed on, and every path is dropped when the topology changes
+public class PathCache implements TopologyListener {
+
+    private static final int MAX_ENTRIES = 4096;
+
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final TopologyService topologyService;
+    private final LinkService linkService;
+
+    private final ConcurrentHashMap<Key, Entry> entries;
+
+    private final AtomicLong hits;
+    private final AtomicLong reversedHits; // computed from the path of the reverse direction
+    private final AtomicLong misses;
+    private final AtomicLong invalidations;
+
+
+    public PathCache(Orchestration orch) {
+        topologyService = orch.getTopologyService();
+        linkService = orch.getLinkService();
+
+        entries = new ConcurrentHashMap<>();
+
+        hits = new AtomicLong(0);
+        reversedHits = new AtomicLong(0);
+        misses = new AtomicLong(0);
+        invalidations = new AtomicLong(0);
+    }
+
+
+    @Override
+    public void event(TopologyEvent event) {
+        entries.clear();
+        invalidations.incrementAndGet();
+        log.debug("paths are invalidated: hits {}, reversed hits {}, misses {}",
+                hits.get(), reversedHits.get(), misses.get());
+    }
+
+
+    // first path from src to dst on the current topology, or null if there is none
+    public Path getPath(DeviceId src, DeviceId dst) {
+        Topology topology = topologyService.currentTopology();
+
+        Key key = new Key(src, dst);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.topology == topology) {
+            hits.incrementAndGet();
+            return entry.path;
+        }
+
+        Path path = reverse(entries.get(new Key(dst, src)), topology);
+        if (path != null) {
+            reversedHits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            Set<Path> paths = topologyService.getPaths(topology, src, dst);
+            path = paths.isEmpty() ? null : paths.iterator().next();
+        }
+
+        if (entries.size() >= MAX_ENTRIES) {
+            entries.clear();
+        }
+        entries.put(key, new Entry(topology, path));
+        return path;
+    }
+
+    // links of the reverse path in the reverse order, if every link of it has its reverse link
+    private Path reverse(Entry entry, Topology topology) {
+        if (entry == null || entry.topology != topology || entry.path == null) {
+            return null;
+        }
+
+        List<Link> forwardLinks = entry.path.links();
+        List<Link> links = new ArrayList<>(forwardLinks.size());
+        for (int i = forwardLinks.size() - 1; i >= 0; i--) {
+            Link forwardLink = forwardLinks.get(i);
+            Link link = linkService.getLink(forwardLink.dst(), forwardLink.src());
+            if (link == null) {
+                return null;
+            }
+            links.add(link);
+        }
+        return new DefaultPath(entry.path.providerId(), links, entry.path.weight());
+    }
+
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getReversedHitCount() {
+        return reversedHits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+
+    private static class Key {
+        private final DeviceId src;
+        private final DeviceId dst;
+
+        private Key(DeviceId src, DeviceId dst) {
+            this.src = src;
+            this.dst = dst;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return src.equals(other.src) && dst.equals(other.dst);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(src, dst);
+        }
+    }
+
+    private static class Entry {
+        private final Topology topology; // replaced by onos on every change
+        private final Path path; // null if there is no path
+
+        private Entry(Topology topology, Path path) {
+            this.topology = topology;
+            this.path = path;
+        }
+    }
+
+}
@@ -1,9 +1,7 @@
 package org.onosproject.orch.core.explicit;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.onlab.packet.MacAddress;
 import org.onlab.packet.VlanId;
 import org.onosproject.net.ConnectPoint;
@@ -11,133 +9,132 @@ import org.onosproject.net.DeviceId;
 import org.onosproject.net.HostLocation;
 import org.onosproject.net.PortNumber;
 import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.json.Json;
+import org.onosproject.orch.rest.client.StreamingJsonDecoder;
 
+import org.onosproject.orch.adt.elem.DirectedLink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
-public class ExplicitTopologyConstructor {
 
-    private final Logger log = LoggerFactory.getLogger(getClass());
+// applies a document of a child, such as {"links":[...],"seq":...} or {"edgeUpdates":{...}}, element by element
+// while it is decoded
+public class ExplicitTopologyConstructor implements StreamingJsonDecoder.Listener {
 
-    private final String EDGE_UPDATES = "edgeUpdates";
+    private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private final JSONObject json;
     private final String serverIp;
     private final Orchestration orch;
 
-    private boolean hasBeenParsed;
+    // the order of properties is not guaranteed; links missing in a snapshot are deleted at the end
+    private boolean linksSnapshot;
+    private final Set<DirectedLink> snapshotLinks;
+    private long seq;
 
 
-    private ExplicitTopologyConstructor(JSONObject json, String serverIp, Orchestration orch) {
-        this.json = json;
+    private ExplicitTopologyConstructor(String serverIp, Orchestration orch) {
         this.serverIp = serverIp;
         this.orch = orch;
-        hasBeenParsed = false;
+
+        linksSnapshot = false;
+        snapshotLinks = new HashSet<>();
+        seq = -1;
     }
-    public static ExplicitTopologyConstructor create(JSONObject json, String serverIp, Orchestration orch) {
-        return new ExplicitTopologyConstructor(json, serverIp, orch);
+    public static ExplicitTopologyConstructor create(String serverIp, Orchestration orch) {
+        return new ExplicitTopologyConstructor(serverIp, orch);
     }
 
 
-    public ExplicitTopologyConstructor applyJson() {
-        if (hasBeenParsed) {
-            log.info("json already applied: {}", json);
-            return this;
-        }
-
-        hasBeenParsed = true;
-
-        if (json.has(EDGE_UPDATES)) {
-            return applyEdgeUpdatesJson();
+    @Override
+    public void arrayStarted(String path) {
+        if (path.equals(ElementType.LINKS.property)) {
+            linksSnapshot = true;
         }
-
-        for (ElementType elementType : ElementType.values()) {
-            if (json.has(elementType.property)) {
-                return applyJsonWithRootProperty(elementType);
-            }
-        }
-
-        log.warn("cannot resolve the json message for explicit orchestration: {}", json);
-        return this;
     }
 
+    @Override
+    public void elementDecoded(String path, ObjectNode elementNode) {
+        switch (path) {
+            case "devices":
+                ElementType.DEVICES.applySingleElementJson(elementNode, serverIp, orch, false);
+                break;
 
-    private ExplicitTopologyConstructor applyEdgeUpdatesJson() {
-        JSONArray addedNode, deletedNode;
-        try {
-            JSONObject edgeUpdatesNode = json.getJSONObject(EDGE_UPDATES);
-            addedNode = edgeUpdatesNode.getJSONArray("added");
-            deletedNode = edgeUpdatesNode.getJSONArray("deleted");
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
-            return this;
-        }
+            case "links":
+            case "edgeUpdates/added":
+                try {
+                    snapshotLinks.add(ElementType.buildReportedLink(elementNode));
+                } catch (IllegalArgumentException e) {
+                    log.warn("exception: {}", e.toString());
+                    break;
+                }
+                ElementType.LINKS.applySingleElementJson(elementNode, serverIp, orch, false);
+                break;
 
-        int length;
+            case "edgeUpdates/deleted":
+                ElementType.LINKS.applySingleElementJson(elementNode, serverIp, orch, true);
+                break;
 
-        length = addedNode.length();
-        for (int i = 0; i < length; i++) {
-            JSONObject linkNode;
-            try {
-                linkNode = addedNode.getJSONObject(i);
-            } catch (JSONException e) {
-                log.warn("exception: {}", e.toString());
-                continue;
-            }
-            ElementType.LINKS.applySingleElementJson(linkNode, serverIp, orch, false);
-        }
+            case "hosts":
+                ElementType.HOSTS.applySingleElementJson(elementNode, serverIp, orch, false);
+                break;
 
-        length = deletedNode.length();
-        for (int i = 0; i < length; i++) {
-            JSONObject linkNode;
-            try {
-                linkNode = deletedNode.getJSONObject(i);
-            } catch (JSONException e) {
-                log.warn("exception: {}", e.toString());
-                continue;
-            }
-            ElementType.LINKS.applySingleElementJson(linkNode, serverIp, orch, true);
+            default:
+                log.warn("cannot resolve the element of {} for explicit orchestration: {}", path, elementNode);
+                break;
         }
-        return this;
     }
 
+    @Override
+    public void valueDecoded(String path, JsonNode value) {
+        switch (path) {
+            case "seq":
+            case "edgeUpdates/seq":
+                if (value.isIntegralNumber()) {
+                    seq = value.longValue();
+                }
+                break;
+
+            case "edgeUpdates/snapshot":
+                // the cursor was no longer valid for the child; added has every current link
+                linksSnapshot = value.asBoolean();
+                break;
 
-    private ExplicitTopologyConstructor applyJsonWithRootProperty(ElementType elementType) {
-        JSONArray elementsArrayNode;
-        try {
-            elementsArrayNode = json.getJSONArray(elementType.property);
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
-            return this;
+            default:
+                break;
         }
+    }
 
-        int length = elementsArrayNode.length();
-        for (int i = 0; i < length; i++) {
-            JSONObject singleElementNode;
-            try {
-                singleElementNode = elementsArrayNode.getJSONObject(i);
-            } catch (JSONException e) {
-                log.warn("exception: {}", e.toString());
-                continue;
+    @Override
+    public void decodingFinished() {
+        if (linksSnapshot) {
+            Map<DirectedLink, ObjectNode> reportedLinks = orch.getResourceTables().getReportedLinks(serverIp);
+            for (Map.Entry<DirectedLink, ObjectNode> reportedLink : reportedLinks.entrySet()) {
+                if (!snapshotLinks.contains(reportedLink.getKey())) {
+                    ElementType.LINKS.applySingleElementJson(reportedLink.getValue(), serverIp, orch, true);
+                }
             }
-            elementType.applySingleElementJson(singleElementNode, serverIp, orch, false);
         }
 
-        return this;
+        if (seq >= 0) {
+            orch.getResourceTables().putIntoEdgeUpdateCursorTable(serverIp, seq);
+        }
     }
 
 
     private enum ElementType {
 
         DEVICES("devices") {
-            void applySingleElementJson(JSONObject deviceNode, String serverIp, Orchestration orch, boolean removal) {
+            void applySingleElementJson(ObjectNode deviceNode, String serverIp, Orchestration orch, boolean removal) {
                 if (removal) {
                     return;
                 }
 
                 try {
-                    String deviceIdNode = deviceNode.getString("id");
+                    String deviceIdNode = Json.getText(deviceNode, "id");
 
                     String[] deviceIdNodeSplit = deviceIdNode.split(":"); // { scheme, id }
                     if (deviceIdNodeSplit.length != 2) {
@@ -151,22 +148,22 @@ public class ExplicitTopologyConstructor {
 
                     orch.addDevice(deviceId);
 
-                } catch (JSONException e) {
+                } catch (IllegalArgumentException e) {
                     log.warn("exception: {}", e.toString());
                 }
             }
         },
 
         LINKS("links") {
-            void applySingleElementJson(JSONObject linkNode, String serverIp, Orchestration orch, boolean removal) {
+            void applySingleElementJson(ObjectNode linkNode, String serverIp, Orchestration orch, boolean removal) {
                 try {
-                    JSONObject srcNode = linkNode.getJSONObject("src");
-                    JSONObject dstNode = linkNode.getJSONObject("dst");
-                    String srcDeviceNode = srcNode.getString("device");
-                    String dstDeviceNode = dstNode.getString("device");
+                    ObjectNode srcNode = Json.getObject(linkNode, "src");
+                    ObjectNode dstNode = Json.getObject(linkNode, "dst");
+                    String srcDeviceNode = Json.getText(srcNode, "device");
+                    String dstDeviceNode = Json.getText(dstNode, "device");
 
-                    PortNumber srcPort = PortNumber.portNumber(srcNode.getLong("port"));
-                    PortNumber dstPort = PortNumber.portNumber(dstNode.getLong("port"));
+                    PortNumber srcPort = PortNumber.portNumber(Json.getLong(srcNode, "port"));
+                    PortNumber dstPort = PortNumber.portNumber(Json.getLong(dstNode, "port"));
 
                     String[] srcIdNodeSplit = srcDeviceNode.split(":");
                     String[] dstIdNodeSplit = dstDeviceNode.split(":");
@@ -180,31 +177,34 @@ public class ExplicitTopologyConstructor {
                     ConnectPoint src = new ConnectPoint(srcId, srcPort);
                     ConnectPoint dst = new ConnectPoint(dstId, dstPort);
 
+                    DirectedLink reportedLink = buildReportedLink(linkNode);
                     if (removal) {
                         orch.deleteLink(src, dst);
+                        orch.getResourceTables().removeFromReportedLinkTable(serverIp, reportedLink);
                     } else {
                         orch.addLink(src, dst);
+                        orch.getResourceTables().putIntoReportedLinkTable(serverIp, reportedLink, linkNode);
                     }
 
-                } catch (JSONException e) {
+                } catch (IllegalArgumentException e) {
                     log.warn("exception: {}", e.toString());
                 }
             }
         },
 
         HOSTS("hosts") {
-            void applySingleElementJson(JSONObject hostNode, String serverIp, Orchestration orch, boolean removal) {
+            void applySingleElementJson(ObjectNode hostNode, String serverIp, Orchestration orch, boolean removal) {
                 if (removal) {
                     return;
                 }
 
                 try {
-                    String macNode = hostNode.getString("mac");
-                    String vlanNode = hostNode.getString("vlan");
+                    String macNode = Json.getText(hostNode, "mac");
+                    String vlanNode = Json.getText(hostNode, "vlan");
 
-                    JSONObject locationNode = hostNode.getJSONObject("location");
-                    String locationElementIdNode = locationNode.getString("elementId");
-                    long locationPortNode = locationNode.getLong("port");
+                    ObjectNode locationNode = Json.getObject(hostNode, "location");
+                    String locationElementIdNode = Json.getText(locationNode, "elementId");
+                    long locationPortNode = Json.getLong(locationNode, "port");
 
                     String[] locationElementIdSplit = locationElementIdNode.split(":");
 
@@ -220,7 +220,7 @@ public class ExplicitTopologyConstructor {
                         orch.addHost(macAddress, vlanId, location);
                     }
 
-                } catch (JSONException e) {
+                } catch (IllegalArgumentException e) {
                     log.warn("exception: {}", e.toString());
                 }
             }
@@ -233,8 +233,19 @@ public class ExplicitTopologyConstructor {
             this.property = property;
         }
 
+        // a link in the coordinates of the child, which is the key of the reported link table
+        private static DirectedLink buildReportedLink(ObjectNode linkNode) {
+            ObjectNode srcNode = Json.getObject(linkNode, "src");
+            ObjectNode dstNode = Json.getObject(linkNode, "dst");
+            ConnectPoint src = new ConnectPoint(DeviceId.deviceId(Json.getText(srcNode, "device")),
+                    PortNumber.portNumber(Json.getLong(srcNode, "port")));
+            ConnectPoint dst = new ConnectPoint(DeviceId.deviceId(Json.getText(dstNode, "device")),
+                    PortNumber.portNumber(Json.getLong(dstNode, "port")));
+            return new DirectedLink(src, dst);
+        }
+
         abstract void applySingleElementJson(
-                JSONObject singleElementNode, String serverIp, Orchestration orch, boolean removal);
+                ObjectNode singleElementNode, String serverIp, Orchestration orch, boolean removal);
     }
 
 }
@@ -0,0 +1,164 @@
+package org.onosproject.orch.core.explicit;
+
+import org.onlab.packet.MacAddress;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.net.*;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.TrafficTreatment;
+import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.core.PathCache;
+
+import java.util.*;
+
+
+// flow rules of a path on the physical devices of this controller, built as they are applied
+public class FlowRuleConstructor {
+
+    // set from the component configuration; rules already installed keep theirs
+    private volatile int priorityByInPortAndEthSrc = 41000;
+    private volatile int priorityByEthDst = 50000;
+
+    private volatile int timeoutByInPortAndEthSrc = 5;
+    private volatile int timeoutByEthDst = 30;
+
+
+    private ApplicationId appId;
+    private PathCache pathCache;
+
+
+    public FlowRuleConstructor(Orchestration orch) {
+        appId = orch.getApplicationId();
+        pathCache = orch.getPathCache();
+    }
+
+    public void configure(int priorityByInPortAndEthSrc, int priorityByEthDst,
+                          int timeoutByInPortAndEthSrc, int timeoutByEthDst) {
+        this.priorityByInPortAndEthSrc = priorityByInPortAndEthSrc;
+        this.priorityByEthDst = priorityByEthDst;
+        this.timeoutByInPortAndEthSrc = timeoutByInPortAndEthSrc;
+        this.timeoutByEthDst = timeoutByEthDst;
+    }
+
+
+    public List<FlowRule> buildFlowRules(ConnectPoint src, ConnectPoint dst, MacAddress srcMac, MacAddress dstMac) {
+
+        Path path = pathCache.getPath(src.deviceId(), dst.deviceId());
+
+        FlowRuleTable table = new FlowRuleTable(srcMac, dstMac);
+
+        // between two hosts connected to the same device
+        // same device -> provisioning request to the controller which has that device
+        if (path == null) {
+            PortNumber inPort = src.port();
+            ConnectPoint output = dst;
+            table.addRules(inPort, output);
+            return table.getRules();
+        }
+
+        // traversing links on the path,
+        // build provisioning request whenever owner controller of src and dst becomes different
+        List<Link> links = path.links();
+
+
+        // first device: IN_PORT = port toward the source host
+        //               OUTPUT = port toward the next device
+        {
+            PortNumber inPort = src.port();
+            ConnectPoint output = links.get(0).src();
+            table.addRules(inPort, output);
+        }
+
+        // intermediate devices: IN_PORT = port toward the previous device
+        //                       OUTPUT = port toward the next device
+        for (int i = 1; i < links.size(); i++) {
+            PortNumber inPort = links.get(i - 1).dst().port();
+            ConnectPoint output = links.get(i).src();
+            table.addRules(inPort, output);
+        }
+
+        // last device: IN_PORT = port toward the previous device
+        //              OUTPUT = port toward the destination host
+        {
+            PortNumber inPort = links.get(links.size() - 1).dst().port();
+            ConnectPoint output = dst;
+            table.addRules(inPort, output);
+        }
+
+        return table.getRules();
+    }
+
+
+    private class FlowRuleTable {
+
+        private List<FlowRule> rules;
+        private MacAddress src;
+        private MacAddress dst;
+
+        protected FlowRuleTable(MacAddress src, MacAddress dst) {
+            this.src = src;
+            this.dst = dst;
+
+            rules = new ArrayList<>();
+        }
+
+        public List<FlowRule> getRules() {
+            return rules;
+        }
+
+        public void addRules(PortNumber inPort, ConnectPoint outPoint) {
+            DeviceId deviceId = outPoint.deviceId();
+
+            FlowRule flowRuleByInPortAndSrc = buildNewFlowRuleByInPortAndSrc(deviceId, inPort, outPoint.port());
+            FlowRule flowRuleByDst = buildNewFlowRuleByDst(deviceId, outPoint.port());
+
+            rules.add(flowRuleByDst);
+            rules.add(flowRuleByInPortAndSrc);
+        }
+
+        private FlowRule buildNewFlowRuleByInPortAndSrc(DeviceId deviceId, PortNumber inPort, PortNumber output) {
+            TrafficSelector selector = DefaultTrafficSelector.builder()
+                    .matchInPort(inPort)
+                    .matchEthSrc(src)
+                    .build();
+            return buildFlowRule(priorityByInPortAndEthSrc, timeoutByInPortAndEthSrc,
+                    deviceId, selector, buildTreatment(output));
+        }
+
+        private FlowRule buildNewFlowRuleByDst(DeviceId deviceId, PortNumber output) {
+            TrafficSelector selector = DefaultTrafficSelector.builder()
+                    .matchEthDst(dst)
+                    .build();
+            return buildFlowRule(priorityByEthDst, timeoutByEthDst,
+                    deviceId, selector, buildTreatment(output));
+        }
+
+        private FlowRule buildFlowRule(int priority, int timeout, DeviceId deviceId,
+                                       TrafficSelector selector, TrafficTreatment treatment) {
+            FlowRule.Builder builder = DefaultFlowRule.builder()
+                    .forDevice(deviceId)
+                    .withPriority(priority)
+                    .withSelector(selector)
+                    .withTreatment(treatment)
+                    .fromApp(appId);
+
+            if (timeout <= 0) {
+                builder.makePermanent();
+            } else {
+                builder.makeTemporary(timeout);
+            }
+            return builder.build();
+        }
+
+        private TrafficTreatment buildTreatment(PortNumber output) {
+            return DefaultTrafficTreatment.builder()
+                    .setOutput(output)
+                    .build();
+        }
+
+    }
+
+}
@@ -10,6 +10,7 @@ import org.onosproject.codec.CodecService;
 import org.onosproject.codec.JsonCodec;
 import org.onosproject.net.flow.FlowRule;
 import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.json.Json;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,8 +22,8 @@ public class FlowRuleDecoder {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    // codecs for onos core consume jackson json
-    private final ObjectMapper mapper = new ObjectMapper();
+    // codecs for onos core consume jackson json, as the rest of the bundle does
+    private final ObjectMapper mapper = Json.MAPPER;
 
 
     private final CodecService codecService;
@@ -46,9 +47,9 @@ public class FlowRuleDecoder {
     public FlowRule[] decodeFlowRules(String jsonString) throws IOException {
         log.info("trying to decode json of flow rules: {}", jsonString);
 
-        ObjectNode root = (ObjectNode)mapper.readTree(jsonString);
-        ArrayNode flowsNode = (ArrayNode)root.get("flows");
-
+        return decodeFlowRules(Json.getArray(Json.decodeObject(jsonString), "flows"));
+    }
+    public FlowRule[] decodeFlowRules(ArrayNode flowsNode) {
         ArrayList<FlowRule> flowRules = new ArrayList<>();
         for (JsonNode node : flowsNode) {
             FlowRule flowRule;
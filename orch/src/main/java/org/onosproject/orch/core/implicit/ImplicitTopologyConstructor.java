@@ -1,9 +1,7 @@
 package org.onosproject.orch.core.implicit;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.onlab.packet.MacAddress;
 import org.onlab.packet.VlanId;
 import org.onosproject.net.ConnectPoint;
@@ -11,165 +9,169 @@ import org.onosproject.net.DeviceId;
 import org.onosproject.net.HostLocation;
 import org.onosproject.net.PortNumber;
 import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.json.Json;
+import org.onosproject.orch.rest.client.StreamingJsonDecoder;
 
 import org.onosproject.orch.adt.elem.DirectedLink;
 import org.onosproject.orch.adt.elem.UndirectedLink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
-public class ImplicitTopologyConstructor {
 
-    private final Logger log = LoggerFactory.getLogger(getClass());
+// applies a document of a child, such as {"links":[...],"seq":...} or {"edgeUpdates":{...}}, element by element
+// while it is decoded
+public class ImplicitTopologyConstructor implements StreamingJsonDecoder.Listener {
 
-    private final String EDGE_UPDATES = "edgeUpdates";
+    private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private final JSONObject json;
     private final String serverIp;
     private final Orchestration orch;
 
-    private boolean hasBeenParsed;
+    // the order of properties is not guaranteed; links missing in a snapshot are deleted at the end
+    private boolean linksSnapshot;
+    private final Set<DirectedLink> snapshotLinks;
+    private long seq;
 
 
-    private ImplicitTopologyConstructor(JSONObject json, String serverIp, Orchestration orch) {
-        this.json = json;
+    private ImplicitTopologyConstructor(String serverIp, Orchestration orch) {
         this.serverIp = serverIp;
         this.orch = orch;
-        hasBeenParsed = false;
+
+        linksSnapshot = false;
+        snapshotLinks = new HashSet<>();
+        seq = -1;
     }
-    public static ImplicitTopologyConstructor create(JSONObject json, String serverIp, Orchestration orch) {
-        return new ImplicitTopologyConstructor(json, serverIp, orch);
+    public static ImplicitTopologyConstructor create(String serverIp, Orchestration orch) {
+        return new ImplicitTopologyConstructor(serverIp, orch);
     }
 
 
-    public ImplicitTopologyConstructor applyJson() {
-        if (hasBeenParsed) {
-            log.info("json already applied: {}", json);
-            return this;
-        }
-
-        hasBeenParsed = true;
-
-        if (json.has(EDGE_UPDATES)) {
-            return applyEdgeUpdatesJson();
+    @Override
+    public void arrayStarted(String path) {
+        if (path.equals(ElementType.LINKS.property)) {
+            linksSnapshot = true;
         }
-
-        for (ElementType elementType : ElementType.values()) {
-            if (json.has(elementType.property)) {
-                return applyJsonWithRootProperty(elementType);
-            }
-        }
-
-        log.warn("cannot resolve the json message for implicit orchestration: {}", json);
-        return this;
     }
 
+    @Override
+    public void elementDecoded(String path, ObjectNode elementNode) {
+        switch (path) {
+            case "devices":
+                ElementType.DEVICES.applySingleElementJson(elementNode, serverIp, orch, false);
+                break;
 
-    private ImplicitTopologyConstructor applyEdgeUpdatesJson() {
-        JSONArray addedNode, deletedNode;
-        try {
-            JSONObject edgeUpdatesNode = json.getJSONObject(EDGE_UPDATES);
-            addedNode = edgeUpdatesNode.getJSONArray("added");
-            deletedNode = edgeUpdatesNode.getJSONArray("deleted");
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
-            return this;
-        }
+            case "links":
+            case "edgeUpdates/added":
+                try {
+                    snapshotLinks.add(ElementType.buildReportedLink(elementNode));
+                } catch (IllegalArgumentException e) {
+                    log.warn("exception: {}", e.toString());
+                    break;
+                }
+                ElementType.LINKS.applySingleElementJson(elementNode, serverIp, orch, false);
+                break;
 
-        int length;
+            case "edgeUpdates/deleted":
+                ElementType.LINKS.applySingleElementJson(elementNode, serverIp, orch, true);
+                break;
 
-        length = addedNode.length();
-        for (int i = 0; i < length; i++) {
-            JSONObject linkNode;
-            try {
-                linkNode = addedNode.getJSONObject(i);
-            } catch (JSONException e) {
-                log.warn("exception: {}", e.toString());
-                continue;
-            }
-            ElementType.LINKS.applySingleElementJson(linkNode, serverIp, orch, false);
-        }
+            case "hosts":
+                ElementType.HOSTS.applySingleElementJson(elementNode, serverIp, orch, false);
+                break;
 
-        length = deletedNode.length();
-        for (int i = 0; i < length; i++) {
-            JSONObject linkNode;
-            try {
-                linkNode = deletedNode.getJSONObject(i);
-            } catch (JSONException e) {
-                log.warn("exception: {}", e.toString());
-                continue;
-            }
-            ElementType.LINKS.applySingleElementJson(linkNode, serverIp, orch, true);
+            default:
+                log.warn("cannot resolve the element of {} for implicit orchestration: {}", path, elementNode);
+                break;
         }
-        return this;
     }
 
+    @Override
+    public void valueDecoded(String path, JsonNode value) {
+        switch (path) {
+            case "seq":
+            case "edgeUpdates/seq":
+                if (value.isIntegralNumber()) {
+                    seq = value.longValue();
+                }
+                break;
+
+            case "edgeUpdates/snapshot":
+                // the cursor was no longer valid for the child; added has every current link
+                linksSnapshot = value.asBoolean();
+                break;
 
-    private ImplicitTopologyConstructor applyJsonWithRootProperty(ElementType elementType) {
-        JSONArray elementsArrayNode;
-        try {
-            elementsArrayNode = json.getJSONArray(elementType.property);
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
-            return this;
+            default:
+                break;
         }
+    }
 
-        int length = elementsArrayNode.length();
-        for (int i = 0; i < length; i++) {
-            JSONObject singleElementNode;
-            try {
-                singleElementNode = elementsArrayNode.getJSONObject(i);
-            } catch (JSONException e) {
-                log.warn("exception: {}", e.toString());
-                continue;
+    @Override
+    public void decodingFinished() {
+        if (linksSnapshot) {
+            Map<DirectedLink, ObjectNode> reportedLinks = orch.getResourceTables().getReportedLinks(serverIp);
+            for (Map.Entry<DirectedLink, ObjectNode> reportedLink : reportedLinks.entrySet()) {
+                if (!snapshotLinks.contains(reportedLink.getKey())) {
+                    ElementType.LINKS.applySingleElementJson(reportedLink.getValue(), serverIp, orch, true);
+                }
             }
-            elementType.applySingleElementJson(singleElementNode, serverIp, orch, false);
         }
 
-        return this;
+        if (seq >= 0) {
+            orch.getResourceTables().putIntoEdgeUpdateCursorTable(serverIp, seq);
+        }
     }
 
 
     private enum ElementType {
 
         DEVICES("devices") {
-            void applySingleElementJson(JSONObject deviceNode, String serverIp, Orchestration orch, boolean removal) {
+            void applySingleElementJson(ObjectNode deviceNode, String serverIp, Orchestration orch, boolean removal) {
                 if (removal) {
                     return;
                 }
 
                 try {
-                    String deviceIdNode = deviceNode.getString("id");
+                    String deviceIdNode = Json.getText(deviceNode, "id");
                     DeviceId explicitDeviceId = DeviceId.deviceId(deviceIdNode);
                     DeviceId implicitDeviceId = buildImplicitDeviceId(serverIp, orch);
                     orch.getResourceTables().putIntoDeviceMappingTable(explicitDeviceId, implicitDeviceId);
                     orch.getResourceTables().putIntoDeviceOwnerTable(implicitDeviceId, serverIp);
                     orch.addDevice(implicitDeviceId);
 
-                } catch (JSONException e) {
+                } catch (IllegalArgumentException e) {
                     log.warn("exception: {}", e.toString());
                 }
             }
         },
 
         LINKS("links") {
-            void applySingleElementJson(JSONObject linkNode, String serverIp, Orchestration orch, boolean removal) {
+            void applySingleElementJson(ObjectNode linkNode, String serverIp, Orchestration orch, boolean removal) {
                 try {
-                    JSONObject srcNode = linkNode.getJSONObject("src");
-                    DeviceId srcId = DeviceId.deviceId(srcNode.getString("device"));
-                    PortNumber srcPort = PortNumber.portNumber(srcNode.getLong("port"));
+                    ObjectNode srcNode = Json.getObject(linkNode, "src");
+                    DeviceId srcId = DeviceId.deviceId(Json.getText(srcNode, "device"));
+                    PortNumber srcPort = PortNumber.portNumber(Json.getLong(srcNode, "port"));
                     ConnectPoint src = new ConnectPoint(srcId, srcPort);
 
-                    JSONObject dstNode = linkNode.getJSONObject("dst");
-                    DeviceId dstId = DeviceId.deviceId(dstNode.getString("device"));
-                    PortNumber dstPort = PortNumber.portNumber(dstNode.getLong("port"));
+                    ObjectNode dstNode = Json.getObject(linkNode, "dst");
+                    DeviceId dstId = DeviceId.deviceId(Json.getText(dstNode, "device"));
+                    PortNumber dstPort = PortNumber.portNumber(Json.getLong(dstNode, "port"));
                     ConnectPoint dst = new ConnectPoint(dstId, dstPort);
 
                     DirectedLink explicitLink = new DirectedLink(src, dst);
 
                     if (removal) {
+                        orch.getResourceTables().removeFromReportedLinkTable(serverIp, explicitLink);
+
                         UndirectedLink implicitLink = orch.getResourceTables()
                                 .getImplicitFromLinkMappingTable(explicitLink);
+                        if (implicitLink == null) {
+                            log.info("explicit link {} is not in link table", explicitLink);
+                            return;
+                        }
                         orch.getResourceTables().disconnectAndRemoveFromLinkMappingTable(explicitLink);
                         log.info("disconnect explicit-implicit link pair from link table; " +
                                 "explicit link is {} and implicit link is {}", explicitLink, implicitLink);
@@ -180,6 +182,8 @@ public class ImplicitTopologyConstructor {
                         }
 
                     } else {
+                        orch.getResourceTables().putIntoReportedLinkTable(serverIp, explicitLink, linkNode);
+
                         UndirectedLink implicitLink = orch.getResourceTables()
                                 .buildImplicitLinkAndPutIntoLinkMappingTable(explicitLink);
                         log.info("put explicit-implicit link pair into link table and add implicit link into core; " +
@@ -189,25 +193,25 @@ public class ImplicitTopologyConstructor {
                         orch.addLink(implicitLink.getDst(), implicitLink.getSrc());
                     }
 
-                } catch (JSONException e) {
+                } catch (IllegalArgumentException e) {
                     log.warn("exception: {}", e.toString());
                 }
             }
         },
 
         HOSTS("hosts") {
-            void applySingleElementJson(JSONObject hostNode, String serverIp, Orchestration orch, boolean removal) {
+            void applySingleElementJson(ObjectNode hostNode, String serverIp, Orchestration orch, boolean removal) {
                 if (removal) {
                     return;
                 }
 
                 try {
-                    MacAddress macAddress = MacAddress.valueOf(hostNode.getString("mac"));
-                    VlanId vlanId = VlanId.vlanId(hostNode.getString("vlan"));
+                    MacAddress macAddress = MacAddress.valueOf(Json.getText(hostNode, "mac"));
+                    VlanId vlanId = VlanId.vlanId(Json.getText(hostNode, "vlan"));
 
-                    JSONObject locationNode = hostNode.getJSONObject("location");
-                    DeviceId locationId = DeviceId.deviceId(locationNode.getString("elementId"));
-                    PortNumber locationPort = PortNumber.portNumber(locationNode.getLong("port"));
+                    ObjectNode locationNode = Json.getObject(hostNode, "location");
+                    DeviceId locationId = DeviceId.deviceId(Json.getText(locationNode, "elementId"));
+                    PortNumber locationPort = PortNumber.portNumber(Json.getLong(locationNode, "port"));
                     ConnectPoint explicitLocation = new ConnectPoint(locationId, locationPort);
 
                     DeviceId implicitDeviceId = ElementType.buildImplicitDeviceId(serverIp, orch);
@@ -217,7 +221,7 @@ public class ImplicitTopologyConstructor {
 
                     orch.addHost(macAddress, vlanId, implicitLocation);
 
-                } catch (JSONException e) {
+                } catch (IllegalArgumentException e) {
                     log.warn("exception: {}", e.toString());
                 }
             }
@@ -230,7 +234,18 @@ public class ImplicitTopologyConstructor {
             this.property = property;
         }
 
-        abstract void applySingleElementJson(JSONObject singleElementNode, String serverIp,
+        // a link in the coordinates of the child, which is the key of the reported link table
+        private static DirectedLink buildReportedLink(ObjectNode linkNode) {
+            ObjectNode srcNode = Json.getObject(linkNode, "src");
+            ObjectNode dstNode = Json.getObject(linkNode, "dst");
+            ConnectPoint src = new ConnectPoint(DeviceId.deviceId(Json.getText(srcNode, "device")),
+                    PortNumber.portNumber(Json.getLong(srcNode, "port")));
+            ConnectPoint dst = new ConnectPoint(DeviceId.deviceId(Json.getText(dstNode, "device")),
+                    PortNumber.portNumber(Json.getLong(dstNode, "port")));
+            return new DirectedLink(src, dst);
+        }
+
+        abstract void applySingleElementJson(ObjectNode singleElementNode, String serverIp,
                                              Orchestration orch, boolean removal);
 
         private static DeviceId buildImplicitDeviceId(String serverIp, Orchestration orch) {
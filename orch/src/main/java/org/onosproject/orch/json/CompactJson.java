@@ -0,0 +1,466 @@
+package org.onosproject.orch.json;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+
+// a binary form of the same json trees between controllers which both have it, negotiated by Accept and
+// Content-Type; json stays the default. a document is a version byte and the tokens of the tree in order,
+// each one a tag byte and its value. names and short strings such as device ids are sent once and referred to
+// by their index afterwards, in a table that both sides build the same way while the tokens pass,
+// and integers are zigzag varints instead of digits
+public final class CompactJson {
+
+    public static final String MEDIA_TYPE = "application/x-orch-compact";
+
+    private static final int VERSION = 1;
+
+    private static final int START_OBJECT = 0x01;
+    private static final int END_OBJECT = 0x02;
+    private static final int START_ARRAY = 0x03;
+    private static final int END_ARRAY = 0x04;
+    private static final int NAME = 0x05; // length, utf-8
+    private static final int NAME_REF = 0x06; // index in the table
+    private static final int STRING = 0x07; // length, utf-8
+    private static final int STRING_REF = 0x08; // index in the table
+    private static final int INT = 0x09; // zigzag varint
+    private static final int DOUBLE = 0x0a; // 8 bytes, big endian
+    private static final int TRUE = 0x0b;
+    private static final int FALSE = 0x0c;
+    private static final int NULL = 0x0d;
+
+    // a string is added to the table if it is this short and the table is not full yet
+    private static final int MAX_INTERNED_LENGTH = 64; // bytes
+    private static final int MAX_TABLE_SIZE = 65536;
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+
+    private CompactJson() {
+    }
+
+
+    public static byte[] encode(JsonNode node) {
+        Encoder encoder = new Encoder();
+        encoder.tree(node);
+        return encoder.toByteArray();
+    }
+
+    public static ObjectNode decodeObject(byte[] bytes) throws IOException {
+        Parser parser = new Parser();
+        parser.feed(bytes, 0, bytes.length);
+        parser.endOfInput();
+
+        ArrayDeque<ContainerNode<?>> containers = new ArrayDeque<>();
+        ObjectNode root = null;
+        String fieldName = null;
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            ContainerNode<?> parent = containers.peekLast();
+            if (parent == null && (root != null || token != JsonToken.START_OBJECT)) {
+                throw new IOException("not a compact json object");
+            }
+
+            switch (token) {
+                case FIELD_NAME:
+                    fieldName = parser.getCurrentName();
+                    break;
+
+                case START_OBJECT:
+                    ObjectNode object = NODES.objectNode();
+                    if (parent == null) {
+                        root = object;
+                    } else {
+                        add(parent, fieldName, object);
+                    }
+                    containers.addLast(object);
+                    break;
+
+                case START_ARRAY:
+                    ArrayNode array = NODES.arrayNode();
+                    add(parent, fieldName, array);
+                    containers.addLast(array);
+                    break;
+
+                case END_OBJECT:
+                case END_ARRAY:
+                    containers.pollLast();
+                    break;
+
+                default:
+                    add(parent, fieldName, parser.getValue(token));
+                    break;
+            }
+        }
+
+        if (root == null || !containers.isEmpty()) {
+            throw new IOException("compact json ended before it is closed");
+        }
+        return root;
+    }
+
+    private static void add(ContainerNode<?> parent, String name, JsonNode value) {
+        if (parent.isObject()) {
+            ((ObjectNode) parent).set(name, value);
+        } else {
+            ((ArrayNode) parent).add(value);
+        }
+    }
+
+    private static boolean isInterned(int length, int tableSize) {
+        return length <= MAX_INTERNED_LENGTH && tableSize < MAX_TABLE_SIZE;
+    }
+
+
+    // tokens written in order, such as the wrapper of elements encoded one by one
+    public static final class Encoder {
+
+        private byte[] buffer = new byte[256];
+        private int length = 0;
+
+        private final Map<String, Integer> table = new HashMap<>();
+
+
+        public Encoder() {
+            write(VERSION);
+        }
+
+
+        public void startObject() {
+            write(START_OBJECT);
+        }
+
+        public void endObject() {
+            write(END_OBJECT);
+        }
+
+        public void startArray() {
+            write(START_ARRAY);
+        }
+
+        public void endArray() {
+            write(END_ARRAY);
+        }
+
+        public void name(String name) {
+            string(NAME, NAME_REF, name);
+        }
+
+        public void number(long value) {
+            write(INT);
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        public void tree(JsonNode node) {
+            if (node.isObject()) {
+                startObject();
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    name(field.getKey());
+                    tree(field.getValue());
+                }
+                endObject();
+
+            } else if (node.isArray()) {
+                startArray();
+                for (JsonNode element : node) {
+                    tree(element);
+                }
+                endArray();
+
+            } else if (node.isIntegralNumber() && node.canConvertToLong()) {
+                number(node.longValue());
+
+            } else if (node.isNumber()) {
+                write(DOUBLE);
+                long bits = Double.doubleToLongBits(node.doubleValue());
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    write((int) (bits >>> shift));
+                }
+
+            } else if (node.isBoolean()) {
+                write(node.booleanValue() ? TRUE : FALSE);
+
+            } else if (node.isNull() || node.isMissingNode()) {
+                write(NULL);
+
+            } else {
+                string(STRING, STRING_REF, node.asText());
+            }
+        }
+
+        public byte[] toByteArray() {
+            return Arrays.copyOf(buffer, length);
+        }
+
+
+        private void string(int tag, int refTag, String value) {
+            Integer index = table.get(value);
+            if (index != null) {
+                write(refTag);
+                writeVarint(index);
+                return;
+            }
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            write(tag);
+            writeVarint(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+
+            if (isInterned(bytes.length, table.size())) {
+                table.put(value, table.size());
+            }
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7fL) != 0) {
+                write((int) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        private void write(int b) {
+            ensureCapacity(1);
+            buffer[length++] = (byte) b;
+        }
+
+        private void ensureCapacity(int more) {
+            if (length + more > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + more));
+            }
+        }
+
+    }
+
+
+    // tokens of a document while its chunks arrive, as the non-blocking parser of jackson gives them
+    public static final class Parser {
+
+        private byte[] buffer = new byte[256];
+        private int start = 0; // of the next token
+        private int end = 0;
+        private boolean ended = false;
+        private boolean versionRead = false;
+
+        private final List<String> table = new ArrayList<>();
+
+        private int position; // while reading a token
+        private boolean truncated; // the token is not complete in the buffer
+
+        private String currentName;
+        private String text;
+        private long longValue;
+        private double doubleValue;
+
+
+        // bytes are copied; the caller may reuse them
+        public void feed(byte[] bytes, int offset, int length) {
+            if (end + length > buffer.length) {
+                int remaining = end - start;
+                if (remaining + length > buffer.length) {
+                    byte[] grown = new byte[Math.max(buffer.length * 2, remaining + length)];
+                    System.arraycopy(buffer, start, grown, 0, remaining);
+                    buffer = grown;
+                } else {
+                    System.arraycopy(buffer, start, buffer, 0, remaining);
+                }
+                start = 0;
+                end = remaining;
+            }
+            System.arraycopy(bytes, offset, buffer, end, length);
+            end += length;
+        }
+
+        public void endOfInput() {
+            ended = true;
+        }
+
+        // JsonToken.NOT_AVAILABLE until more bytes are fed, null at the end of the input
+        public JsonToken nextToken() throws IOException {
+            position = start;
+            truncated = false;
+
+            if (!versionRead) {
+                int version = readByte();
+                if (truncated) {
+                    return incomplete();
+                }
+                if (version != VERSION) {
+                    throw new IOException("unknown version of compact json: " + version);
+                }
+                versionRead = true;
+                start = position;
+            }
+
+            if (position == end) {
+                return ended ? null : JsonToken.NOT_AVAILABLE;
+            }
+
+            JsonToken token = readToken(readByte());
+            if (truncated) {
+                return incomplete();
+            }
+            start = position;
+            return token;
+        }
+
+        // of the last FIELD_NAME
+        public String getCurrentName() {
+            return currentName;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public long getLongValue() {
+            return longValue;
+        }
+
+        public double getDoubleValue() {
+            return doubleValue;
+        }
+
+
+        private JsonToken incomplete() throws IOException {
+            if (ended) {
+                throw new IOException("compact json ended in the middle of a token");
+            }
+            return JsonToken.NOT_AVAILABLE;
+        }
+
+        private JsonToken readToken(int tag) throws IOException {
+            switch (tag) {
+                case START_OBJECT:
+                    return JsonToken.START_OBJECT;
+                case END_OBJECT:
+                    return JsonToken.END_OBJECT;
+                case START_ARRAY:
+                    return JsonToken.START_ARRAY;
+                case END_ARRAY:
+                    return JsonToken.END_ARRAY;
+
+                case NAME:
+                case NAME_REF:
+                    currentName = readString(tag == NAME_REF);
+                    return JsonToken.FIELD_NAME;
+
+                case STRING:
+                case STRING_REF:
+                    text = readString(tag == STRING_REF);
+                    return JsonToken.VALUE_STRING;
+
+                case INT:
+                    long zigzag = readVarint();
+                    longValue = (zigzag >>> 1) ^ -(zigzag & 1);
+                    return JsonToken.VALUE_NUMBER_INT;
+
+                case DOUBLE:
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        bits = (bits << 8) | readByte();
+                    }
+                    doubleValue = Double.longBitsToDouble(bits);
+                    return JsonToken.VALUE_NUMBER_FLOAT;
+
+                case TRUE:
+                    return JsonToken.VALUE_TRUE;
+                case FALSE:
+                    return JsonToken.VALUE_FALSE;
+                case NULL:
+                    return JsonToken.VALUE_NULL;
+
+                default:
+                    throw new IOException("unknown tag of compact json: " + tag);
+            }
+        }
+
+        // read and added to the table only once the whole token has arrived
+        private String readString(boolean ref) throws IOException {
+            long value = readVarint();
+            if (truncated) {
+                return null;
+            }
+
+            if (ref) {
+                if (value >= table.size()) {
+                    throw new IOException("unknown string of compact json: " + value);
+                }
+                return table.get((int) value);
+            }
+
+            if (value > end - position) {
+                truncated = true;
+                return null;
+            }
+            int length = (int) value;
+            String string = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+
+            if (isInterned(length, table.size())) {
+                table.add(string);
+            }
+            return string;
+        }
+
+        private long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                if (truncated) {
+                    return 0;
+                }
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("varint of compact json is too long");
+        }
+
+        private int readByte() {
+            if (position == end) {
+                truncated = true;
+                return 0;
+            }
+            return buffer[position++] & 0xff;
+        }
+
+        private JsonNode getValue(JsonToken token) {
+            switch (token) {
+                case VALUE_STRING:
+                    return NODES.textNode(text);
+                case VALUE_NUMBER_INT:
+                    return NODES.numberNode(longValue);
+                case VALUE_NUMBER_FLOAT:
+                    return NODES.numberNode(doubleValue);
+                case VALUE_TRUE:
+                    return NODES.booleanNode(true);
+                case VALUE_FALSE:
+                    return NODES.booleanNode(false);
+                default:
+                    return NODES.nullNode();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,99 @@
+package org.onosproject.orch.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+
+// the only json library of the bundle is jackson, which is also the one of the codecs of onos.
+// getters of required fields throw IllegalArgumentException, as the factories of onos identifiers do
+public final class Json {
+
+    // thread-safe and shared by every encoder and decoder
+    public static final ObjectMapper MAPPER = new ObjectMapper();
+
+
+    private Json() {
+    }
+
+
+    public static ObjectNode objectNode() {
+        return MAPPER.createObjectNode();
+    }
+
+    public static ArrayNode arrayNode() {
+        return MAPPER.createArrayNode();
+    }
+
+
+    public static byte[] encode(JsonNode node) {
+        try {
+            return MAPPER.writeValueAsBytes(node);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e); // never for a tree of nodes
+        }
+    }
+
+    public static String encodeToString(JsonNode node) {
+        try {
+            return MAPPER.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e); // never for a tree of nodes
+        }
+    }
+
+    public static ObjectNode decodeObject(String text) throws IOException {
+        JsonNode node = MAPPER.readTree(text);
+        if (node == null || !node.isObject()) {
+            throw new IOException("not a json object: " + text);
+        }
+        return (ObjectNode) node;
+    }
+
+
+    public static ObjectNode getObject(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || !value.isObject()) {
+            throw new IllegalArgumentException("\"" + field + "\" is not an object: " + node);
+        }
+        return (ObjectNode) value;
+    }
+
+    public static ArrayNode getArray(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || !value.isArray()) {
+            throw new IllegalArgumentException("\"" + field + "\" is not an array: " + node);
+        }
+        return (ArrayNode) value;
+    }
+
+    public static String getText(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || !value.isValueNode() || value.isNull()) {
+            throw new IllegalArgumentException("\"" + field + "\" is not a value: " + node);
+        }
+        return value.asText();
+    }
+
+    // a number, or a string of a number such as ports of onos
+    public static long getLong(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value != null && value.isIntegralNumber()) {
+            return value.longValue();
+        }
+        if (value != null && value.isTextual()) {
+            try {
+                return Long.parseLong(value.textValue());
+            } catch (NumberFormatException e) {
+                // falls through
+            }
+        }
+        throw new IllegalArgumentException("\"" + field + "\" is not a long: " + node);
+    }
+
+}
@@ -0,0 +1,214 @@
+package org.onosproject.orch.metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+
+// counters, histograms and gauges with labels, written in the text format of prometheus.
+// recording is lock-free; a series is created on the first value of its labels
+public class MetricsRegistry {
+
+    private final List<Metric> metrics;
+
+
+    public MetricsRegistry() {
+        metrics = new CopyOnWriteArrayList<>();
+    }
+
+
+    public Counter counter(String name, String help, String... labelNames) {
+        Counter counter = new Counter(name, help, labelNames);
+        metrics.add(counter);
+        return counter;
+    }
+
+    // buckets are upper bounds in seconds, in increasing order
+    public Histogram histogram(String name, String help, double[] buckets, String... labelNames) {
+        Histogram histogram = new Histogram(name, help, buckets, labelNames);
+        metrics.add(histogram);
+        return histogram;
+    }
+
+    // values are read when scraped, one series per key of the map
+    public void gauge(String name, String help, String labelName, Supplier<Map<String, ? extends Number>> values) {
+        metrics.add(new Gauge(name, help, labelName, values));
+    }
+
+
+    public String scrape() {
+        StringBuilder sb = new StringBuilder();
+        for (Metric metric : metrics) {
+            sb.append("# HELP ").append(metric.name).append(' ').append(metric.help).append('\n');
+            sb.append("# TYPE ").append(metric.name).append(' ').append(metric.type).append('\n');
+            metric.write(sb);
+        }
+        return sb.toString();
+    }
+
+
+    abstract static class Metric {
+        final String name;
+        final String help;
+        final String type;
+        final String[] labelNames;
+
+        Metric(String name, String help, String type, String[] labelNames) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.labelNames = labelNames;
+        }
+
+        abstract void write(StringBuilder sb);
+
+        List<String> key(String[] labelValues) {
+            if (labelValues.length != labelNames.length) {
+                throw new IllegalArgumentException(name + " has labels " + Arrays.toString(labelNames));
+            }
+            return Collections.unmodifiableList(Arrays.asList(labelValues.clone()));
+        }
+
+        // {a="x",b="y"} with an extra label such as le of the buckets; nothing without labels
+        void writeLabels(StringBuilder sb, List<String> labelValues, String extraName, String extraValue) {
+            if (labelValues.isEmpty() && extraName == null) {
+                return;
+            }
+            sb.append('{');
+            for (int i = 0; i < labelValues.size(); i++) {
+                appendLabel(sb, i > 0, labelNames[i], labelValues.get(i));
+            }
+            if (extraName != null) {
+                appendLabel(sb, !labelValues.isEmpty(), extraName, extraValue);
+            }
+            sb.append('}');
+        }
+
+        static void appendLabel(StringBuilder sb, boolean comma, String name, String value) {
+            if (comma) {
+                sb.append(',');
+            }
+            sb.append(name).append("=\"");
+            String v = String.valueOf(value);
+            for (int i = 0; i < v.length(); i++) {
+                char c = v.charAt(i);
+                if (c == '\\' || c == '"') {
+                    sb.append('\\').append(c);
+                } else if (c == '\n') {
+                    sb.append("\\n");
+                } else {
+                    sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+    }
+
+
+    public static class Counter extends Metric {
+        private final ConcurrentHashMap<List<String>, LongAdder> series = new ConcurrentHashMap<>();
+
+        private Counter(String name, String help, String[] labelNames) {
+            super(name, help, "counter", labelNames);
+        }
+
+        public void inc(String... labelValues) {
+            add(1, labelValues);
+        }
+
+        public void add(long amount, String... labelValues) {
+            series.computeIfAbsent(key(labelValues), k -> new LongAdder()).add(amount);
+        }
+
+        @Override
+        void write(StringBuilder sb) {
+            for (Map.Entry<List<String>, LongAdder> s : series.entrySet()) {
+                sb.append(name);
+                writeLabels(sb, s.getKey(), null, null);
+                sb.append(' ').append(s.getValue().sum()).append('\n');
+            }
+        }
+    }
+
+
+    public static class Histogram extends Metric {
+        private final double[] buckets;
+        private final ConcurrentHashMap<List<String>, Series> series = new ConcurrentHashMap<>();
+
+        private Histogram(String name, String help, double[] buckets, String[] labelNames) {
+            super(name, help, "histogram", labelNames);
+            this.buckets = buckets.clone();
+        }
+
+        public void observeNanos(long nanos, String... labelValues) {
+            observe(nanos / 1e9, labelValues);
+        }
+
+        public void observe(double seconds, String... labelValues) {
+            Series s = series.computeIfAbsent(key(labelValues), k -> new Series(buckets.length));
+            int i = 0;
+            while (i < buckets.length && seconds > buckets[i]) {
+                i++;
+            }
+            s.counts.incrementAndGet(i); // the last one is +Inf
+            s.sum.add(seconds);
+        }
+
+        @Override
+        void write(StringBuilder sb) {
+            for (Map.Entry<List<String>, Series> s : series.entrySet()) {
+                // buckets of prometheus are cumulative
+                long cumulative = 0;
+                for (int i = 0; i <= buckets.length; i++) {
+                    cumulative += s.getValue().counts.get(i);
+                    sb.append(name).append("_bucket");
+                    writeLabels(sb, s.getKey(), "le", (i < buckets.length) ? Double.toString(buckets[i]) : "+Inf");
+                    sb.append(' ').append(cumulative).append('\n');
+                }
+                sb.append(name).append("_sum");
+                writeLabels(sb, s.getKey(), null, null);
+                sb.append(' ').append(s.getValue().sum.sum()).append('\n');
+                sb.append(name).append("_count");
+                writeLabels(sb, s.getKey(), null, null);
+                sb.append(' ').append(cumulative).append('\n');
+            }
+        }
+
+        private static class Series {
+            private final AtomicLongArray counts;
+            private final DoubleAdder sum;
+
+            private Series(int buckets) {
+                counts = new AtomicLongArray(buckets + 1);
+                sum = new DoubleAdder();
+            }
+        }
+    }
+
+
+    private static class Gauge extends Metric {
+        private final Supplier<Map<String, ? extends Number>> values;
+
+        private Gauge(String name, String help, String labelName, Supplier<Map<String, ? extends Number>> values) {
+            super(name, help, "gauge", new String[] {labelName});
+            this.values = values;
+        }
+
+        @Override
+        void write(StringBuilder sb) {
+            for (Map.Entry<String, ? extends Number> value : values.get().entrySet()) {
+                sb.append(name);
+                writeLabels(sb, Collections.singletonList(value.getKey()), null, null);
+                sb.append(' ').append(value.getValue()).append('\n');
+            }
+        }
+    }
+
+}
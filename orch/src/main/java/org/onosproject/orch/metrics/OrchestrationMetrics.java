@@ -0,0 +1,107 @@
+package org.onosproject.orch.metrics;
+
+import org.onosproject.orch.monitor.ResourceTables;
+import org.onosproject.orch.monitor.TopologyInformation;
+
+
+// metrics of the hot paths of the orchestration, served by GET /metrics; times in seconds
+public class OrchestrationMetrics {
+
+    // from a conditional GET answered on the event loop to a provisioning through several levels of children
+    private static final double[] LATENCY_BUCKETS = {
+            0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30,
+    };
+
+    private static final String LOCAL_DOMAIN = "local"; // segments on the physical devices of this controller
+
+
+    private final MetricsRegistry registry;
+
+    private final MetricsRegistry.Counter restRequests;
+    private final MetricsRegistry.Histogram restRequestDuration;
+
+    private final MetricsRegistry.Counter childRequests;
+    private final MetricsRegistry.Histogram childRequestDuration;
+
+    private final MetricsRegistry.Histogram discoveryDuration;
+    private final MetricsRegistry.Histogram edgeUpdateCycleDuration;
+
+    private final MetricsRegistry.Histogram provisioningDuration;
+    private final MetricsRegistry.Histogram provisioningSegmentDuration;
+    private final MetricsRegistry.Counter flowRules;
+
+
+    public OrchestrationMetrics(ResourceTables res, TopologyInformation info) {
+        registry = new MetricsRegistry();
+
+        restRequests = registry.counter("orch_rest_requests_total",
+                "Requests answered by the REST server.", "method", "uri", "status");
+        restRequestDuration = registry.histogram("orch_rest_request_duration_seconds",
+                "Time from the end of a request to its response.", LATENCY_BUCKETS, "method", "uri");
+
+        childRequests = registry.counter("orch_child_requests_total",
+                "Requests sent to children, by result: ok, status (error status) or failure.",
+                "child", "uri", "result");
+        childRequestDuration = registry.histogram("orch_child_request_duration_seconds",
+                "Time from a request to a child to its response applied, with the wait for a connection.",
+                LATENCY_BUCKETS, "child");
+
+        discoveryDuration = registry.histogram("orch_discovery_duration_seconds",
+                "Time of topology discovery of devices, links and hosts of new children.", LATENCY_BUCKETS);
+        edgeUpdateCycleDuration = registry.histogram("orch_edge_update_cycle_duration_seconds",
+                "Time until every child polled in a cycle of fault monitoring has answered.", LATENCY_BUCKETS);
+
+        provisioningDuration = registry.histogram("orch_provisioning_duration_seconds",
+                "Time until flow rules of a provisioning are installed in both directions.", LATENCY_BUCKETS,
+                "result");
+        provisioningSegmentDuration = registry.histogram("orch_provisioning_segment_duration_seconds",
+                "Time until a segment of a provisioning is installed, by the child of the segment or local.",
+                LATENCY_BUCKETS, "domain", "result");
+        flowRules = registry.counter("orch_flow_rules_total",
+                "Flow rules applied to the physical devices of this controller.", "result");
+
+        registry.gauge("orch_resource_table_entries",
+                "Entries of the resource tables.", "table", res::getTableSizes);
+        registry.gauge("orch_topology_elements",
+                "Elements of the topology served to the parent.", "view", info::getSizes);
+    }
+
+
+    public String scrape() {
+        return registry.scrape();
+    }
+
+
+    public void observeRestRequest(String method, String uri, int status, long nanos) {
+        restRequests.inc(method, uri, Integer.toString(status));
+        restRequestDuration.observeNanos(nanos, method, uri);
+    }
+
+    public void observeChildRequest(String child, String uri, String result, long nanos) {
+        childRequests.inc(child, uri, result);
+        childRequestDuration.observeNanos(nanos, child);
+    }
+
+    public void observeDiscovery(long nanos) {
+        discoveryDuration.observeNanos(nanos);
+    }
+
+    public void observeEdgeUpdateCycle(long nanos) {
+        edgeUpdateCycleDuration.observeNanos(nanos);
+    }
+
+    public void observeProvisioning(boolean success, long nanos) {
+        provisioningDuration.observeNanos(nanos, success ? "success" : "failure");
+    }
+
+    // domain is null for the physical devices of this controller
+    public void observeProvisioningSegment(String domain, boolean success, long nanos) {
+        provisioningSegmentDuration.observeNanos(nanos,
+                (domain == null) ? LOCAL_DOMAIN : domain, success ? "success" : "failure");
+    }
+
+    public void countFlowRules(boolean success, int count) {
+        flowRules.add(count, success ? "applied" : "failed");
+    }
+
+}
@@ -1,13 +1,13 @@
 package org.onosproject.orch.monitor;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.onosproject.net.Annotations;
 import org.onosproject.net.Device;
 import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.json.Json;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,8 +34,8 @@ public class DeviceEventListener implements DeviceListener {
         switch (event.type()) {
             case DEVICE_ADDED:
                 log.info("A device is added! id is {}", device.id());
-                JSONObject explicitDeviceJson = buildExplicitDeviceJson(device);
-                JSONObject summaryDeviceJson = buildSummaryDeviceJson(device);
+                ObjectNode explicitDeviceJson = buildExplicitDeviceJson(device);
+                ObjectNode summaryDeviceJson = buildSummaryDeviceJson(device);
                 info.putDevice(device.id(), explicitDeviceJson, summaryDeviceJson);
                 break;
 
@@ -50,47 +50,33 @@ public class DeviceEventListener implements DeviceListener {
     }
 
 
-    private JSONObject buildExplicitDeviceJson(Device device) {
-        JSONObject root = buildSummaryDeviceJson(device);
-
-        try {
-            // additional properties for explicit devices
-            root.put("type", device.type().toString());
-            root.put("available", deviceService.isAvailable(device.id()));
-            root.put("role", deviceService.getRole(device.id()).name());
-            root.put("mfr", device.manufacturer());
-            root.put("hw", device.hwVersion());
-            root.put("sw", device.swVersion());
-            root.put("serial", device.serialNumber());
-            root.put("chassisId", device.chassisId().toString());
-
-            JSONObject annotationsNode = new JSONObject();
-            Annotations annotations = device.annotations();
-            for (String key : annotations.keys()) {
-                annotationsNode.put(key, annotations.value(key));
-            }
-            root.put("annotations", annotationsNode);
-
-            return root;
-
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
-            return new JSONObject(); // empty json object
-        }
-    }
+    private ObjectNode buildExplicitDeviceJson(Device device) {
+        ObjectNode root = buildSummaryDeviceJson(device);
+
+        // additional properties for explicit devices
+        root.put("type", device.type().toString());
+        root.put("available", deviceService.isAvailable(device.id()));
+        root.put("role", deviceService.getRole(device.id()).name());
+        root.put("mfr", device.manufacturer());
+        root.put("hw", device.hwVersion());
+        root.put("sw", device.swVersion());
+        root.put("serial", device.serialNumber());
+        root.put("chassisId", device.chassisId().toString());
 
+        ObjectNode annotationsNode = root.putObject("annotations");
+        Annotations annotations = device.annotations();
+        for (String key : annotations.keys()) {
+            annotationsNode.put(key, annotations.value(key));
+        }
 
-    private JSONObject buildSummaryDeviceJson(Device device) {
-        JSONObject root = new JSONObject();
+        return root;
+    }
 
-        try {
-            root.put("id", device.id().toString());
-            return root;
 
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
-            return new JSONObject(); // empty json object
-        }
+    private ObjectNode buildSummaryDeviceJson(Device device) {
+        ObjectNode root = Json.objectNode();
+        root.put("id", device.id().toString());
+        return root;
     }
 
 }
@@ -0,0 +1,161 @@
+package org.onosproject.orch.monitor;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onosproject.orch.json.CompactJson;
+import org.onosproject.orch.json.Json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+
+// elements of a view kept already encoded, and the whole document {"<property>":[...]} encoded on demand.
+// the document is immutable and shared by readers until the next change of the view; the first read after
+// a change copies every element again, so it costs O(n) in the size of the view, and later reads cost nothing.
+// the compact form of the document is encoded from the trees of the owner only when a reader asks for it
+public class EncodedView<K> {
+
+    private final String property;
+    private final byte[] header;
+    private final LongSupplier seqSupplier; // appends "seq" to the document if not null
+
+    private final ConcurrentHashMap<K, byte[]> elements;
+    private final Map<K, ObjectNode> trees; // the map of the owner, which puts an element there before here
+
+    private final long epoch; // tells generations of another run apart
+    private final AtomicLong generation;
+    private volatile Snapshot snapshot;
+    private volatile Snapshot compactSnapshot;
+
+
+    public EncodedView(String property, LongSupplier seqSupplier, Map<K, ObjectNode> trees) {
+        this.property = property;
+        this.header = ("{\"" + property + "\":[").getBytes(StandardCharsets.UTF_8);
+        this.seqSupplier = seqSupplier;
+        this.trees = trees;
+
+        elements = new ConcurrentHashMap<>();
+
+        epoch = System.currentTimeMillis();
+        generation = new AtomicLong(0);
+        snapshot = null;
+        compactSnapshot = null;
+    }
+
+
+    public void put(K key, ObjectNode json) {
+        elements.put(key, Json.encode(json));
+        generation.incrementAndGet();
+    }
+
+    public void remove(K key) {
+        if (elements.remove(key) != null) {
+            generation.incrementAndGet();
+        }
+    }
+
+    // changed whenever an element is put or removed
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    // entity tag of the current generation
+    public String getEntityTag() {
+        return "\"" + Long.toHexString(epoch) + "-" + Long.toHexString(generation.get()) + "\"";
+    }
+
+
+    public byte[] getDocument() {
+        Snapshot current = snapshot;
+        long currentGeneration = generation.get();
+        if (current != null && current.generation == currentGeneration) {
+            return current.document;
+        }
+
+        // a change during encoding makes the generation differ, so the next reader encodes again
+        current = new Snapshot(currentGeneration, encode());
+        snapshot = current;
+        return current.document;
+    }
+
+    // the same document in the form of CompactJson
+    public byte[] getCompactDocument() {
+        Snapshot current = compactSnapshot;
+        long currentGeneration = generation.get();
+        if (current != null && current.generation == currentGeneration) {
+            return current.document;
+        }
+
+        current = new Snapshot(currentGeneration, encodeCompact());
+        compactSnapshot = current;
+        return current.document;
+    }
+
+    private byte[] encodeCompact() {
+        // read before the elements, as the one of the json document
+        Long seq = (seqSupplier == null) ? null : seqSupplier.getAsLong();
+
+        CompactJson.Encoder encoder = new CompactJson.Encoder();
+        encoder.startObject();
+        encoder.name(property);
+        encoder.startArray();
+        for (ObjectNode json : trees.values()) {
+            encoder.tree(json);
+        }
+        encoder.endArray();
+        if (seq != null) {
+            encoder.name("seq");
+            encoder.number(seq);
+        }
+        encoder.endObject();
+
+        return encoder.toByteArray();
+    }
+
+    private byte[] encode() {
+        byte[] trailer;
+        if (seqSupplier == null) {
+            trailer = "]}".getBytes(StandardCharsets.UTF_8);
+        } else {
+            // read before the elements; changes after it are replayed on top of the document
+            trailer = ("],\"seq\":" + seqSupplier.getAsLong() + "}").getBytes(StandardCharsets.UTF_8);
+        }
+
+        // values may change while being copied; encode what is seen at the time
+        byte[][] encodedElements = elements.values().toArray(new byte[0][]);
+
+        int length = header.length + trailer.length + Math.max(0, encodedElements.length - 1);
+        for (byte[] element : encodedElements) {
+            length += element.length;
+        }
+
+        byte[] document = new byte[length];
+        int offset = 0;
+        System.arraycopy(header, 0, document, offset, header.length);
+        offset += header.length;
+        for (int i = 0; i < encodedElements.length; i++) {
+            if (i > 0) {
+                document[offset++] = ',';
+            }
+            System.arraycopy(encodedElements[i], 0, document, offset, encodedElements[i].length);
+            offset += encodedElements[i].length;
+        }
+        System.arraycopy(trailer, 0, document, offset, trailer.length);
+
+        return document;
+    }
+
+
+    private static class Snapshot {
+        private final long generation;
+        private final byte[] document;
+
+        private Snapshot(long generation, byte[] document) {
+            this.generation = generation;
+            this.document = document;
+        }
+    }
+
+}
@@ -1,13 +1,14 @@
 package org.onosproject.orch.monitor;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onlab.packet.IpAddress;
 import org.onosproject.net.Host;
 import org.onosproject.net.host.HostEvent;
 import org.onosproject.net.host.HostListener;
 import org.onosproject.net.host.HostService;
 import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.json.Json;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,7 +35,7 @@ public class HostEventListener implements HostListener {
         switch (event.type()) {
             case HOST_ADDED:
                 log.info("A host is added! id is {}, and location is {}", host.id(), host.location());
-                JSONObject hostJson = buildHostJson(host);
+                ObjectNode hostJson = buildHostJson(host);
                 info.putHost(host.id(), hostJson);
                 break;
 
@@ -49,28 +50,23 @@ public class HostEventListener implements HostListener {
     }
 
 
-    private JSONObject buildHostJson(Host host) {
-        JSONObject root = new JSONObject();
+    private ObjectNode buildHostJson(Host host) {
+        ObjectNode root = Json.objectNode();
 
-        try {
-            root.put("id", host.id().toString());
-            root.put("mac", host.mac().toString());
-            root.put("vlan", host.vlan().toString());
+        root.put("id", host.id().toString());
+        root.put("mac", host.mac().toString());
+        root.put("vlan", host.vlan().toString());
 
-            JSONArray ipAddressNode = new JSONArray(host.ipAddresses());
-            root.put("ipAddress", ipAddressNode);
-
-            JSONObject locationNode = new JSONObject();
-            locationNode.put("elementId", host.location().elementId());
-            locationNode.put("port", host.location().port());
-            root.put("location", locationNode);
+        ArrayNode ipAddressNode = root.putArray("ipAddress");
+        for (IpAddress ipAddress : host.ipAddresses()) {
+            ipAddressNode.add(ipAddress.toString());
+        }
 
-            return root;
+        ObjectNode locationNode = root.putObject("location");
+        locationNode.put("elementId", host.location().elementId().toString());
+        locationNode.put("port", host.location().port().toString());
 
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
-            return new JSONObject(); // empty json object
-        }
+        return root;
     }
 
 }
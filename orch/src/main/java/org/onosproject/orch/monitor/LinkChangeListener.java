@@ -0,0 +1,8 @@
+package org.onosproject.orch.monitor;
+
+
+public interface LinkChangeListener {
+
+    void linkChanged(LinkChangeLog.Entry change);
+
+}
@@ -0,0 +1,135 @@
+package org.onosproject.orch.monitor;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onosproject.orch.adt.elem.DirectedLink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+
+// append-only, sequence-numbered log of link changes, bounded by capacity.
+// a cursor is the sequence number of the last change a reader has applied
+public class LinkChangeLog {
+
+    private final int capacity;
+
+    private final ArrayDeque<Entry> entries;
+
+    private long lastSeq;
+    private long oldestValidCursor; // changes up to this one may have been evicted
+
+
+    public LinkChangeLog(int capacity) {
+        this.capacity = capacity;
+        entries = new ArrayDeque<>();
+
+        // start from the current time, so that cursors issued before a restart are older than every valid one
+        lastSeq = System.currentTimeMillis() * 1000;
+        oldestValidCursor = lastSeq;
+    }
+
+
+    public synchronized Entry append(DirectedLink link, boolean removal,
+                                     ObjectNode explicitJson, ObjectNode summaryJson, ObjectNode implicitJson) {
+        if (entries.size() >= capacity) {
+            compact();
+        }
+
+        Entry entry = new Entry(++lastSeq, link, removal, explicitJson, summaryJson, implicitJson);
+        entries.addLast(entry);
+        return entry;
+    }
+
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    public synchronized boolean isValidCursor(long cursor) {
+        return cursor >= oldestValidCursor && cursor <= lastSeq;
+    }
+
+    // latest change of each link after the cursor in order of sequence,
+    // or null if some changes after the cursor have been evicted
+    public synchronized Collection<Entry> getNetChangesSince(long cursor) {
+        if (!isValidCursor(cursor)) {
+            return null;
+        }
+
+        LinkedHashMap<DirectedLink, Entry> netChanges = new LinkedHashMap<>();
+        for (Entry entry : getChangesSince(cursor)) {
+            netChanges.remove(entry.link); // keep the order of the latest change
+            netChanges.put(entry.link, entry);
+        }
+        return netChanges.values();
+    }
+
+    // every change after the cursor in order of sequence, or null if some of them have been evicted
+    public synchronized List<Entry> getChangesSince(long cursor) {
+        if (!isValidCursor(cursor)) {
+            return null;
+        }
+
+        ArrayList<Entry> changes = new ArrayList<>();
+        Iterator<Entry> it = entries.descendingIterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.seq <= cursor) {
+                break;
+            }
+            changes.add(entry);
+        }
+        Collections.reverse(changes);
+        return changes;
+    }
+
+
+    // drop changes superseded by a later change of the same link, which keeps every cursor valid.
+    // if it is not enough, evict the oldest quarter and invalidate cursors before them
+    private void compact() {
+        Set<DirectedLink> seen = new HashSet<>();
+        ArrayDeque<Entry> compacted = new ArrayDeque<>();
+        Iterator<Entry> it = entries.descendingIterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (seen.add(entry.link)) {
+                compacted.addFirst(entry);
+            }
+        }
+        entries.clear();
+        entries.addAll(compacted);
+
+        int threshold = capacity - capacity / 4;
+        while (entries.size() > threshold) {
+            oldestValidCursor = entries.pollFirst().seq;
+        }
+    }
+
+
+    public static class Entry {
+        public final long seq;
+        public final DirectedLink link;
+        public final boolean removal;
+
+        public final ObjectNode explicitJson;
+        public final ObjectNode summaryJson;
+        public final ObjectNode implicitJson; // null if the link is not an interlink
+
+        private Entry(long seq, DirectedLink link, boolean removal,
+                      ObjectNode explicitJson, ObjectNode summaryJson, ObjectNode implicitJson) {
+            this.seq = seq;
+            this.link = link;
+            this.removal = removal;
+            this.explicitJson = explicitJson;
+            this.summaryJson = summaryJson;
+            this.implicitJson = implicitJson;
+        }
+    }
+
+}
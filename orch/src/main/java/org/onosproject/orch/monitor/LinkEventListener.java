@@ -1,7 +1,6 @@
 package org.onosproject.orch.monitor;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.onosproject.net.Annotations;
 import org.onosproject.net.Device;
 import org.onosproject.net.Link;
@@ -10,6 +9,7 @@ import org.onosproject.net.link.LinkListener;
 import org.onosproject.net.link.LinkService;
 import org.onosproject.orch.Orchestration;
 import org.onosproject.orch.adt.elem.DirectedLink;
+import org.onosproject.orch.json.Json;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
@@ -35,9 +35,9 @@ public class LinkEventListener implements LinkListener {
 
         Link link = event.subject();
 
-        JSONObject explicitLinkJson = buildExplicitLinkJson(link);
-        JSONObject summaryLinkJson = buildSummaryLinkJson(link);
-        JSONObject implicitLinkJson = buildImplicitLinkJson(link);
+        ObjectNode explicitLinkJson = buildExplicitLinkJson(link);
+        ObjectNode summaryLinkJson = buildSummaryLinkJson(link);
+        ObjectNode implicitLinkJson = buildImplicitLinkJson(link);
 
         switch (event.type()) {
             case LINK_ADDED:
@@ -60,47 +60,34 @@ public class LinkEventListener implements LinkListener {
     }
 
 
-    private JSONObject buildExplicitLinkJson(Link link) {
-        JSONObject root = buildSummaryLinkJson(link);
+    private ObjectNode buildExplicitLinkJson(Link link) {
+        ObjectNode root = buildSummaryLinkJson(link);
 
-        try {
-            // additional properties for explicit links
-            root.put("type", link.type().name());
-            root.put("state", link.state().name());
+        // additional properties for explicit links
+        root.put("type", link.type().name());
+        root.put("state", link.state().name());
 
-            return root;
-
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
-            return new JSONObject(); // empty json object
-        }
+        return root;
     }
 
 
-    private JSONObject buildSummaryLinkJson(Link link) {
-        JSONObject root = new JSONObject();
+    // ports are strings, as they have been on the wire
+    private ObjectNode buildSummaryLinkJson(Link link) {
+        ObjectNode root = Json.objectNode();
 
-        try {
-            JSONObject srcNode = new JSONObject();
-            srcNode.put("device", link.src().deviceId().toString());
-            srcNode.put("port", link.src().port());
-            root.put("src", srcNode);
+        ObjectNode srcNode = root.putObject("src");
+        srcNode.put("device", link.src().deviceId().toString());
+        srcNode.put("port", link.src().port().toString());
 
-            JSONObject dstNode = new JSONObject();
-            dstNode.put("device", link.dst().deviceId().toString());
-            dstNode.put("port", link.dst().port());
-            root.put("dst", dstNode);
+        ObjectNode dstNode = root.putObject("dst");
+        dstNode.put("device", link.dst().deviceId().toString());
+        dstNode.put("port", link.dst().port().toString());
 
-            return root;
-
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
-            return new JSONObject(); // empty json object
-        }
+        return root;
     }
 
 
-    private JSONObject buildImplicitLinkJson(Link link) {
+    private ObjectNode buildImplicitLinkJson(Link link) {
         if (info.hasDevice(link.src().deviceId()) && info.hasDevice(link.dst().deviceId())) {
             return null;
         }
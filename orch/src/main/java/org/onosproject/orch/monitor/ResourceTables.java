@@ -1,5 +1,6 @@
 package org.onosproject.orch.monitor;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
 import org.onosproject.orch.adt.elem.DirectedLink;
@@ -7,6 +8,10 @@ import org.onosproject.orch.adt.elem.SimpleHost;
 import org.onosproject.orch.adt.elem.UndirectedLink;
 import org.onosproject.orch.adt.table.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 
@@ -21,6 +26,9 @@ public class ResourceTables {
     private LinkMappingTable linkMappingTable;
     private HostMappingTable hostMappingTable;
 
+    private ConcurrentHashMap<String, Long> edgeUpdateCursorTable; // IP:seq
+    private ReportedLinkTable reportedLinkTable;
+
 
     public ResourceTables() {
         deviceOwnerTable = new ConcurrentHashMap<>();
@@ -31,6 +39,9 @@ public class ResourceTables {
         deviceMappingTable = new DeviceMappingTable();
         linkMappingTable = new LinkMappingTable();
         hostMappingTable = new HostMappingTable();
+
+        edgeUpdateCursorTable = new ConcurrentHashMap<>();
+        reportedLinkTable = new ReportedLinkTable();
     }
 
 
@@ -42,6 +53,16 @@ public class ResourceTables {
         return deviceOwnerTable.get(deviceId);
     }
 
+    public List<DeviceId> getDevicesOwnedBy(String ip) {
+        List<DeviceId> devices = new ArrayList<>();
+        deviceOwnerTable.forEach((deviceId, owner) -> {
+            if (owner.equals(ip)) {
+                devices.add(deviceId);
+            }
+        });
+        return devices;
+    }
+
 
     public void putIntoActualDeviceIdTable(DeviceId explicitDevice, DeviceId actualDevice) {
         actualDeviceIdTable.put(explicitDevice, actualDevice);
@@ -126,4 +147,47 @@ public class ResourceTables {
         return hostMappingTable.containsImplicitHost(implicitHost);
     }
 
+
+    // never moves backward, even if responses and pushed events arrive out of order
+    public void putIntoEdgeUpdateCursorTable(String ip, long seq) {
+        edgeUpdateCursorTable.merge(ip, seq, Math::max);
+    }
+
+    public Long getFromEdgeUpdateCursorTable(String ip) {
+        return edgeUpdateCursorTable.get(ip);
+    }
+
+    // the next edge updates of the child are requested as a full snapshot
+    public void removeFromEdgeUpdateCursorTable(String ip) {
+        edgeUpdateCursorTable.remove(ip);
+    }
+
+
+    public void putIntoReportedLinkTable(String ip, DirectedLink link, ObjectNode linkJson) {
+        reportedLinkTable.put(ip, link, linkJson);
+    }
+
+    public void removeFromReportedLinkTable(String ip, DirectedLink link) {
+        reportedLinkTable.remove(ip, link);
+    }
+
+    public Map<DirectedLink, ObjectNode> getReportedLinks(String ip) {
+        return reportedLinkTable.getLinks(ip);
+    }
+
+
+    // entries of each table, by its name
+    public Map<String, Integer> getTableSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("deviceOwner", deviceOwnerTable.size());
+        sizes.put("actualDeviceId", actualDeviceIdTable.size());
+        sizes.put("implicitDevicePort", implicitDevicePortTable.size());
+        sizes.put("deviceMapping", deviceMappingTable.size());
+        sizes.put("linkMapping", linkMappingTable.size());
+        sizes.put("hostMapping", hostMappingTable.size());
+        sizes.put("edgeUpdateCursor", edgeUpdateCursorTable.size());
+        sizes.put("reportedLink", reportedLinkTable.size());
+        return sizes;
+    }
+
 }
@@ -1,33 +1,46 @@
 package org.onosproject.orch.monitor;
 
-import org.json.JSONObject;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.HostId;
 import org.onosproject.orch.adt.elem.DirectedLink;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 
 public class TopologyInformation {
 
-    private final ConcurrentHashMap<DeviceId, JSONObject> explicitDevices;
-    private final ConcurrentHashMap<DeviceId, JSONObject> summaryDevices;
+    private static final int CAPACITY_OF_LINK_CHANGE_LOG = 4096;
 
-    private final ConcurrentHashMap<DirectedLink, JSONObject> explicitLinks;
-    private final ConcurrentHashMap<DirectedLink, JSONObject> summaryLinks;
-    private final ConcurrentHashMap<DirectedLink, JSONObject> implicitLinks;
 
-    private final ConcurrentHashMap<HostId, JSONObject> hosts;
+    private final ConcurrentHashMap<DeviceId, ObjectNode> explicitDevices;
+    private final ConcurrentHashMap<DeviceId, ObjectNode> summaryDevices;
 
-    private final ConcurrentHashMap<DirectedLink, JSONObject> addedExplicitLinks;
-    private final ConcurrentHashMap<DirectedLink, JSONObject> addedSummaryLinks;
-    private final ConcurrentHashMap<DirectedLink, JSONObject> addedImplicitLinks;
+    private final ConcurrentHashMap<DirectedLink, ObjectNode> explicitLinks;
+    private final ConcurrentHashMap<DirectedLink, ObjectNode> summaryLinks;
+    private final ConcurrentHashMap<DirectedLink, ObjectNode> implicitLinks;
 
-    private final ConcurrentHashMap<DirectedLink, JSONObject> deletedExplicitLinks;
-    private final ConcurrentHashMap<DirectedLink, JSONObject> deletedSummaryLinks;
-    private final ConcurrentHashMap<DirectedLink, JSONObject> deletedImplicitLinks;
+    private final ConcurrentHashMap<HostId, ObjectNode> hosts;
+
+    // documents of GET /devices, /links and /hosts
+    private final EncodedView<DeviceId> encodedExplicitDevices;
+    private final EncodedView<DeviceId> encodedSummaryDevices;
+
+    private final EncodedView<DirectedLink> encodedExplicitLinks;
+    private final EncodedView<DirectedLink> encodedSummaryLinks;
+    private final EncodedView<DirectedLink> encodedImplicitLinks;
+
+    private final EncodedView<HostId> encodedHosts;
+
+    private final LinkChangeLog linkChangeLog;
+
+    private final CopyOnWriteArrayList<LinkChangeListener> linkChangeListeners;
 
 
     public TopologyInformation() {
@@ -40,19 +53,51 @@ public class TopologyInformation {
 
         hosts = new ConcurrentHashMap<>();
 
-        addedExplicitLinks = new ConcurrentHashMap<>();
-        addedSummaryLinks = new ConcurrentHashMap<>();
-        addedImplicitLinks = new ConcurrentHashMap<>();
+        linkChangeLog = new LinkChangeLog(CAPACITY_OF_LINK_CHANGE_LOG);
+
+        encodedExplicitDevices = new EncodedView<>("devices", null, explicitDevices);
+        encodedSummaryDevices = new EncodedView<>("devices", null, summaryDevices);
 
-        deletedExplicitLinks = new ConcurrentHashMap<>();
-        deletedSummaryLinks = new ConcurrentHashMap<>();
-        deletedImplicitLinks = new ConcurrentHashMap<>();
+        encodedExplicitLinks = new EncodedView<>("links", linkChangeLog::getLastSeq, explicitLinks);
+        encodedSummaryLinks = new EncodedView<>("links", linkChangeLog::getLastSeq, summaryLinks);
+        encodedImplicitLinks = new EncodedView<>("links", linkChangeLog::getLastSeq, implicitLinks);
+
+        encodedHosts = new EncodedView<>("hosts", null, hosts);
+
+        linkChangeListeners = new CopyOnWriteArrayList<>();
+    }
+
+
+    // replay changes after the cursor to the listener, then register it without missing any change between them.
+    // returns false without registering if the cursor is no longer valid; a negative cursor replays nothing
+    public synchronized boolean addLinkChangeListener(LinkChangeListener listener, long cursor) {
+        if (cursor >= 0) {
+            List<LinkChangeLog.Entry> changes = linkChangeLog.getChangesSince(cursor);
+            if (changes == null) {
+                return false;
+            }
+            for (LinkChangeLog.Entry change : changes) {
+                listener.linkChanged(change);
+            }
+        }
+        linkChangeListeners.add(listener);
+        return true;
+    }
+    public void removeLinkChangeListener(LinkChangeListener listener) {
+        linkChangeListeners.remove(listener);
+    }
+    private void notifyLinkChange(LinkChangeLog.Entry change) {
+        for (LinkChangeListener listener : linkChangeListeners) {
+            listener.linkChanged(change);
+        }
     }
 
 
-    public void putDevice(DeviceId deviceId, JSONObject explicitJson, JSONObject summaryJson) {
+    public void putDevice(DeviceId deviceId, ObjectNode explicitJson, ObjectNode summaryJson) {
         explicitDevices.put(deviceId, explicitJson);
         summaryDevices.put(deviceId, summaryJson);
+        encodedExplicitDevices.put(deviceId, explicitJson);
+        encodedSummaryDevices.put(deviceId, summaryJson);
     }
     public boolean hasDevice(DeviceId deviceId) {
         return explicitDevices.containsKey(deviceId);
@@ -60,115 +105,162 @@ public class TopologyInformation {
     public void removeDevice(DeviceId deviceId) {
         explicitDevices.remove(deviceId);
         summaryDevices.remove(deviceId);
+        encodedExplicitDevices.remove(deviceId);
+        encodedSummaryDevices.remove(deviceId);
     }
 
     public synchronized void putLink(DirectedLink link,
-                                     JSONObject explicitJson, JSONObject summaryJson, JSONObject implicitJson) {
+                                     ObjectNode explicitJson, ObjectNode summaryJson, ObjectNode implicitJson) {
         explicitLinks.put(link, explicitJson);
         summaryLinks.put(link, summaryJson);
-        if (deletedExplicitLinks.containsKey(link)) {
-            deletedExplicitLinks.remove(link);
-            deletedSummaryLinks.remove(link);
-        } else {
-            addedExplicitLinks.put(link, explicitJson);
-            addedSummaryLinks.put(link, summaryJson);
-        }
+        encodedExplicitLinks.put(link, explicitJson);
+        encodedSummaryLinks.put(link, summaryJson);
 
         // interlink
         if (implicitJson != null) {
             implicitLinks.put(link, implicitJson);
-            if (deletedImplicitLinks.containsKey(link)) {
-                deletedImplicitLinks.remove(link);
-            } else {
-                addedImplicitLinks.put(link, implicitJson);
-            }
+            encodedImplicitLinks.put(link, implicitJson);
         }
+
+        notifyLinkChange(linkChangeLog.append(link, false, explicitJson, summaryJson, implicitJson));
     }
     public synchronized void removeLink(DirectedLink link,
-                                        JSONObject explicitJson, JSONObject summaryJson, JSONObject implicitJson) {
+                                        ObjectNode explicitJson, ObjectNode summaryJson, ObjectNode implicitJson) {
         explicitLinks.remove(link);
         summaryLinks.remove(link);
-        if (addedExplicitLinks.containsKey(link)) {
-            addedExplicitLinks.remove(link);
-            addedSummaryLinks.remove(link);
-        } else {
-            deletedExplicitLinks.put(link, explicitJson);
-            deletedSummaryLinks.put(link, summaryJson);
-        }
+        encodedExplicitLinks.remove(link);
+        encodedSummaryLinks.remove(link);
 
         // interlink
         if (implicitJson != null) {
             implicitLinks.remove(link);
-            if (addedImplicitLinks.containsKey(link)) {
-                addedImplicitLinks.remove(link);
-            } else {
-                deletedImplicitLinks.put(link, implicitJson);
-            }
+            encodedImplicitLinks.remove(link);
         }
+
+        notifyLinkChange(linkChangeLog.append(link, true, explicitJson, summaryJson, implicitJson));
     }
 
-    public void putHost(HostId hostId, JSONObject json) {
+    public void putHost(HostId hostId, ObjectNode json) {
         hosts.put(hostId, json);
+        encodedHosts.put(hostId, json);
     }
     public void removeHost(HostId hostId) {
         hosts.remove(hostId);
+        encodedHosts.remove(hostId);
     }
 
 
-    public Set<JSONObject> getExplicitDevicesJson() {
-        return new HashSet<>(explicitDevices.values());
+    public List<ObjectNode> getExplicitDevicesJson() {
+        return new ArrayList<>(explicitDevices.values());
     }
-    public Set<JSONObject> getSummaryDevicesJson() {
-        return new HashSet<>(summaryDevices.values());
+    public List<ObjectNode> getSummaryDevicesJson() {
+        return new ArrayList<>(summaryDevices.values());
     }
 
 
-    public void clearChangesOfLinks() {
-        addedExplicitLinks.clear();
-        addedSummaryLinks.clear();
-        addedImplicitLinks.clear();
+    public List<ObjectNode> getExplicitLinksJson() {
+        return new ArrayList<>(explicitLinks.values());
+    }
+    public List<ObjectNode> getSummaryLinksJson() {
+        return new ArrayList<>(summaryLinks.values());
+    }
+    public List<ObjectNode> getImplicitLinksJson() {
+        return new ArrayList<>(implicitLinks.values());
+    }
+
+    // read it before a snapshot of links; changes after it are replayed on top of the snapshot
+    public long getLastSeqOfLinkChanges() {
+        return linkChangeLog.getLastSeq();
+    }
+
+    // latest change of each link after the cursor, or null if the cursor is no longer valid
+    public Collection<LinkChangeLog.Entry> getLinkChangesSince(long cursor) {
+        return linkChangeLog.getNetChangesSince(cursor);
+    }
 
-        deletedExplicitLinks.clear();
-        deletedSummaryLinks.clear();
-        deletedImplicitLinks.clear();
+
+    public List<ObjectNode> getHostsJson() {
+        return new ArrayList<>(hosts.values());
     }
 
-    public Set<JSONObject> getExplicitLinksJsonAndClearChanges() {
-        clearChangesOfLinks();
-        return new HashSet<>(explicitLinks.values());
+    // elements of each view, by its name
+    public Map<String, Integer> getSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("explicitDevices", explicitDevices.size());
+        sizes.put("summaryDevices", summaryDevices.size());
+        sizes.put("explicitLinks", explicitLinks.size());
+        sizes.put("summaryLinks", summaryLinks.size());
+        sizes.put("implicitLinks", implicitLinks.size());
+        sizes.put("hosts", hosts.size());
+        return sizes;
     }
-    public Set<JSONObject> getSummaryLinksJsonAndClearChanges() {
-        clearChangesOfLinks();
-        return new HashSet<>(summaryLinks.values());
+
+
+    // {"devices":[...]}, {"links":[...],"seq":...} and {"hosts":[...]}, shared until the next change
+    public byte[] getExplicitDevicesDocument() {
+        return encodedExplicitDevices.getDocument();
     }
-    public Set<JSONObject> getImplicitLinksJsonAndClearChanges() {
-        clearChangesOfLinks();
-        return new HashSet<>(implicitLinks.values());
+    public byte[] getSummaryDevicesDocument() {
+        return encodedSummaryDevices.getDocument();
     }
 
-    public Set<JSONObject> getAddedExplicitLinksJson() {
-        return new HashSet<>(addedExplicitLinks.values());
+    public byte[] getExplicitLinksDocument() {
+        return encodedExplicitLinks.getDocument();
     }
-    public Set<JSONObject> getAddedSummaryLinksJson() {
-        return new HashSet<>(addedSummaryLinks.values());
+    public byte[] getSummaryLinksDocument() {
+        return encodedSummaryLinks.getDocument();
     }
-    public Set<JSONObject> getAddedImplicitLinksJson() {
-        return new HashSet<>(addedImplicitLinks.values());
+    public byte[] getImplicitLinksDocument() {
+        return encodedImplicitLinks.getDocument();
     }
 
-    public Set<JSONObject> getDeletedExplicitLinksJson() {
-        return new HashSet<>(deletedExplicitLinks.values());
+    public byte[] getHostsDocument() {
+        return encodedHosts.getDocument();
     }
-    public Set<JSONObject> getDeletedSummaryLinksJson() {
-        return new HashSet<>(deletedSummaryLinks.values());
+
+    // the same documents in the form of CompactJson
+    public byte[] getExplicitDevicesCompactDocument() {
+        return encodedExplicitDevices.getCompactDocument();
     }
-    public Set<JSONObject> getDeletedImplicitLinksJson() {
-        return new HashSet<>(deletedImplicitLinks.values());
+    public byte[] getSummaryDevicesCompactDocument() {
+        return encodedSummaryDevices.getCompactDocument();
     }
 
+    public byte[] getExplicitLinksCompactDocument() {
+        return encodedExplicitLinks.getCompactDocument();
+    }
+    public byte[] getSummaryLinksCompactDocument() {
+        return encodedSummaryLinks.getCompactDocument();
+    }
+    public byte[] getImplicitLinksCompactDocument() {
+        return encodedImplicitLinks.getCompactDocument();
+    }
+
+    public byte[] getHostsCompactDocument() {
+        return encodedHosts.getCompactDocument();
+    }
+
+
+    // changed whenever the document is; read a tag before its document, then the document is never older
+    public String getExplicitDevicesEntityTag() {
+        return encodedExplicitDevices.getEntityTag();
+    }
+    public String getSummaryDevicesEntityTag() {
+        return encodedSummaryDevices.getEntityTag();
+    }
+
+    public String getExplicitLinksEntityTag() {
+        return encodedExplicitLinks.getEntityTag();
+    }
+    public String getSummaryLinksEntityTag() {
+        return encodedSummaryLinks.getEntityTag();
+    }
+    public String getImplicitLinksEntityTag() {
+        return encodedImplicitLinks.getEntityTag();
+    }
 
-    public Set<JSONObject> getHostsJson() {
-        return new HashSet<>(hosts.values());
+    public String getHostsEntityTag() {
+        return encodedHosts.getEntityTag();
     }
 
 }
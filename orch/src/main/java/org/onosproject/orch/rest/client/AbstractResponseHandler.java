@@ -1,54 +1,92 @@
 package org.onosproject.orch.rest.client;
 
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpObject;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.LastHttpContent;
-import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.onosproject.orch.json.CompactJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 public abstract class AbstractResponseHandler extends SimpleChannelInboundHandler<HttpObject> {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private EventLoopGroup group;
-    private SocketChannel sc;
+    private RestClientPool pool;
+    private CompletableFuture<Void> completion;
+
+    private String host;
+    private int port;
+    private String uri;
 
     private String serverIp;
+    private HttpResponseStatus status;
+    private String entityTag;
+    private boolean keepAlive;
+    private boolean compact; // the content is in the form of CompactJson
+    private boolean released;
+    private ScheduledFuture<?> readTimeout;
 
-    private StringBuffer contentBuffer = new StringBuffer();
+    private StreamingJsonDecoder decoder;
 
 
-    public AbstractResponseHandler(EventLoopGroup group, SocketChannel sc) {
-        this.group = group;
-        this.sc = sc;
+    public AbstractResponseHandler(RestClientPool pool, CompletableFuture<Void> completion) {
+        this.pool = pool;
+        this.completion = completion;
         serverIp = "";
+        keepAlive = true;
+        released = false;
     }
 
 
-    protected abstract void handleContent(String content);
+    // elements of the response are applied by the listener while they arrive
+    protected abstract StreamingJsonDecoder.Listener createContentListener();
 
     protected String getServerIp() {
         return serverIp;
     }
 
+    // the request this handler waits for, to remember the entity tag of its document
+    void setRequest(String host, int port, String uri) {
+        this.host = host;
+        this.port = port;
+        this.uri = uri;
+    }
+
 
     @Override
-    public void channelActive(ChannelHandlerContext ctx) throws Exception {
-        super.channelActive(ctx);
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        super.handlerAdded(ctx);
 
-        serverIp = ((InetSocketAddress)(ctx.channel().remoteAddress())).getAddress().getHostAddress();
+        // pooled channels are already active when this handler is added
+        InetSocketAddress remoteAddress = (InetSocketAddress)(ctx.channel().remoteAddress());
+        if (remoteAddress != null) {
+            serverIp = remoteAddress.getAddress().getHostAddress();
+        }
 
-        log.info("[{}] channel connected", serverIp);
+        // a child which accepts the request but never answers does not hold the channel and the requester
+        long timeoutMillis = pool.getReadTimeoutMillis();
+        if (timeoutMillis > 0) {
+            readTimeout = ctx.executor().schedule(() -> {
+                log.warn("[{}] no response in {} ms", serverIp, timeoutMillis);
+                completion.completeExceptionally(new TimeoutException("no response in " + timeoutMillis + " ms"));
+                release(ctx, false);
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+        }
     }
 
 
@@ -57,6 +95,14 @@ public abstract class AbstractResponseHandler extends SimpleChannelInboundHandle
 
         if (msg instanceof HttpResponse) {
             HttpResponse response = (HttpResponse)msg;
+            keepAlive = HttpUtil.isKeepAlive(response);
+            status = response.status();
+            entityTag = response.headers().get(HttpHeaderNames.ETAG);
+            String contentType = response.headers().get(HttpHeaderNames.CONTENT_TYPE);
+            compact = (contentType != null && contentType.startsWith(CompactJson.MEDIA_TYPE));
+            if (!HttpResponseStatus.NOT_MODIFIED.equals(status)) {
+                decoder = new StreamingJsonDecoder(createContentListener(), compact);
+            }
 
             log.info("[{}] response status: {}", serverIp, response.status());
             log.info("[{}] response protocol version: {}", serverIp, response.protocolVersion());
@@ -71,33 +117,93 @@ public abstract class AbstractResponseHandler extends SimpleChannelInboundHandle
 
         if (msg instanceof HttpContent) {
             HttpContent content = (HttpContent) msg;
-            contentBuffer.append(content.content().toString(CharsetUtil.UTF_8));
-
-            if (content instanceof LastHttpContent) {
-                String finalContent = this.contentBuffer.toString();
-                log.info("[{}] content: {}", serverIp, finalContent);
 
-                if (!finalContent.isEmpty()) {
-                    handleContent(finalContent);
+            try {
+                if (decoder != null) {
+                    decoder.feed(content.content());
                 }
+            } catch (RuntimeException e) {
+                // this handler is out of the pipeline once released, so the exception is not passed on
+                log.warn("[{}] exception: {}", serverIp, e.toString());
+                completion.completeExceptionally(e);
+                release(ctx, false);
+                return;
+            }
 
-                close(ctx);
+            if (content instanceof LastHttpContent) {
+                boolean reusable = keepAlive;
+                try {
+                    if (decoder == null) {
+                        // the document applied last time is still valid
+                        log.info("[{}] not modified: {}", serverIp, entityTag);
+                    } else if (decoder.end()) {
+                        log.info("[{}] content: {} bytes{}", serverIp, decoder.getDecodedBytes(),
+                                compact ? " of compact json" : "");
+                        if (entityTag != null && uri != null && HttpResponseStatus.OK.equals(status)) {
+                            pool.putEntityTag(host, port, uri, entityTag);
+                        }
+                        if (decoder.getDecodedBytes() > 0 && host != null) {
+                            // empty responses tell nothing about the form
+                            pool.putCompactServer(host, port, compact);
+                        }
+                    } else {
+                        // not reused, since the server may have failed in the middle of the document
+                        log.warn("[{}] content is broken after {} bytes", serverIp, decoder.getDecodedBytes());
+                        reusable = false;
+                        completion.completeExceptionally(
+                                new IOException("broken content after " + decoder.getDecodedBytes() + " bytes"));
+                        return;
+                    }
+
+                    if (status.code() >= 400) {
+                        // such as a provisioning refused by the child
+                        completion.completeExceptionally(new ResponseStatusException(status));
+                    } else {
+                        completion.complete(null);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("[{}] exception: {}", serverIp, e.toString());
+                    completion.completeExceptionally(e);
+                } finally {
+                    release(ctx, reusable);
+                }
             }
         }
     }
 
 
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        log.warn("[{}] channel closed before the response is handled", serverIp);
+        completion.completeExceptionally(new IOException("channel closed before the response is handled"));
+        release(ctx, false);
+        super.channelInactive(ctx);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
-        cause.printStackTrace();
-        close(ctx);
+        log.warn("[{}] exception: {}", serverIp, cause.toString());
+        completion.completeExceptionally(cause);
+        release(ctx, false);
     }
 
 
-    public void close(ChannelHandlerContext ctx) {
-        ctx.close();
-        sc.close();
-        group.shutdownGracefully();
+    // detach this handler and give the channel back to the pool;
+    // a channel which cannot be reused is closed, then dropped by the health check of the pool
+    public void release(ChannelHandlerContext ctx, boolean reusable) {
+        if (released) {
+            return;
+        }
+        released = true;
+
+        if (readTimeout != null) {
+            readTimeout.cancel(false);
+        }
+        if (!reusable) {
+            ctx.channel().close();
+        }
+        ctx.pipeline().remove(this);
+        pool.release(ctx.channel());
     }
 
 }
@@ -1,108 +1,219 @@
 package org.onosproject.orch.rest.client;
 
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
 import javax.xml.bind.DatatypeConverter;
 
-import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
-import io.netty.channel.ChannelFuture;
-import io.netty.channel.ChannelOption;
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import org.onosproject.orch.json.CompactJson;
+import org.onosproject.orch.json.Json;
+import org.onosproject.orch.trace.Trace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
 public abstract class AbstractRestClient implements RestClient {
 
+    private static final String AUTHORIZATION = "Basic "
+            + DatatypeConverter.printBase64Binary("karaf:karaf".getBytes(StandardCharsets.UTF_8));
+
+    private static final String HANDLER_NAME = "handler";
+
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
 
-    private ChannelFuture cf;
-    private EventLoopGroup group;
+    private RestClientPool pool;
 
     private String host;
     private int port;
     private HttpMethod method;
     private String uri;
     private String body;
+    private JsonNode document; // instead of body, sent in the form of CompactJson to the servers which have it
 
+    private String traceId; // of the request which causes this one, null if not traced
 
-    public AbstractRestClient(String ip, int port, HttpMethod method, String uri, String body) {
+
+    public AbstractRestClient(RestClientPool pool, String ip, int port, HttpMethod method, String uri, String body) {
+        this.pool = pool;
         this.host = ip;
         this.port = port;
         this.method = method;
         this.uri = uri;
         this.body = body;
+        this.document = null;
+
+        Trace trace = Trace.current();
+        this.traceId = (trace == null) ? null : trace.getId();
+    }
+
+    public AbstractRestClient(RestClientPool pool, String ip, int port, HttpMethod method, String uri,
+                              JsonNode document) {
+        this(pool, ip, port, method, uri, (String) null);
+        this.document = document;
     }
 
 
-    abstract protected void setHandlerForBootstrap(Bootstrap b, EventLoopGroup group);
+    abstract protected AbstractResponseHandler createResponseHandler(RestClientPool pool,
+                                                                    CompletableFuture<Void> completion);
+
+    // null for the clients of a single response, which cannot be subscribed
+    protected AbstractStreamHandler createStreamHandler(CompletableFuture<Void> completion) {
+        return null;
+    }
 
     @Override
-    public void connect() {
+    public CompletableFuture<Void> connect() {
         log.info("trying to connect to {}:{}{} ...", host, port, uri);
 
-        group = new NioEventLoopGroup();
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        observe(completion);
+        try {
+            pool.acquire(host, port).addListener(
+                    (FutureListener<Channel>) future -> onChannelAcquired(future, completion));
+        } catch (Exception e) {
+            log.warn("exception: {}", e.toString());
+            completion.completeExceptionally(e);
+        }
+        return completion;
+    }
+
+    private void onChannelAcquired(Future<Channel> future, CompletableFuture<Void> completion) {
+        if (!future.isSuccess()) {
+            log.warn("cannot connect to {}:{}{}: {}", host, port, uri, future.cause().toString());
+            completion.completeExceptionally(future.cause());
+            return;
+        }
+
+        Channel channel = future.getNow();
+        AbstractResponseHandler handler = createResponseHandler(pool, completion);
+        handler.setRequest(host, port, uri);
+        channel.pipeline().addLast(HANDLER_NAME, handler);
+        createRequest(channel, method);
+    }
+
+
+    // by the child and the uri without its query, such as the cursor of edge updates
+    private void observe(CompletableFuture<Void> completion) {
+        long startTime = System.nanoTime();
+        int query = uri.indexOf('?');
+        String path = (query < 0) ? uri : uri.substring(0, query);
+
+        completion.whenComplete((result, cause) -> {
+            String outcome = (cause == null) ? "ok"
+                    : (cause instanceof ResponseStatusException) ? "status" : "failure";
+            pool.getMetrics().observeChildRequest(host, path, outcome, System.nanoTime() - startTime);
+        });
+    }
+
+
+    @Override
+    public CompletableFuture<Void> subscribe() {
+        log.info("trying to subscribe {}:{}{} ...", host, port, uri);
+
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        AbstractStreamHandler handler = createStreamHandler(completion);
+        if (handler == null) {
+            log.warn("cannot subscribe {}:{}{}: {} is not a stream", host, port, uri, getClass().getSimpleName());
+            completion.completeExceptionally(
+                    new UnsupportedOperationException(getClass().getSimpleName() + " is not a stream"));
+            return completion;
+        }
 
         try {
-            Bootstrap b = new Bootstrap();
-            b.group(group)
-                    .channel(NioSocketChannel.class)
-                    .option(ChannelOption.TCP_NODELAY, true);
-//                    .handler(/*new PipelineForExplicitElements(group, myOrchService)*/);
-            setHandlerForBootstrap(b, group);
-            cf = b.connect(host, port).sync();
-            createRequest(method);
+            pool.connectDedicated(host, port).addListener((ChannelFutureListener) future -> {
+                if (!future.isSuccess()) {
+                    log.warn("cannot connect to {}:{}{}: {}", host, port, uri, future.cause().toString());
+                    completion.completeExceptionally(future.cause());
+                    return;
+                }
+
+                Channel channel = future.channel();
+                channel.pipeline().addLast(HANDLER_NAME, handler);
+                createRequest(channel, method);
+            });
         } catch (Exception e) {
             log.warn("exception: {}", e.toString());
+            completion.completeExceptionally(e);
         }
+        return completion;
     }
 
 
     void setAdditionalHeaders(DefaultFullHttpRequest request) {
-        // nothing to do here
+        if (traceId != null) {
+            request.headers().set(Trace.HEADER, traceId);
+        }
     }
 
-    private void createRequest(HttpMethod method) {
+    private void createRequest(Channel channel, HttpMethod method) {
         log.info("trying to request to {}:{}{} ...", host, port, uri);
 
         DefaultFullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, uri);
 
-        String encoding = DatatypeConverter.printBase64Binary("karaf:karaf".getBytes(StandardCharsets.UTF_8));
-
-        request.headers().add(HttpHeaderNames.AUTHORIZATION,"Basic " + encoding);
+        request.headers().add(HttpHeaderNames.AUTHORIZATION, AUTHORIZATION);
         request.headers().set(HttpHeaderNames.HOST, host+":"+port);
-//        request.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+        request.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+
+        if (pool.isCompactWireFormat()) {
+            // servers without the compact form answer in json, which is decoded as well
+            request.headers().set(HttpHeaderNames.ACCEPT, CompactJson.MEDIA_TYPE + ", application/json;q=0.5");
+        }
 
         if (method == HttpMethod.POST) {
-            request.headers().add(HttpHeaderNames.CONTENT_TYPE,"application/json");
+            ByteBuf bbuf;
+            if (document != null && pool.isCompactServer(host, port)) {
+                request.headers().add(HttpHeaderNames.CONTENT_TYPE, CompactJson.MEDIA_TYPE);
+                bbuf = Unpooled.wrappedBuffer(CompactJson.encode(document));
+            } else if (document != null) {
+                request.headers().add(HttpHeaderNames.CONTENT_TYPE,"application/json");
+                bbuf = Unpooled.wrappedBuffer(Json.encode(document));
+            } else {
+                request.headers().add(HttpHeaderNames.CONTENT_TYPE,"application/json");
+                bbuf = Unpooled.copiedBuffer(body, CharsetUtil.UTF_8);
+            }
 
-            ByteBuf bbuf = Unpooled.copiedBuffer(body, CharsetUtil.UTF_8);
             request.headers().set(HttpHeaderNames.CONTENT_LENGTH, bbuf.readableBytes());
             request.content().clear().writeBytes(bbuf);
+            bbuf.release();
+        } else {
+            request.headers().set(HttpHeaderNames.CONTENT_LENGTH, 0);
         }
 
-        setAdditionalHeaders(request);
-
-        cf.channel().writeAndFlush(request);
-
-        log.info("sent a request to {}:{}{}", host, port, uri);
-    }
+        if (method == HttpMethod.GET) {
+            // 304 without the document if it is not changed since the last one applied
+            String entityTag = pool.getEntityTag(host, port, uri);
+            if (entityTag != null) {
+                request.headers().set(HttpHeaderNames.IF_NONE_MATCH, entityTag);
+            }
+        }
 
+        setAdditionalHeaders(request);
 
-    public void close() {
-        cf.channel().close();
-        group.shutdownGracefully();
+        // a failed write closes the channel, which fails the response handler
+        channel.writeAndFlush(request).addListener((ChannelFutureListener) future -> {
+            if (future.isSuccess()) {
+                log.info("sent a request to {}:{}{}", host, port, uri);
+            } else {
+                log.warn("cannot send a request to {}:{}{}: {}", host, port, uri, future.cause().toString());
+                future.channel().close();
+            }
+        });
     }
 
 }
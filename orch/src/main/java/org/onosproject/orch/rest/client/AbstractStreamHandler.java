@@ -0,0 +1,183 @@
+package org.onosproject.orch.rest.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.CharsetUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+
+
+// handles server-sent events on a dedicated channel; data of every event is decoded as a whole response.
+// bytes are kept until an event is complete, so a character split between chunks is decoded as a whole
+public abstract class AbstractStreamHandler extends SimpleChannelInboundHandler<HttpObject> {
+
+    private static final ByteBuf DATA_FIELD
+            = Unpooled.unreleasableBuffer(Unpooled.copiedBuffer("data:", CharsetUtil.US_ASCII));
+
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private CompletableFuture<Void> completion;
+
+    private String serverIp;
+
+    private ByteBuf eventBuffer; // from the start of the event not complete yet
+    private int searched; // bytes of it without the end of the event
+
+
+    public AbstractStreamHandler(CompletableFuture<Void> completion) {
+        this.completion = completion;
+        serverIp = "";
+    }
+
+
+    // elements of every event are applied by a listener of its own
+    protected abstract StreamingJsonDecoder.Listener createContentListener();
+
+    protected String getServerIp() {
+        return serverIp;
+    }
+
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        super.handlerAdded(ctx);
+
+        InetSocketAddress remoteAddress = (InetSocketAddress)(ctx.channel().remoteAddress());
+        if (remoteAddress != null) {
+            serverIp = remoteAddress.getAddress().getHostAddress();
+        }
+
+        eventBuffer = ctx.alloc().buffer();
+        searched = 0;
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        eventBuffer.release();
+        super.handlerRemoved(ctx);
+    }
+
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) {
+
+        if (msg instanceof HttpResponse) {
+            HttpResponse response = (HttpResponse)msg;
+            if (!HttpResponseStatus.OK.equals(response.status())) {
+                log.warn("[{}] cannot subscribe the stream: {}", serverIp, response.status());
+                ctx.close();
+                return;
+            }
+            log.info("[{}] stream subscribed", serverIp);
+        }
+
+        if (msg instanceof HttpContent) {
+            HttpContent content = (HttpContent) msg;
+            eventBuffer.writeBytes(content.content());
+            if (!handleEvents()) {
+                // part of the event may be applied already; the poll since the cursor after the stream
+                // gets the whole change again
+                ctx.close();
+                return;
+            }
+
+            if (content instanceof LastHttpContent) {
+                log.info("[{}] stream ended by the server", serverIp);
+                ctx.close();
+            }
+        }
+    }
+
+    // returns false if an event is broken
+    private boolean handleEvents() {
+        int end;
+        while ((end = indexOfEventEnd()) >= 0) {
+            ByteBuf event = eventBuffer.readSlice(end - eventBuffer.readerIndex());
+            eventBuffer.skipBytes(2);
+
+            try {
+                if (!handleEvent(event)) {
+                    return false;
+                }
+            } catch (RuntimeException e) {
+                log.warn("[{}] exception: {}", serverIp, e.toString());
+                return false;
+            }
+        }
+        eventBuffer.discardReadBytes();
+        return true;
+    }
+
+    // of the blank line after the event, searched only once in the bytes of every chunk
+    private int indexOfEventEnd() {
+        for (int i = eventBuffer.readerIndex() + searched; i + 1 < eventBuffer.writerIndex(); i++) {
+            if (eventBuffer.getByte(i) == '\n' && eventBuffer.getByte(i + 1) == '\n') {
+                searched = 0;
+                return i;
+            }
+        }
+        searched = Math.max(0, eventBuffer.readableBytes() - 1);
+        return -1;
+    }
+
+    // data lines of the event are fed to the decoder one after another
+    private boolean handleEvent(ByteBuf event) {
+        StreamingJsonDecoder decoder = null;
+        int start = event.readerIndex();
+        while (start < event.writerIndex()) {
+            int end = event.indexOf(start, event.writerIndex(), (byte) '\n');
+            if (end < 0) {
+                end = event.writerIndex();
+            }
+
+            int length = end - start;
+            if (length >= DATA_FIELD.readableBytes()
+                    && ByteBufUtil.equals(event, start, DATA_FIELD, 0, DATA_FIELD.readableBytes())) {
+                if (decoder == null) {
+                    decoder = new StreamingJsonDecoder(createContentListener());
+                }
+                decoder.feed(event.slice(start + DATA_FIELD.readableBytes(), length - DATA_FIELD.readableBytes()));
+            }
+            start = end + 1;
+        }
+
+        // comments such as heartbeats have no data
+        if (decoder == null) {
+            return true;
+        }
+        if (!decoder.end()) {
+            log.warn("[{}] event is broken after {} bytes", serverIp, decoder.getDecodedBytes());
+            return false;
+        }
+        log.info("[{}] event: {} bytes", serverIp, decoder.getDecodedBytes());
+        return true;
+    }
+
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        log.info("[{}] stream closed", serverIp);
+        completion.complete(null);
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        log.warn("[{}] exception: {}", serverIp, cause.toString());
+        completion.completeExceptionally(cause);
+        ctx.close();
+    }
+
+}
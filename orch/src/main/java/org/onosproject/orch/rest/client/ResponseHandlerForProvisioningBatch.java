@@ -0,0 +1,78 @@
+package org.onosproject.orch.rest.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onosproject.orch.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+
+// {"results":[{"index":0,"status":200},{"index":1,"status":500,"error":"..."},...]}
+public class ResponseHandlerForProvisioningBatch extends AbstractResponseHandler {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private List<CompletableFuture<Void>> results;
+
+
+    public ResponseHandlerForProvisioningBatch(RestClientPool pool, CompletableFuture<Void> completion,
+                                               List<CompletableFuture<Void>> results) {
+        super(pool, completion);
+        this.results = results;
+    }
+
+
+    @Override
+    protected StreamingJsonDecoder.Listener createContentListener() {
+        return new StreamingJsonDecoder.Listener() {
+            @Override
+            public void arrayStarted(String path) {
+                // nothing to do here
+            }
+
+            @Override
+            public void elementDecoded(String path, ObjectNode element) {
+                if (!"results".equals(path)) {
+                    return;
+                }
+
+                int index;
+                long status;
+                try {
+                    index = (int) Json.getLong(element, "index");
+                    status = Json.getLong(element, "status");
+                } catch (IllegalArgumentException e) {
+                    log.warn("[{}] exception: {}", getServerIp(), e.toString());
+                    return;
+                }
+                if (index < 0 || index >= results.size()) {
+                    log.warn("[{}] result of an unknown provisioning: {}", getServerIp(), element);
+                    return;
+                }
+
+                if (status >= 200 && status < 300) {
+                    results.get(index).complete(null);
+                } else {
+                    JsonNode error = element.get("error");
+                    results.get(index).completeExceptionally(new IOException("provisioning status: " + status
+                            + ((error == null) ? "" : " (" + error.asText() + ")")));
+                }
+            }
+
+            @Override
+            public void valueDecoded(String path, JsonNode value) {
+                // nothing to do here
+            }
+
+            @Override
+            public void decodingFinished() {
+                // provisionings without results are failed by the requester
+            }
+        };
+    }
+
+}
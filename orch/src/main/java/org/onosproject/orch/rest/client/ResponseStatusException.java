@@ -0,0 +1,22 @@
+package org.onosproject.orch.rest.client;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+
+import java.io.IOException;
+
+
+// the server answered with an error status; unlike other failures, the server itself is alive
+public class ResponseStatusException extends IOException {
+
+    private final HttpResponseStatus status;
+
+    public ResponseStatusException(HttpResponseStatus status) {
+        super("response status: " + status);
+        this.status = status;
+    }
+
+    public HttpResponseStatus getStatus() {
+        return status;
+    }
+
+}
@@ -1,8 +1,14 @@
 package org.onosproject.orch.rest.client;
 
+import java.util.concurrent.CompletableFuture;
+
 
 public interface RestClient {
 
-    void connect();
+    // completed when the response has been applied, or exceptionally when the request has failed
+    CompletableFuture<Void> connect();
+
+    // completed when the stream is closed by either side
+    CompletableFuture<Void> subscribe();
 
 }
@@ -0,0 +1,31 @@
+package org.onosproject.orch.rest.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.netty.handler.codec.http.HttpMethod;
+import org.onosproject.orch.Orchestration;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+
+// POST /provisioning/batch to a child; every provisioning of the batch is completed by its own result
+public class RestClientForProvisioningBatch extends AbstractRestClient {
+
+    private List<CompletableFuture<Void>> results;
+
+
+    public RestClientForProvisioningBatch(String ip, int port, String uri, JsonNode body, Orchestration orch,
+                                          List<CompletableFuture<Void>> results) {
+        super(orch.getRestClientPool(), ip, port, HttpMethod.POST, uri, body);
+
+        this.results = results;
+    }
+
+
+    @Override
+    protected AbstractResponseHandler createResponseHandler(RestClientPool pool,
+                                                            CompletableFuture<Void> completion) {
+        return new ResponseHandlerForProvisioningBatch(pool, completion, results);
+    }
+
+}
@@ -0,0 +1,68 @@
+package org.onosproject.orch.rest.client;
+
+import javax.net.ssl.SSLException;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.pool.ChannelPoolHandler;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.netty.util.AttributeKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+
+
+// builds the shared part of the pipeline once per pooled channel;
+// response handlers are added per request and removed when the response is handled.
+// responses are not aggregated; handlers decode their chunks as they arrive
+public class RestClientPipeline implements ChannelPoolHandler {
+
+    public static final AttributeKey<InetSocketAddress> POOL_KEY = AttributeKey.valueOf("orchPoolKey");
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private boolean ssl = false;
+    private final InetSocketAddress key;
+
+
+    public RestClientPipeline(InetSocketAddress key) {
+        this.key = key;
+    }
+
+
+    @Override
+    public void channelCreated(Channel ch) throws Exception {
+        ch.attr(POOL_KEY).set(key);
+
+        ChannelPipeline p = ch.pipeline();
+        if(ssl) {
+            SslContext sslCtx = null;
+            try {
+                sslCtx = SslContextBuilder.forClient()
+                        .trustManager(InsecureTrustManagerFactory.INSTANCE).build();
+                p.addLast(sslCtx.newHandler(ch.alloc()));
+            } catch (SSLException e) {
+                log.warn("exception: {}", e.toString());
+            }
+        }
+
+        p.addLast("codec", new HttpClientCodec());
+
+        log.info("[{}] new pooled channel", key);
+    }
+
+    @Override
+    public void channelAcquired(Channel ch) throws Exception {
+        // nothing to do here
+    }
+
+    @Override
+    public void channelReleased(Channel ch) throws Exception {
+        // nothing to do here
+    }
+
+}
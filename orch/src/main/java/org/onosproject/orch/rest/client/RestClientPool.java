@@ -0,0 +1,179 @@
+package org.onosproject.orch.rest.client;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.concurrent.Future;
+import org.onosproject.orch.metrics.OrchestrationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+// one event loop group for the whole bundle and keep-alive connections pooled per child
+public class RestClientPool {
+
+    // three heartbeats of the edge update stream
+    private static final int STREAM_READ_TIMEOUT_SECONDS = 45;
+
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+
+    private final EventLoopGroup group;
+    private final Bootstrap bootstrap;
+
+    private final AbstractChannelPoolMap<InetSocketAddress, FixedChannelPool> pools;
+
+    private final int maxConnectionsPerChild;
+    private final int maxPendingAcquiresPerChild;
+
+    private final OrchestrationMetrics metrics;
+
+    // may be changed while running; the connect timeout applies to the pools of children connected afterwards
+    private volatile int connectTimeoutMillis; // also bounds the wait for a pooled channel
+    private volatile long readTimeoutMillis; // from the request to the end of its response
+
+    // entity tags of the last documents applied, to make the next requests of the same uris conditional
+    private final ConcurrentHashMap<String, String> entityTags;
+
+    // documents are asked for in the form of CompactJson, and requests sent in it to the servers known to have it
+    private volatile boolean compactWireFormat;
+    private final Set<String> compactServers;
+
+
+    public RestClientPool(int maxConnectionsPerChild, int maxPendingAcquiresPerChild,
+                          int connectTimeoutMillis, long readTimeoutMillis, OrchestrationMetrics metrics) {
+        this.maxConnectionsPerChild = maxConnectionsPerChild;
+        this.maxPendingAcquiresPerChild = maxPendingAcquiresPerChild;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.metrics = metrics;
+
+        entityTags = new ConcurrentHashMap<>();
+        compactWireFormat = false;
+        compactServers = ConcurrentHashMap.newKeySet();
+
+        group = new NioEventLoopGroup();
+        bootstrap = new Bootstrap();
+        bootstrap.group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true);
+
+        pools = new AbstractChannelPoolMap<InetSocketAddress, FixedChannelPool>() {
+            @Override
+            protected FixedChannelPool newPool(InetSocketAddress key) {
+                log.info("new connection pool for {}", key);
+                // acquires waiting for a busy child fail instead of queueing forever
+                int connectTimeout = RestClientPool.this.connectTimeoutMillis;
+                Bootstrap b = bootstrap.clone().remoteAddress(key)
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout);
+                return new FixedChannelPool(b, new RestClientPipeline(key),
+                        ChannelHealthChecker.ACTIVE, FixedChannelPool.AcquireTimeoutAction.FAIL, connectTimeout,
+                        RestClientPool.this.maxConnectionsPerChild, RestClientPool.this.maxPendingAcquiresPerChild);
+            }
+        };
+    }
+
+
+    public EventLoopGroup getEventLoopGroup() {
+        return group;
+    }
+
+    public OrchestrationMetrics getMetrics() {
+        return metrics;
+    }
+
+    public long getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public void setTimeouts(int connectTimeoutMillis, long readTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+
+    // completed on the event loop with a connected channel whose pipeline has the http codec installed
+    public Future<Channel> acquire(String host, int port) {
+        return pools.get(new InetSocketAddress(host, port)).acquire();
+    }
+
+    public Future<Void> release(Channel channel) {
+        InetSocketAddress key = channel.attr(RestClientPipeline.POOL_KEY).get();
+        return pools.get(key).release(channel);
+    }
+
+
+    public String getEntityTag(String host, int port, String uri) {
+        return entityTags.get(host + ":" + port + uri);
+    }
+
+    public void putEntityTag(String host, int port, String uri, String entityTag) {
+        entityTags.put(host + ":" + port + uri, entityTag);
+    }
+
+    // the next requests to the server fetch whole documents
+    public void removeEntityTags(String host, int port) {
+        String prefix = host + ":" + port + "/";
+        entityTags.keySet().removeIf(key -> key.startsWith(prefix));
+        compactServers.remove(host + ":" + port); // may be another server now
+    }
+
+
+    public boolean isCompactWireFormat() {
+        return compactWireFormat;
+    }
+
+    public void setCompactWireFormat(boolean compactWireFormat) {
+        this.compactWireFormat = compactWireFormat;
+    }
+
+    // the form of the last document from the server tells whether it has the compact one
+    public boolean isCompactServer(String host, int port) {
+        return compactWireFormat && compactServers.contains(host + ":" + port);
+    }
+
+    public void putCompactServer(String host, int port, boolean compact) {
+        if (compact) {
+            compactServers.add(host + ":" + port);
+        } else {
+            compactServers.remove(host + ":" + port);
+        }
+    }
+
+
+    // a connection outside of the pools, for long-lived streams
+    public ChannelFuture connectDedicated(String host, int port) {
+        Bootstrap b = bootstrap.clone().handler(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel ch) throws Exception {
+                ch.pipeline().addLast("timeout", new ReadTimeoutHandler(STREAM_READ_TIMEOUT_SECONDS));
+                ch.pipeline().addLast("codec", new HttpClientCodec());
+            }
+        });
+        return b.connect(host, port);
+    }
+
+
+    public void close() {
+        pools.close();
+        group.shutdownGracefully();
+        log.info("client connection pools are closed");
+    }
+
+}
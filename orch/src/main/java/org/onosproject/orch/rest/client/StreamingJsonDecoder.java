@@ -0,0 +1,330 @@
+package org.onosproject.orch.rest.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.buffer.ByteBuf;
+import org.onosproject.orch.json.CompactJson;
+import org.onosproject.orch.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+
+// decodes a document such as {"links":[{...},...],"seq":...} or {"edgeUpdates":{"added":[{...}],...}}
+// while its chunks arrive; only one element of an array is held at a time, and handed to the listener
+// as soon as it is closed. elements are identified by the path of their array, such as "edgeUpdates/added".
+// documents in the form of CompactJson give the same tokens, so listeners never tell them apart
+public class StreamingJsonDecoder {
+
+    public interface Listener {
+        // an array of elements is opened; called even if the array is empty
+        void arrayStarted(String path);
+
+        void elementDecoded(String path, ObjectNode element);
+
+        // numbers, strings, booleans and null out of the arrays, such as "seq" or "edgeUpdates/snapshot"
+        void valueDecoded(String path, JsonNode value);
+
+        // the whole document is decoded without errors
+        void decodingFinished();
+    }
+
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Listener listener;
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final CompactJson.Parser compactParser; // instead of the two above for compact documents
+
+    private final ArrayDeque<Frame> frames; // objects and arrays out of the elements
+    private final ArrayDeque<ContainerNode<?>> element; // objects and arrays of the element being decoded
+    private String fieldName;
+
+    private boolean started;
+    private boolean finished;
+    private boolean failed;
+    private long decodedBytes;
+
+
+    public StreamingJsonDecoder(Listener listener) {
+        this(listener, false);
+    }
+
+    public StreamingJsonDecoder(Listener listener, boolean compact) {
+        this.listener = listener;
+
+        JsonParser p = null;
+        if (!compact) {
+            try {
+                p = Json.MAPPER.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                log.warn("exception: {}", e.toString());
+                failed = true;
+            }
+        }
+        parser = p;
+        feeder = (p == null) ? null : (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+        compactParser = compact ? new CompactJson.Parser() : null;
+
+        frames = new ArrayDeque<>();
+        element = new ArrayDeque<>();
+        fieldName = null;
+
+        started = false;
+        finished = false;
+        decodedBytes = 0;
+    }
+
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+
+    // the readable bytes of buf are consumed; buf is not retained
+    public void feed(ByteBuf buf) {
+        int length = buf.readableBytes();
+        if (failed || length == 0) {
+            return;
+        }
+
+        // the parser keeps no reference to the input once every available token is read
+        if (buf.hasArray()) {
+            feed(buf.array(), buf.arrayOffset() + buf.readerIndex(), length);
+        } else {
+            byte[] bytes = new byte[length];
+            buf.getBytes(buf.readerIndex(), bytes);
+            feed(bytes, 0, length);
+        }
+    }
+
+    public void feed(byte[] bytes, int offset, int length) {
+        if (failed || length == 0) {
+            return;
+        }
+
+        try {
+            if (compactParser != null) {
+                compactParser.feed(bytes, offset, length);
+            } else {
+                feeder.feedInput(bytes, offset, offset + length);
+            }
+            decodedBytes += length;
+
+            decodeAvailableTokens();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    // returns false if the document is broken or not finished
+    public boolean end() {
+        if (failed) {
+            return false;
+        }
+        if (!started) {
+            return true; // nothing sent, such as the response of a POST
+        }
+
+        try {
+            if (compactParser != null) {
+                compactParser.endOfInput();
+            } else {
+                feeder.endOfInput();
+            }
+            decodeAvailableTokens();
+        } catch (IOException e) {
+            fail(e);
+            return false;
+        }
+
+        if (!finished) {
+            log.warn("document ended before it is closed");
+            failed = true;
+            return false;
+        }
+        listener.decodingFinished();
+        return true;
+    }
+
+
+    private void fail(Exception e) {
+        log.warn("exception: {}", e.toString());
+        failed = true;
+        if (parser == null) {
+            return;
+        }
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            // nothing to do here
+        }
+    }
+
+    private void decodeAvailableTokens() throws IOException {
+        JsonToken token;
+        while ((token = nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            started = true;
+
+            if (element.isEmpty()) {
+                decodeOutOfElement(token);
+            } else {
+                decodeInElement(token);
+            }
+        }
+    }
+
+    private JsonToken nextToken() throws IOException {
+        return (compactParser != null) ? compactParser.nextToken() : parser.nextToken();
+    }
+
+    private String getCurrentName() throws IOException {
+        return (compactParser != null) ? compactParser.getCurrentName() : parser.getCurrentName();
+    }
+
+    private void decodeOutOfElement(JsonToken token) throws IOException {
+        Frame parent = frames.peekLast();
+
+        switch (token) {
+            case FIELD_NAME:
+                fieldName = getCurrentName();
+                break;
+
+            case START_OBJECT:
+                if (parent != null && parent.array) {
+                    element.addLast(NODES.objectNode());
+                } else {
+                    frames.addLast(new Frame(parent == null ? null : fieldName, false));
+                }
+                break;
+
+            case START_ARRAY:
+                if (parent != null && parent.array) {
+                    element.addLast(NODES.arrayNode()); // not an object; decoded to be skipped
+                } else {
+                    frames.addLast(new Frame(parent == null ? null : fieldName, true));
+                    listener.arrayStarted(buildPath(null));
+                }
+                break;
+
+            case END_OBJECT:
+            case END_ARRAY:
+                frames.pollLast();
+                if (frames.isEmpty()) {
+                    finished = true;
+                }
+                break;
+
+            default:
+                if (parent != null && !parent.array) {
+                    listener.valueDecoded(buildPath(fieldName), readValue(token));
+                }
+                break;
+        }
+    }
+
+    private void decodeInElement(JsonToken token) throws IOException {
+        switch (token) {
+            case FIELD_NAME:
+                fieldName = getCurrentName();
+                break;
+
+            case START_OBJECT:
+                ObjectNode object = NODES.objectNode();
+                addToElement(object);
+                element.addLast(object);
+                break;
+
+            case START_ARRAY:
+                ArrayNode array = NODES.arrayNode();
+                addToElement(array);
+                element.addLast(array);
+                break;
+
+            case END_OBJECT:
+            case END_ARRAY:
+                ContainerNode<?> closed = element.pollLast();
+                if (element.isEmpty() && closed.isObject()) {
+                    listener.elementDecoded(buildPath(null), (ObjectNode) closed);
+                }
+                break;
+
+            default:
+                addToElement(readValue(token));
+                break;
+        }
+    }
+
+    private void addToElement(JsonNode value) {
+        ContainerNode<?> parent = element.peekLast();
+        if (parent.isObject()) {
+            ((ObjectNode) parent).set(fieldName, value);
+        } else {
+            ((ArrayNode) parent).add(value);
+        }
+    }
+
+    private JsonNode readValue(JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return NODES.textNode((compactParser != null) ? compactParser.getText() : parser.getText());
+            case VALUE_NUMBER_INT:
+                return NODES.numberNode((compactParser != null) ? compactParser.getLongValue() : parser.getLongValue());
+            case VALUE_NUMBER_FLOAT:
+                return NODES.numberNode(
+                        (compactParser != null) ? compactParser.getDoubleValue() : parser.getDoubleValue());
+            case VALUE_TRUE:
+                return NODES.booleanNode(true);
+            case VALUE_FALSE:
+                return NODES.booleanNode(false);
+            default:
+                return NODES.nullNode();
+        }
+    }
+
+    // names from the root, such as "edgeUpdates/added"
+    private String buildPath(String lastName) {
+        StringBuilder sb = new StringBuilder();
+        Iterator<Frame> it = frames.iterator();
+        while (it.hasNext()) {
+            String name = it.next().name;
+            if (name != null) {
+                sb.append(sb.length() > 0 ? "/" : "").append(name);
+            }
+        }
+        if (lastName != null) {
+            sb.append(sb.length() > 0 ? "/" : "").append(lastName);
+        }
+        return sb.toString();
+    }
+
+
+    private static class Frame {
+        private final String name; // null for the root
+        private final boolean array;
+
+        private Frame(String name, boolean array) {
+            this.name = name;
+            this.array = array;
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+package org.onosproject.orch.rest.client.explicit;
+
+import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.core.explicit.ExplicitTopologyConstructor;
+import org.onosproject.orch.rest.client.AbstractStreamHandler;
+import org.onosproject.orch.rest.client.StreamingJsonDecoder;
+
+import java.util.concurrent.CompletableFuture;
+
+
+public class StreamHandlerForExplicitElements extends AbstractStreamHandler {
+
+    private Orchestration orch;
+
+
+    public StreamHandlerForExplicitElements(CompletableFuture<Void> completion, Orchestration orch) {
+        super(completion);
+        this.orch = orch;
+    }
+
+
+    @Override
+    protected StreamingJsonDecoder.Listener createContentListener() {
+        return ExplicitTopologyConstructor.create(getServerIp(), orch);
+    }
+
+}
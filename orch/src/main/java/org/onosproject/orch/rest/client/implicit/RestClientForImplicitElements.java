@@ -1,10 +1,14 @@
 package org.onosproject.orch.rest.client.implicit;
 
-import io.netty.bootstrap.Bootstrap;
-import io.netty.channel.EventLoopGroup;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.netty.handler.codec.http.HttpMethod;
 import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.rest.client.AbstractResponseHandler;
 import org.onosproject.orch.rest.client.AbstractRestClient;
+import org.onosproject.orch.rest.client.AbstractStreamHandler;
+import org.onosproject.orch.rest.client.RestClientPool;
+
+import java.util.concurrent.CompletableFuture;
 
 
 public class RestClientForImplicitElements extends AbstractRestClient {
@@ -13,22 +17,36 @@ public class RestClientForImplicitElements extends AbstractRestClient {
 
 
     public RestClientForImplicitElements(String ip, int port, String uri, Orchestration orch) {
-        super(ip, port, HttpMethod.GET, uri, "");
+        super(orch.getRestClientPool(), ip, port, HttpMethod.GET, uri, "");
 
         this.orch = orch;
     }
 
     public RestClientForImplicitElements(
             String ip, int port, HttpMethod method, String uri, String body, Orchestration orch) {
-        super(ip, port, method, uri, body);
+        super(orch.getRestClientPool(), ip, port, method, uri, body);
 
         this.orch = orch;
     }
 
+    // the body is sent in json, or in the form of CompactJson to children which have it
+    public RestClientForImplicitElements(
+            String ip, int port, HttpMethod method, String uri, JsonNode body, Orchestration orch) {
+        super(orch.getRestClientPool(), ip, port, method, uri, body);
+
+        this.orch = orch;
+    }
+
+
+    @Override
+    protected AbstractResponseHandler createResponseHandler(RestClientPool pool,
+                                                            CompletableFuture<Void> completion) {
+        return new ResponseHandlerForImplicitElements(pool, completion, orch);
+    }
 
     @Override
-    protected void setHandlerForBootstrap(Bootstrap b, EventLoopGroup group) {
-        b.handler(new PipelineForImplicitElements(group, orch));
+    protected AbstractStreamHandler createStreamHandler(CompletableFuture<Void> completion) {
+        return new StreamHandlerForImplicitElements(completion, orch);
     }
 
 }
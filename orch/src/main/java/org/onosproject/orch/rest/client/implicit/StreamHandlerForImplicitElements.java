@@ -0,0 +1,27 @@
+package org.onosproject.orch.rest.client.implicit;
+
+import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.core.implicit.ImplicitTopologyConstructor;
+import org.onosproject.orch.rest.client.AbstractStreamHandler;
+import org.onosproject.orch.rest.client.StreamingJsonDecoder;
+
+import java.util.concurrent.CompletableFuture;
+
+
+public class StreamHandlerForImplicitElements extends AbstractStreamHandler {
+
+    private Orchestration orch;
+
+
+    public StreamHandlerForImplicitElements(CompletableFuture<Void> completion, Orchestration orch) {
+        super(completion);
+        this.orch = orch;
+    }
+
+
+    @Override
+    protected StreamingJsonDecoder.Listener createContentListener() {
+        return ImplicitTopologyConstructor.create(getServerIp(), orch);
+    }
+
+}
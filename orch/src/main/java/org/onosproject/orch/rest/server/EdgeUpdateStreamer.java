@@ -0,0 +1,125 @@
+package org.onosproject.orch.rest.server;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onosproject.orch.json.Json;
+import org.onosproject.orch.monitor.LinkChangeListener;
+import org.onosproject.orch.monitor.LinkChangeLog;
+import org.onosproject.orch.monitor.TopologyInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+
+
+// pushes link changes to the subscribed parents as server-sent events,
+// each of them is the same json message as the one of GET /edgeUpdates?since=...
+public class EdgeUpdateStreamer {
+
+    private static final long HEARTBEAT_INTERVAL_SECONDS = 15;
+
+    private static final String HEARTBEAT_EVENT = ": heartbeat\n\n";
+
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final TopologyInformation info;
+
+    private final ConcurrentHashMap<Channel, LinkChangeListener> subscribers;
+
+
+    public EdgeUpdateStreamer(TopologyInformation info) {
+        this.info = info;
+        subscribers = new ConcurrentHashMap<>();
+    }
+
+
+    public void stop() {
+        for (Channel channel : subscribers.keySet()) {
+            channel.close();
+        }
+    }
+
+
+    // changes after the cursor are sent first; returns false if the cursor is no longer valid.
+    // called on the event loop of the channel, which writes the header and every event in order
+    public boolean subscribe(Channel channel, LinkView view, long cursor) {
+        // changes, replayed ones or those of the threads of onos, are written by tasks of the event loop,
+        // which run after this one has written the header
+        LinkChangeListener listener = change -> {
+            String event = buildEdgeUpdatesEvent(change, view);
+            if (event != null) {
+                channel.eventLoop().execute(() -> writeEvent(channel, event));
+            }
+        };
+
+        if (!info.addLinkChangeListener(listener, cursor)) {
+            return false;
+        }
+
+        HttpResponse response = new DefaultHttpResponse(HTTP_1_1, HttpResponseStatus.OK);
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/event-stream");
+        response.headers().set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+        response.headers().set(HttpHeaderNames.CACHE_CONTROL, HttpHeaderValues.NO_CACHE);
+        channel.writeAndFlush(response);
+
+        subscribers.put(channel, listener);
+        log.info("{} subscribed edge updates ({}) since {}", channel.remoteAddress(), view, cursor);
+
+        // lets the subscriber detect a dead stream by its read timeout
+        ScheduledFuture<?> heartbeat = channel.eventLoop().scheduleAtFixedRate(
+                () -> writeEvent(channel, HEARTBEAT_EVENT),
+                HEARTBEAT_INTERVAL_SECONDS, HEARTBEAT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        channel.closeFuture().addListener(future -> {
+            heartbeat.cancel(false);
+            info.removeLinkChangeListener(listener);
+            subscribers.remove(channel);
+            log.info("{} unsubscribed edge updates", channel.remoteAddress());
+        });
+
+        return true;
+    }
+
+
+    private String buildEdgeUpdatesEvent(LinkChangeLog.Entry change, LinkView view) {
+        ObjectNode linkJson = view.select(change);
+        if (linkJson == null) {
+            return null; // not an interlink
+        }
+
+        ObjectNode root = Json.objectNode();
+        ObjectNode edgeUpdates = root.putObject("edgeUpdates");
+        edgeUpdates.put("seq", change.seq);
+        edgeUpdates.put("snapshot", false);
+        if (change.removal) {
+            edgeUpdates.putArray("added");
+            edgeUpdates.putArray("deleted").add(linkJson);
+        } else {
+            edgeUpdates.putArray("added").add(linkJson);
+            edgeUpdates.putArray("deleted");
+        }
+
+        return "data: " + Json.encodeToString(root) + "\n\n";
+    }
+
+    private void writeEvent(Channel channel, String event) {
+        if (!channel.isActive()) {
+            return;
+        }
+        channel.writeAndFlush(new DefaultHttpContent(Unpooled.copiedBuffer(event, CharsetUtil.UTF_8)));
+    }
+
+}
@@ -0,0 +1,75 @@
+package org.onosproject.orch.rest.server;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onosproject.orch.monitor.LinkChangeLog;
+import org.onosproject.orch.monitor.TopologyInformation;
+
+import java.util.List;
+
+
+public enum LinkView {
+
+    EXPLICIT {
+        List<ObjectNode> getLinksJson(TopologyInformation info) {
+            return info.getExplicitLinksJson();
+        }
+        byte[] getLinksDocument(TopologyInformation info) {
+            return info.getExplicitLinksDocument();
+        }
+        byte[] getLinksCompactDocument(TopologyInformation info) {
+            return info.getExplicitLinksCompactDocument();
+        }
+        String getLinksEntityTag(TopologyInformation info) {
+            return info.getExplicitLinksEntityTag();
+        }
+        ObjectNode select(LinkChangeLog.Entry change) {
+            return change.explicitJson;
+        }
+    },
+
+    SUMMARY {
+        List<ObjectNode> getLinksJson(TopologyInformation info) {
+            return info.getSummaryLinksJson();
+        }
+        byte[] getLinksDocument(TopologyInformation info) {
+            return info.getSummaryLinksDocument();
+        }
+        byte[] getLinksCompactDocument(TopologyInformation info) {
+            return info.getSummaryLinksCompactDocument();
+        }
+        String getLinksEntityTag(TopologyInformation info) {
+            return info.getSummaryLinksEntityTag();
+        }
+        ObjectNode select(LinkChangeLog.Entry change) {
+            return change.summaryJson;
+        }
+    },
+
+    IMPLICIT {
+        List<ObjectNode> getLinksJson(TopologyInformation info) {
+            return info.getImplicitLinksJson();
+        }
+        byte[] getLinksDocument(TopologyInformation info) {
+            return info.getImplicitLinksDocument();
+        }
+        byte[] getLinksCompactDocument(TopologyInformation info) {
+            return info.getImplicitLinksCompactDocument();
+        }
+        String getLinksEntityTag(TopologyInformation info) {
+            return info.getImplicitLinksEntityTag();
+        }
+        ObjectNode select(LinkChangeLog.Entry change) {
+            return change.implicitJson; // null if the link is not an interlink
+        }
+    };
+
+    abstract List<ObjectNode> getLinksJson(TopologyInformation info);
+
+    abstract byte[] getLinksDocument(TopologyInformation info);
+
+    abstract byte[] getLinksCompactDocument(TopologyInformation info);
+
+    abstract String getLinksEntityTag(TopologyInformation info);
+
+    abstract ObjectNode select(LinkChangeLog.Entry change);
+}
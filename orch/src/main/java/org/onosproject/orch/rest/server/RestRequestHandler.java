@@ -1,25 +1,48 @@
 package org.onosproject.orch.rest.server;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.codec.http.*;
 import io.netty.util.CharsetUtil;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.onlab.packet.MacAddress;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.PortNumber;
 import org.onosproject.orch.Orchestration;
+import org.onosproject.orch.adt.elem.ProvisioningRequest;
+import org.onosproject.orch.core.ChildHealth;
+import org.onosproject.orch.core.PathCache;
+import org.onosproject.orch.json.CompactJson;
+import org.onosproject.orch.json.Json;
+import org.onosproject.orch.monitor.LinkChangeLog;
 import org.onosproject.orch.monitor.TopologyInformation;
+import org.onosproject.orch.trace.Span;
+import org.onosproject.orch.trace.Trace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static io.netty.handler.codec.http.HttpHeaders.Names.*;
 import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
@@ -27,67 +50,249 @@ import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
 
 public class RestRequestHandler extends ChannelInboundHandlerAdapter {
 
+    // uris labelled by themselves in the metrics; any other one is "other", not to grow a series per uri
+    private static final Set<String> METRIC_URIS = new HashSet<>(Arrays.asList(
+            "/devices", "/devices/explicit", "/devices/summary",
+            "/links", "/links/explicit", "/links/summary", "/links/implicit", "/hosts",
+            "/edgeUpdates", "/edgeUpdates/explicit", "/edgeUpdates/summary", "/edgeUpdates/implicit",
+            "/edgeUpdates/stream", "/edgeUpdates/stream/explicit", "/edgeUpdates/stream/summary",
+            "/edgeUpdates/stream/implicit",
+            "/provisioning", "/provisioning/batch", "/flows", "/children",
+            "/abstraction", "/polling", "/health", "/stats", "/metrics", "/traces", "/traces/{id}"));
+
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
 
     private Orchestration orch;
     private TopologyInformation info;
+    private EdgeUpdateStreamer streamer;
+    private Executor requestExecutor; // bounded; the event loop only decodes requests and writes responses
 
     private HttpRequest httpRequest;
     private HttpMethod method;
     private String uri;
+    private Map<String, List<String>> parameters;
+    private long requestStartTime; // System.nanoTime() when the request line arrives
+    private Trace trace; // of the request being handled, null if not traced
 
     private StringBuffer contentBuffer;
     private String content;
+    private ByteArrayOutputStream compactContent; // instead of the two above for a body in the form of CompactJson
+    private boolean compactAccepted; // documents of the response may be in the form of CompactJson
 
     private HttpResponseStatus responseStatus;
+    private byte[] encodedResponse; // set instead of returning a string, for documents encoded in advance
+    private boolean compactResponse; // set with an encoded response in the form of CompactJson
+    private String entityTag; // set with a document which can be requested conditionally
+    private CompletableFuture<String> pendingResponse; // set if the response waits for the request to complete
 
+    private boolean busy; // a request is being handled; later messages of the connection wait for its response
+    private ArrayDeque<Object> deferredMessages;
 
-    public RestRequestHandler(Orchestration orch) {
+
+    public RestRequestHandler(Orchestration orch, EdgeUpdateStreamer streamer, Executor requestExecutor) {
         this.orch = orch;
         this.info = orch.getTopologyInformation();
+        this.streamer = streamer;
+        this.requestExecutor = requestExecutor;
         contentBuffer = new StringBuffer();
+
+        busy = false;
+        deferredMessages = new ArrayDeque<>();
     }
 
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (busy) {
+            // pipelined by the client; answered in order after the current response
+            deferredMessages.addLast(msg);
+            return;
+        }
+        handleMessage(ctx, msg);
+    }
+
+    private void handleMessage(ChannelHandlerContext ctx, Object msg) {
 
         if (msg instanceof DefaultHttpRequest) {
             httpRequest = (DefaultHttpRequest)msg;
+            requestStartTime = System.nanoTime();
             method = httpRequest.method();
-            uri = httpRequest.uri();
+            QueryStringDecoder decoder = new QueryStringDecoder(httpRequest.uri());
+            uri = decoder.path();
+            parameters = decoder.parameters();
+
+            // json unless the client has the compact form too; parents ask for it, other clients never do
+            String contentType = httpRequest.headers().get(CONTENT_TYPE);
+            compactContent = (contentType != null && contentType.startsWith(CompactJson.MEDIA_TYPE))
+                    ? new ByteArrayOutputStream() : null;
+            String accept = httpRequest.headers().get(ACCEPT);
+            compactAccepted = (accept != null && accept.contains(CompactJson.MEDIA_TYPE));
 
             log.info("method, uri: {}, {}", method, uri);
         }
 
         if (msg instanceof HttpContent) {
             HttpContent content = (HttpContent)msg;
-            contentBuffer.append(content.content().toString(CharsetUtil.UTF_8));
+            if (compactContent != null) {
+                byte[] bytes = ByteBufUtil.getBytes(content.content());
+                compactContent.write(bytes, 0, bytes.length);
+            } else {
+                contentBuffer.append(content.content().toString(CharsetUtil.UTF_8));
+            }
         }
 
         if (msg instanceof LastHttpContent) {
             content = contentBuffer.toString();
-            log.info("content: {}", content);
+            contentBuffer.setLength(0); // the connection can be kept alive for next requests
+            if (compactContent != null) {
+                log.info("content: {} bytes of compact json", compactContent.size());
+            } else {
+                log.info("content: {}", content);
+            }
 
-            String resp = buildResponseForRestRequest(); // responseStatus will be changed with returning
+            if (subscribeEdgeUpdatesStream(ctx)) {
+                return; // the response is kept open and written by the streamer
+            }
+            trace = startTrace();
 
-            if (HttpUtil.is100ContinueExpected(httpRequest)) {
-                ctx.write(new DefaultFullHttpResponse(HTTP_1_1, HttpResponseStatus.CONTINUE));
+            // fields of this handler are only touched by one thread at a time:
+            // the executor while building the response, then the event loop while writing it
+            busy = true;
+            ctx.channel().config().setAutoRead(false);
+            try {
+                requestExecutor.execute(() -> handleRequest(ctx));
+            } catch (RejectedExecutionException e) {
+                log.warn("too many requests: {} {}", method, uri);
+                responseStatus = HttpResponseStatus.TOO_MANY_REQUESTS; // 429
+                writeResponse(ctx, "");
+                finishRequest(ctx);
             }
+        }
+    }
 
-            log.info("response: {}", resp);
-            FullHttpResponse res = new DefaultFullHttpResponse(HTTP_1_1, responseStatus,
-                    Unpooled.wrappedBuffer(resp.getBytes(CharsetUtil.UTF_8)));
-            res.headers().set(CONTENT_TYPE, "text/plain");
-            res.headers().set(CONTENT_LENGTH, res.content().readableBytes());
-
-            if (HttpUtil.isKeepAlive(httpRequest)) {
-                res.headers().set(CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
-                ctx.write(res);
+    // POST requests are traced, and any request of a trace of the parent under the id of the parent
+    private Trace startTrace() {
+        String traceId = httpRequest.headers().get(Trace.HEADER);
+        if (!Trace.isValidId(traceId)) {
+            if (!method.equals(HttpMethod.POST)) {
+                return null;
+            }
+            traceId = Trace.newId();
+        }
+        return orch.getTraceStore().start(traceId, method + " " + uri);
+    }
+
+    // on the request executor
+    private void handleRequest(ChannelHandlerContext ctx) {
+        String resp;
+        if (trace != null) {
+            trace.attach(); // spans and requests to children while building the response are of this trace
+        }
+        try {
+            resp = buildResponseForRestRequest(); // responseStatus will be changed with returning
+        } catch (RuntimeException e) {
+            log.warn("exception: {}", e.toString());
+            responseStatus = HttpResponseStatus.INTERNAL_SERVER_ERROR; // 500
+            encodedResponse = null;
+            compactResponse = false;
+            pendingResponse = null;
+            resp = "";
+        } finally {
+            Trace.detach();
+        }
+
+        String builtResponse = resp;
+        ctx.executor().execute(() -> {
+            if (pendingResponse != null) {
+                writeResponseWhenCompleted(ctx, pendingResponse);
+                pendingResponse = null;
+                return;
+            }
+            writeResponse(ctx, builtResponse);
+            finishRequest(ctx);
+        });
+    }
+
+    // on the event loop, after the response is written
+    private void finishRequest(ChannelHandlerContext ctx) {
+        ctx.flush();
+        busy = false;
+        ctx.channel().config().setAutoRead(true);
+
+        while (!busy && !deferredMessages.isEmpty()) {
+            handleMessage(ctx, deferredMessages.pollFirst());
+        }
+    }
+
+    // 200 when completed, 400 if the request cannot be done at all, 500 otherwise
+    private void writeResponseWhenCompleted(ChannelHandlerContext ctx, CompletableFuture<String> completion) {
+        HttpRequest request = httpRequest;
+        completion.whenComplete((result, cause) -> ctx.executor().execute(() -> {
+            HttpResponseStatus status;
+            String resp = "";
+            if (cause == null) {
+                status = HttpResponseStatus.OK; // 200
+                resp = result;
             } else {
-                ctx.write(res).addListener(ChannelFutureListener.CLOSE);
+                Throwable c = (cause instanceof CompletionException && cause.getCause() != null)
+                        ? cause.getCause() : cause;
+                log.warn("request {} {} failed: {}", request.method(), request.uri(), c.toString());
+                status = (c instanceof IllegalArgumentException)
+                        ? HttpResponseStatus.BAD_REQUEST // 400
+                        : HttpResponseStatus.INTERNAL_SERVER_ERROR; // 500
             }
+            writeResponse(ctx, request, status, resp);
+            finishRequest(ctx);
+        }));
+    }
+
+    private void writeResponse(ChannelHandlerContext ctx, String resp) {
+        writeResponse(ctx, httpRequest, responseStatus, resp);
+    }
+
+    private void writeResponse(ChannelHandlerContext ctx, HttpRequest request, HttpResponseStatus status,
+                               String resp) {
+        orch.getMetrics().observeRestRequest(method.name(), getMetricUri(), status.code(),
+                System.nanoTime() - requestStartTime);
+
+        if (HttpUtil.is100ContinueExpected(request)) {
+            ctx.write(new DefaultFullHttpResponse(HTTP_1_1, HttpResponseStatus.CONTINUE));
+        }
+
+        ByteBuf buf;
+        if (encodedResponse != null) {
+            log.info("response: {} bytes encoded in advance", encodedResponse.length);
+            buf = Unpooled.wrappedBuffer(encodedResponse); // shared, never copied
+            encodedResponse = null;
+        } else {
+            log.info("response: {}", resp);
+            buf = Unpooled.wrappedBuffer(resp.getBytes(CharsetUtil.UTF_8));
+        }
+
+        FullHttpResponse res = new DefaultFullHttpResponse(HTTP_1_1, status, buf);
+        res.headers().set(CONTENT_TYPE, compactResponse ? CompactJson.MEDIA_TYPE : "text/plain");
+        compactResponse = false;
+        res.headers().set(CONTENT_LENGTH, res.content().readableBytes());
+        if (entityTag != null) {
+            res.headers().set(ETAG, entityTag);
+            entityTag = null;
+        }
+        if (HttpResponseStatus.TOO_MANY_REQUESTS.equals(status)) {
+            res.headers().set(RETRY_AFTER, 1); // seconds
+        }
+        if (trace != null) {
+            trace.finish(status.code());
+            res.headers().set(Trace.HEADER, trace.getId());
+            trace = null;
+        }
+
+        if (HttpUtil.isKeepAlive(request)) {
+            res.headers().set(CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+            ctx.write(res);
+        } else {
+            ctx.write(res).addListener(ChannelFutureListener.CLOSE);
         }
     }
 
@@ -98,7 +303,7 @@ public class RestRequestHandler extends ChannelInboundHandlerAdapter {
 
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
-        System.err.println("Crap!");
+        log.warn("exception: {}", cause.toString());
         ctx.close();
     }
 
@@ -130,7 +335,10 @@ public class RestRequestHandler extends ChannelInboundHandlerAdapter {
 
 	// POST
     private String buildResponseForPostMessage() {
-        if (uri.startsWith("/provisioning")) {
+        if (uri.startsWith("/provisioning/batch")) {
+            return buildResponseForPostProvisioningBatchMessage();
+
+        } else if (uri.startsWith("/provisioning")) {
             return buildResponseForPostProvisioningMessage();
 
         } else if (uri.startsWith("/flows")) {
@@ -150,79 +358,177 @@ public class RestRequestHandler extends ChannelInboundHandlerAdapter {
         ConnectPoint src, dst;
         MacAddress srcMac, dstMac;
         boolean hasTerminalNode;
+        Span parseSpan = Trace.startSpan("parse", null);
         try {
-            JSONObject root = new JSONObject(content);
+            ObjectNode root = decodeContent();
 
-            JSONObject provisioningNode = root.getJSONObject("provisioning");
+            ObjectNode provisioningNode = Json.getObject(root, "provisioning");
 
-            JSONObject srcNode = provisioningNode.getJSONObject("src");
-            DeviceId srcId = DeviceId.deviceId(srcNode.getString("device"));
-            PortNumber srcPort = PortNumber.portNumber(srcNode.getLong("port"));
+            ObjectNode srcNode = Json.getObject(provisioningNode, "src");
+            DeviceId srcId = DeviceId.deviceId(Json.getText(srcNode, "device"));
+            PortNumber srcPort = PortNumber.portNumber(Json.getLong(srcNode, "port"));
             src = new ConnectPoint(srcId, srcPort);
 
-            JSONObject dstNode = provisioningNode.getJSONObject("dst");
-            DeviceId dstId = DeviceId.deviceId(dstNode.getString("device"));
-            PortNumber dstPort = PortNumber.portNumber(dstNode.getLong("port"));
+            ObjectNode dstNode = Json.getObject(provisioningNode, "dst");
+            DeviceId dstId = DeviceId.deviceId(Json.getText(dstNode, "device"));
+            PortNumber dstPort = PortNumber.portNumber(Json.getLong(dstNode, "port"));
             dst = new ConnectPoint(dstId, dstPort);
 
             hasTerminalNode = provisioningNode.has("terminal");
             if (hasTerminalNode) {
-                JSONObject terminalNode = provisioningNode.getJSONObject("terminal");
-                srcMac = MacAddress.valueOf(terminalNode.getString("src"));
-                dstMac = MacAddress.valueOf(terminalNode.getString("dst"));
+                ObjectNode terminalNode = Json.getObject(provisioningNode, "terminal");
+                srcMac = MacAddress.valueOf(Json.getText(terminalNode, "src"));
+                dstMac = MacAddress.valueOf(Json.getText(terminalNode, "dst"));
             } else {
                 srcMac = null;
                 dstMac = null;
             }
+            parseSpan.end();
 
-        } catch (JSONException e) {
+        } catch (IOException | IllegalArgumentException e) {
+            parseSpan.end(e);
             log.warn("exception: {}", e.toString());
             responseStatus = HttpResponseStatus.BAD_REQUEST; // 400
             return "";
         }
 
+        // answered when the flow rules are installed on every domain of the path
+        CompletableFuture<Void> provisioning;
         if (hasTerminalNode) {
-            orch.divideProvisioning(src, dst, srcMac, dstMac);
+            provisioning = orch.divideProvisioning(src, dst, srcMac, dstMac);
         } else {
-            orch.divideProvisioning(src, dst);
+            provisioning = orch.divideProvisioning(src, dst);
         }
+        pendingResponse = provisioning.thenApply(result -> "");
+        return "";
+    }
 
-        responseStatus = HttpResponseStatus.OK; // 200
+    // POST /provisioning/batch
+    // {"provisionings":[{"src":{...},"dst":{...},"terminal":{...}},...]},
+    // each one as "provisioning" of POST /provisioning.
+    // answered when every provisioning is done, with {"results":[{"index":0,"status":200},...]}
+    private String buildResponseForPostProvisioningBatchMessage() {
+        ArrayNode provisioningsNode;
+        Span parseSpan = Trace.startSpan("parse", null);
+        try {
+            ObjectNode root = decodeContent();
+            provisioningsNode = Json.getArray(root, "provisionings");
+        } catch (IOException | IllegalArgumentException e) {
+            parseSpan.end(e);
+            log.warn("exception: {}", e.toString());
+            responseStatus = HttpResponseStatus.BAD_REQUEST; // 400
+            return "";
+        }
+
+        List<ProvisioningRequest> requests = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>(); // index in the batch of each valid request
+        ArrayNode resultsNode = Json.arrayNode();
+        for (int i = 0; i < provisioningsNode.size(); i++) {
+            try {
+                requests.add(decodeProvisioningRequest(provisioningsNode.get(i)));
+                indexes.add(i);
+            } catch (IllegalArgumentException e) {
+                log.warn("exception: {}", e.toString());
+                addProvisioningResult(resultsNode, i, HttpResponseStatus.BAD_REQUEST, e.toString());
+            }
+        }
+        parseSpan.end();
+
+        List<CompletableFuture<Void>> provisionings = orch.divideProvisioning(requests);
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < provisionings.size(); i++) {
+            int index = indexes.get(i);
+            results.add(provisionings.get(i).handle((result, cause) -> {
+                Throwable c = (cause instanceof CompletionException && cause.getCause() != null)
+                        ? cause.getCause() : cause;
+                synchronized (resultsNode) {
+                    if (c == null) {
+                        addProvisioningResult(resultsNode, index, HttpResponseStatus.OK, null);
+                    } else if (c instanceof IllegalArgumentException) {
+                        addProvisioningResult(resultsNode, index, HttpResponseStatus.BAD_REQUEST, c.toString());
+                    } else {
+                        addProvisioningResult(resultsNode, index, HttpResponseStatus.INTERNAL_SERVER_ERROR,
+                                c.toString());
+                    }
+                }
+                return null;
+            }));
+        }
+
+        pendingResponse = CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).thenApply(result -> {
+            ObjectNode root = Json.objectNode();
+            synchronized (resultsNode) {
+                root.set("results", resultsNode);
+                return encodeDocument(root);
+            }
+        });
         return "";
     }
 
+    // "provisioning" of POST /provisioning; mac addresses are looked up from the locations without "terminal"
+    private ProvisioningRequest decodeProvisioningRequest(JsonNode provisioningNode) {
+        ObjectNode srcNode = Json.getObject(provisioningNode, "src");
+        DeviceId srcId = DeviceId.deviceId(Json.getText(srcNode, "device"));
+        PortNumber srcPort = PortNumber.portNumber(Json.getLong(srcNode, "port"));
+
+        ObjectNode dstNode = Json.getObject(provisioningNode, "dst");
+        DeviceId dstId = DeviceId.deviceId(Json.getText(dstNode, "device"));
+        PortNumber dstPort = PortNumber.portNumber(Json.getLong(dstNode, "port"));
+
+        MacAddress srcMac = null;
+        MacAddress dstMac = null;
+        if (provisioningNode.has("terminal")) {
+            ObjectNode terminalNode = Json.getObject(provisioningNode, "terminal");
+            srcMac = MacAddress.valueOf(Json.getText(terminalNode, "src"));
+            dstMac = MacAddress.valueOf(Json.getText(terminalNode, "dst"));
+        }
+
+        return new ProvisioningRequest(new ConnectPoint(srcId, srcPort), new ConnectPoint(dstId, dstPort),
+                srcMac, dstMac);
+    }
+
+    private void addProvisioningResult(ArrayNode resultsNode, int index, HttpResponseStatus status, String error) {
+        ObjectNode resultNode = resultsNode.addObject();
+        resultNode.put("index", index);
+        resultNode.put("status", status.code());
+        if (error != null) {
+            resultNode.put("error", error);
+        }
+    }
+
     // POST /flows
     private String buildResponseForPostFlowsMessage() {
-        orch.applyFlowRulesToMyself(content);
+        if (compactContent != null) {
+            // flow rules are decoded from json by the codecs of onos
+            responseStatus = HttpResponseStatus.UNSUPPORTED_MEDIA_TYPE; // 415
+            return "";
+        }
 
-        responseStatus = HttpResponseStatus.OK; // 200
+        // answered when the flow rules are installed
+        pendingResponse = orch.applyFlowRulesToMyself(content).thenApply(result -> "");
         return "";
     }
 
     // POST /children
     private String buildResponseForPostChildrenMessage() {
-        JSONObject root;
-        JSONArray childrenNode;
+        ArrayNode childrenNode;
         try {
-            root = new JSONObject(content);
-            childrenNode = root.getJSONArray("children");
-        } catch (JSONException e) {
+            ObjectNode root = decodeContent();
+            childrenNode = Json.getArray(root, "children");
+        } catch (IOException | IllegalArgumentException e) {
             log.warn("exception: {}", e.toString());
             responseStatus = HttpResponseStatus.BAD_REQUEST; // 400
             return "";
         }
 
         ArrayList<String> children = new ArrayList<>();
-        int length = childrenNode.length();
-        for (int i = 0; i < length; i++) {
-            String child;
-            try {
-                child = childrenNode.getString(i);
-            } catch (JSONException e) {
-                log.warn("exception: {}", e.toString());
+        for (JsonNode childNode : childrenNode) {
+            if (!childNode.isTextual()) {
+                log.warn("child is not a string: {}", childNode);
                 continue;
             }
-            children.add(child);
+            children.add(childNode.textValue());
         }
         orch.executeTopologyDiscoveryAndAddChildren(children);
 
@@ -245,6 +551,15 @@ public class RestRequestHandler extends ChannelInboundHandlerAdapter {
         } else if (uri.startsWith("/edgeUpdates")) {
             return buildResponseForGetEdgeUpdatesMessage();
 
+        } else if (uri.startsWith("/stats")) {
+            return buildResponseForGetStatsMessage();
+
+        } else if (uri.startsWith("/metrics")) {
+            return buildResponseForGetMetricsMessage();
+
+        } else if (uri.startsWith("/traces")) {
+            return buildResponseForGetTracesMessage();
+
         }
 
         responseStatus = HttpResponseStatus.NOT_FOUND; // 404
@@ -255,25 +570,28 @@ public class RestRequestHandler extends ChannelInboundHandlerAdapter {
     private String buildResponseForGetDevicesMessage() {
         String subUri = uri.substring(8); // "/devices..."
 
-        JSONObject root = new JSONObject();
-        JSONArray devices = new JSONArray();
-
         switch (subUri) {
             case "":
             case "/":
             case "/explicit":
             case "/explicit/":
-                for (JSONObject deviceJson : info.getExplicitDevicesJson()) {
-                    devices.put(deviceJson);
+                if (isNotModified(info.getExplicitDevicesEntityTag())) {
+                    return "";
                 }
+                encodedResponse = compactAccepted
+                        ? info.getExplicitDevicesCompactDocument() : info.getExplicitDevicesDocument();
+                compactResponse = compactAccepted;
 
                 break;
 
             case "/summary":
             case "/summary/":
-                for (JSONObject deviceJson : info.getSummaryDevicesJson()) {
-                    devices.put(deviceJson);
+                if (isNotModified(info.getSummaryDevicesEntityTag())) {
+                    return "";
                 }
+                encodedResponse = compactAccepted
+                        ? info.getSummaryDevicesCompactDocument() : info.getSummaryDevicesDocument();
+                compactResponse = compactAccepted;
 
                 break;
 
@@ -282,156 +600,278 @@ public class RestRequestHandler extends ChannelInboundHandlerAdapter {
                 return "";
         }
 
-        try {
-            root.put("devices", devices);
+        responseStatus = HttpResponseStatus.OK; // 200
+        return "";
+    }
 
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
-            responseStatus = HttpResponseStatus.INTERNAL_SERVER_ERROR; // 500
+    // GET /links, GET /links/explicit, GET /links/summary, GET /links/implicit
+    private String buildResponseForGetLinksMessage() {
+        String subUri = uri.substring(6); // "/links..."
+
+        LinkView view = parseLinkView(subUri);
+        if (view == null) {
+            responseStatus = HttpResponseStatus.NOT_FOUND; // 404
+            return "";
+        }
+
+        if (isNotModified(view.getLinksEntityTag(info))) {
             return "";
         }
 
+        // with "seq", the cursor for GET /edgeUpdates?since=...
+        encodedResponse = compactAccepted ? view.getLinksCompactDocument(info) : view.getLinksDocument(info);
+        compactResponse = compactAccepted;
+
         responseStatus = HttpResponseStatus.OK; // 200
-        return root.toString();
+        return "";
     }
 
-    // GET /links, GET /links/explicit, GET /links/summary, GET /links/implicit
-    private synchronized String buildResponseForGetLinksMessage() {
-        String subUri = uri.substring(6); // "/links..."
+    // GET /hosts, GET /hosts/...
+    private String buildResponseForGetHostsMessage() {
+        if (isNotModified(info.getHostsEntityTag())) {
+            return "";
+        }
+        encodedResponse = compactAccepted
+                ? info.getHostsCompactDocument() : info.getHostsDocument();
+        compactResponse = compactAccepted;
 
-        JSONObject root = new JSONObject();
-        JSONArray links = new JSONArray();
+        responseStatus = HttpResponseStatus.OK; // 200
+        return "";
+    }
 
-        switch (subUri) {
-            case "":
-            case "/":
-            case "/explicit":
-            case "/explicit/":
-                for (JSONObject linkJson : info.getExplicitLinksJsonAndClearChanges()) {
-                    links.put(linkJson);
-                }
+    // GET /edgeUpdates, GET /edgeUpdates/explicit, GET /edgeUpdates/summary, GET /edgeUpdates/implicit
+    // with ?since=<seq>; a full snapshot is returned if the cursor is missing or no longer valid
+    private String buildResponseForGetEdgeUpdatesMessage() {
+        String subUri = uri.substring(12); // "/edgeUpdates..."
 
-                break;
+        LinkView view = parseLinkView(subUri);
+        if (view == null) {
+            responseStatus = HttpResponseStatus.NOT_FOUND; // 404
+            return "";
+        }
 
-            case "/summary":
-            case "/summary/":
-                for (JSONObject linkJson : info.getSummaryLinksJsonAndClearChanges()) {
-                    links.put(linkJson);
-                }
+        ObjectNode root = Json.objectNode();
+        ObjectNode edgeUpdates = root.putObject("edgeUpdates");
+        ArrayNode added = Json.arrayNode();
+        ArrayNode deleted = Json.arrayNode();
 
-                break;
+        Long cursor = getCursorParameter();
+        Collection<LinkChangeLog.Entry> changes = (cursor == null) ? null : info.getLinkChangesSince(cursor);
 
-            case "/implicit":
-            case "/implicit/":
-                for (JSONObject linkJson : info.getImplicitLinksJsonAndClearChanges()) {
-                    links.put(linkJson);
-                }
+        long seq;
+        boolean snapshot = (changes == null);
+        if (snapshot) {
+            seq = info.getLastSeqOfLinkChanges();
+            added.addAll(view.getLinksJson(info));
 
-                break;
+        } else {
+            seq = cursor;
+            for (LinkChangeLog.Entry change : changes) {
+                seq = change.seq;
 
-            default:
-                responseStatus = HttpResponseStatus.NOT_FOUND; // 404
-                return "";
+                ObjectNode linkJson = view.select(change);
+                if (linkJson == null) {
+                    continue;
+                }
+                if (change.removal) {
+                    deleted.add(linkJson);
+                } else {
+                    added.add(linkJson);
+                }
+            }
         }
 
-        try {
-            root.put("links", links);
+        edgeUpdates.put("seq", seq);
+        edgeUpdates.put("snapshot", snapshot);
+        edgeUpdates.set("added", added);
+        edgeUpdates.set("deleted", deleted);
 
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
-            responseStatus = HttpResponseStatus.INTERNAL_SERVER_ERROR; // 500
-            return "";
+        responseStatus = HttpResponseStatus.OK; // 200
+        return encodeDocument(root);
+    }
+
+    // GET /stats
+    // {"monitoring":{"maxPollingInterval":...,"withdrawAfter":...,"children":[{"ip":...,"streaming":...,
+    //  "pollingInterval":...,"missedDeadlines":...,"health":{...}},...]},"pathCache":{...},"executors":{...}};
+    // times in ms
+    private String buildResponseForGetStatsMessage() {
+        ObjectNode root = Json.objectNode();
+
+        ObjectNode monitoringNode = root.putObject("monitoring");
+        monitoringNode.put("maxPollingInterval", orch.getMaxPollingInterval());
+        monitoringNode.put("withdrawAfter", orch.getChildWithdrawalTimeout());
+        ArrayNode childrenNode = monitoringNode.putArray("children");
+        Map<String, Long> pollingIntervals = orch.getPollingIntervals();
+        Map<String, Long> missedDeadlines = orch.getMissedMonitoringDeadlines();
+        for (String child : orch.getChildren()) {
+            ObjectNode childNode = childrenNode.addObject();
+            childNode.put("ip", child);
+            childNode.put("streaming", orch.isStreamingChild(child));
+            if (pollingIntervals.containsKey(child)) {
+                childNode.put("pollingInterval", pollingIntervals.get(child));
+            }
+            childNode.put("missedDeadlines", missedDeadlines.getOrDefault(child, 0L));
+
+            ChildHealth health = orch.getChildHealth(child);
+            ObjectNode healthNode = childNode.putObject("health");
+            healthNode.put("state", health.getState().toString());
+            healthNode.put("consecutiveFailures", health.getConsecutiveFailures());
+            healthNode.put("lastSuccessTime", health.getLastSuccessTime());
+            healthNode.put("rtt", health.getRttEwma());
+            healthNode.put("withdrawn", health.isWithdrawn());
+        }
+
+        PathCache pathCache = orch.getPathCache();
+        ObjectNode pathCacheNode = root.putObject("pathCache");
+        pathCacheNode.put("hits", pathCache.getHitCount());
+        pathCacheNode.put("reversedHits", pathCache.getReversedHitCount());
+        pathCacheNode.put("misses", pathCache.getMissCount());
+        pathCacheNode.put("invalidations", pathCache.getInvalidationCount());
+
+        ObjectNode executorsNode = root.putObject("executors");
+        for (Map.Entry<String, ThreadPoolExecutor> pool : orch.getExecutors().getPools().entrySet()) {
+            ObjectNode poolNode = executorsNode.putObject(pool.getKey());
+            poolNode.put("threads", pool.getValue().getCorePoolSize());
+            poolNode.put("active", pool.getValue().getActiveCount());
+            poolNode.put("queued", pool.getValue().getQueue().size());
+            poolNode.put("completed", pool.getValue().getCompletedTaskCount());
         }
 
         responseStatus = HttpResponseStatus.OK; // 200
-        return root.toString();
+        return Json.encodeToString(root);
     }
 
-    // GET /hosts, GET /hosts/...
-    private String buildResponseForGetHostsMessage() {
-        JSONObject root = new JSONObject();
-        JSONArray hosts = new JSONArray();
+    // GET /metrics
+    // in the text format of prometheus
+    private String buildResponseForGetMetricsMessage() {
+        responseStatus = HttpResponseStatus.OK; // 200
+        return orch.getMetrics().scrape();
+    }
 
-        for (JSONObject hostJson : info.getHostsJson()) {
-            hosts.put(hostJson);
-        }
+    // GET /traces, GET /traces/<id>
+    // ids of the last traces, or the spans of the requests of a trace on this controller in ms after each request;
+    // a span of a segment sent to a child names the child to ask with the same id
+    private String buildResponseForGetTracesMessage() {
+        String subUri = uri.substring(7); // "/traces..."
 
-        try {
-            root.put("hosts", hosts);
+        if (subUri.isEmpty() || subUri.equals("/")) {
+            responseStatus = HttpResponseStatus.OK; // 200
+            return Json.encodeToString(orch.getTraceStore().toJson());
+        }
 
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
-            responseStatus = HttpResponseStatus.INTERNAL_SERVER_ERROR; // 500
+        ObjectNode root = orch.getTraceStore().toJson(subUri.substring(1));
+        if (root == null) {
+            responseStatus = HttpResponseStatus.NOT_FOUND; // 404
             return "";
         }
-
         responseStatus = HttpResponseStatus.OK; // 200
-        return root.toString();
+        return Json.encodeToString(root);
+    }
+
+    // GET /edgeUpdates/stream, GET /edgeUpdates/stream/explicit,
+    // GET /edgeUpdates/stream/summary, GET /edgeUpdates/stream/implicit with optional ?since=<seq>
+    private boolean subscribeEdgeUpdatesStream(ChannelHandlerContext ctx) {
+        if (!method.equals(HttpMethod.GET) || !uri.startsWith("/edgeUpdates/stream")) {
+            return false;
+        }
+
+        String subUri = uri.substring(19); // "/edgeUpdates/stream..."
+
+        LinkView view = parseLinkView(subUri);
+        if (view == null) {
+            return false; // 404 by GET /edgeUpdates...
+        }
+
+        Long cursor = getCursorParameter();
+        if (!streamer.subscribe(ctx.channel(), view, (cursor == null) ? -1 : cursor)) {
+            // changes after the cursor are lost; the subscriber should fetch a snapshot first
+            responseStatus = HttpResponseStatus.GONE; // 410
+            writeResponse(ctx, "");
+        }
+        return true;
     }
 
-    // GET /edgeUpdates, GET /edgeUpdates/explicit, GET /edgeUpdates/summary, GET /edgeUpdates/implicit
-    private synchronized String buildResponseForGetEdgeUpdatesMessage() {
-        String subUri = uri.substring(12); // "/edgeUpdates..."
 
-        JSONObject root = new JSONObject();
-        JSONObject edgeUpdates = new JSONObject();
-        JSONArray added = new JSONArray();
-        JSONArray deleted = new JSONArray();
+    // tags the response, and answers 304 if the requester already has the document of the tag
+    private boolean isNotModified(String tag) {
+        entityTag = tag;
 
-        Set<JSONObject> addedLinksJson;
-        Set<JSONObject> deletedLinksJson;
+        String ifNoneMatch = httpRequest.headers().get(IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(tag) || candidate.equals("*")) {
+                responseStatus = HttpResponseStatus.NOT_MODIFIED; // 304
+                return true;
+            }
+        }
+        return false;
+    }
 
+    // the body of the request as a tree, from either form
+    private ObjectNode decodeContent() throws IOException {
+        if (compactContent != null) {
+            return CompactJson.decodeObject(compactContent.toByteArray());
+        }
+        return Json.decodeObject(content);
+    }
+
+    // in the form of CompactJson if the request accepts it, for the documents read by parents
+    private String encodeDocument(ObjectNode root) {
+        if (!compactAccepted) {
+            return Json.encodeToString(root);
+        }
+        encodedResponse = CompactJson.encode(root);
+        compactResponse = true;
+        return "";
+    }
+
+    private String getMetricUri() {
+        String path = (uri.length() > 1 && uri.endsWith("/")) ? uri.substring(0, uri.length() - 1) : uri;
+        if (path.startsWith("/traces/")) {
+            path = "/traces/{id}"; // not a series per trace
+        }
+        return METRIC_URIS.contains(path) ? path : "other";
+    }
+
+    private LinkView parseLinkView(String subUri) {
         switch (subUri) {
             case "":
             case "/":
             case "/explicit":
             case "/explicit/":
-                addedLinksJson = info.getAddedExplicitLinksJson();
-                deletedLinksJson = info.getDeletedExplicitLinksJson();
-
-                break;
+                return LinkView.EXPLICIT;
 
             case "/summary":
             case "/summary/":
-                addedLinksJson = info.getAddedSummaryLinksJson();
-                deletedLinksJson = info.getDeletedSummaryLinksJson();
-
-                break;
+                return LinkView.SUMMARY;
 
             case "/implicit":
             case "/implicit/":
-                addedLinksJson = info.getAddedImplicitLinksJson();
-                deletedLinksJson = info.getDeletedImplicitLinksJson();
-
-                break;
+                return LinkView.IMPLICIT;
 
             default:
-                responseStatus = HttpResponseStatus.NOT_FOUND; // 404
-                return "";
+                return null;
         }
+    }
 
-        for (JSONObject linkJson : addedLinksJson) {
-            added.put(linkJson);
-        }
-        for (JSONObject linkJson : deletedLinksJson) {
-            deleted.put(linkJson);
+    private Long getCursorParameter() {
+        List<String> values = parameters.get("since");
+        if (values == null || values.isEmpty()) {
+            return null;
         }
 
         try {
-            edgeUpdates.put("added", added);
-            edgeUpdates.put("deleted", deleted);
-            root.put("edgeUpdates", edgeUpdates);
-
-        } catch (JSONException e) {
-            log.warn("exception: {}", e.toString());
-            responseStatus = HttpResponseStatus.INTERNAL_SERVER_ERROR; // 500
-            return "";
+            return Long.parseLong(values.get(0));
+        } catch (NumberFormatException e) {
+            log.warn("invalid cursor: {}", values.get(0));
+            return null;
         }
-
-        info.clearChangesOfLinks();
-
-        responseStatus = HttpResponseStatus.OK; // 200
-        return root.toString();
     }
 
 
@@ -440,20 +880,71 @@ public class RestRequestHandler extends ChannelInboundHandlerAdapter {
         if (uri.startsWith("/abstraction")) {
             return buildResponseForPutAbstractionMessage();
 
+        } else if (uri.startsWith("/polling")) {
+            return buildResponseForPutPollingMessage();
+
+        } else if (uri.startsWith("/health")) {
+            return buildResponseForPutHealthMessage();
+
         }
 
         responseStatus = HttpResponseStatus.NOT_FOUND; // 404
         return "";
     }
 
+    // PUT /polling
+    // {"maxInterval":<ms>}, the ceiling of the polling intervals of children
+    private String buildResponseForPutPollingMessage() {
+        long maxInterval;
+        try {
+            ObjectNode root = decodeContent();
+            maxInterval = Json.getLong(root, "maxInterval");
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("exception: {}", e.toString());
+            responseStatus = HttpResponseStatus.BAD_REQUEST; // 400
+            return "";
+        }
+
+        if (maxInterval <= 0) {
+            responseStatus = HttpResponseStatus.BAD_REQUEST; // 400
+            return "";
+        }
+        orch.setMaxPollingInterval(maxInterval);
+
+        responseStatus = HttpResponseStatus.OK; // 200
+        return "";
+    }
+
+    // PUT /health
+    // {"withdrawAfter":<ms>}, the outage after which devices of a child are withdrawn; 0 to keep them
+    private String buildResponseForPutHealthMessage() {
+        long withdrawAfter;
+        try {
+            ObjectNode root = decodeContent();
+            withdrawAfter = Json.getLong(root, "withdrawAfter");
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("exception: {}", e.toString());
+            responseStatus = HttpResponseStatus.BAD_REQUEST; // 400
+            return "";
+        }
+
+        if (withdrawAfter < 0) {
+            responseStatus = HttpResponseStatus.BAD_REQUEST; // 400
+            return "";
+        }
+        orch.setChildWithdrawalTimeout(withdrawAfter);
+
+        responseStatus = HttpResponseStatus.OK; // 200
+        return "";
+    }
+
     // PUT /abstraction
     private String buildResponseForPutAbstractionMessage() {
-        JSONObject root;
         String abstractionNode;
         try {
-            root = new JSONObject(content);
-            abstractionNode = root.getString("abstraction");
-        } catch (JSONException e) {
+            ObjectNode root = decodeContent();
+            abstractionNode = Json.getText(root, "abstraction");
+        } catch (IOException | IllegalArgumentException e) {
             log.warn("exception: {}", e.toString());
             responseStatus = HttpResponseStatus.BAD_REQUEST; // 400
             return "";
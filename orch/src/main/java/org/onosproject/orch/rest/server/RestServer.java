@@ -1,7 +1,9 @@
 package org.onosproject.orch.rest.server;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
@@ -13,43 +15,86 @@ import org.onosproject.orch.Orchestration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.Executor;
 
+import static org.onlab.util.Tools.groupedThreads;
+
+
+// started and stopped by the component; no thread waits for the server while it is running
 public class RestServer {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
+    private String address; // null for every address of the host
     private int port;
     private Orchestration orch;
+    private Executor requestExecutor; // requests are handled off the event loop; 429 when it is full
 
-    public RestServer(int port, Orchestration orch) {
+    private EventLoopGroup masterGroup;
+    private EventLoopGroup workerGroup;
+    private EdgeUpdateStreamer streamer;
+    private Channel serverChannel;
+
+    public RestServer(int port, Orchestration orch, Executor requestExecutor) {
+        this(null, port, orch, requestExecutor);
+    }
+
+    // on one of the loopback addresses, for children simulated on a single host
+    public RestServer(String address, int port, Orchestration orch, Executor requestExecutor) {
+        this.address = address;
         this.port = port;
         this.orch = orch;
+        this.requestExecutor = requestExecutor;
+    }
+
+    public void start() {
+        log.info("REST Server is starting...");
+
+        masterGroup = new NioEventLoopGroup(1, groupedThreads("onos/orch", "server-boss-%d", log));
+        workerGroup = new NioEventLoopGroup(0, groupedThreads("onos/orch", "server-worker-%d", log));
+
+        streamer = new EdgeUpdateStreamer(orch.getTopologyInformation());
+
+        ServerBootstrap b = new ServerBootstrap();
+        b.group(masterGroup, workerGroup)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    public void initChannel(SocketChannel ch) throws Exception {
+                        ch.pipeline().addLast("codec", new HttpServerCodec());
+                        ch.pipeline().addLast("handler", new RestRequestHandler(orch, streamer, requestExecutor));
+                    }
+                })
+                .option(ChannelOption.SO_BACKLOG, 128)
+                .childOption(ChannelOption.SO_KEEPALIVE, true);
+
+        ChannelFuture f = (address == null) ? b.bind(port) : b.bind(address, port);
+        serverChannel = f.channel();
+        f.addListener((ChannelFutureListener) future -> {
+            if (future.isSuccess()) {
+                log.info("REST Server is running on port {}", port);
+            } else {
+                log.warn("cannot run orchestration server: {}", future.cause().toString());
+            }
+        });
     }
 
-    public void run() throws Exception {
-        log.info("REST Server is running...");
-
-        EventLoopGroup masterGroup = new NioEventLoopGroup();
-        EventLoopGroup workerGroup = new NioEventLoopGroup();
-
-        try {
-            ServerBootstrap b = new ServerBootstrap();
-            b.group(masterGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
-                    .childHandler(new ChannelInitializer<SocketChannel>() {
-                        @Override
-                        public void initChannel(SocketChannel ch) throws Exception {
-                            ch.pipeline().addLast("codec", new HttpServerCodec());
-                            ch.pipeline().addLast("handler", new RestRequestHandler(orch));
-                        }
-                    })
-                    .option(ChannelOption.SO_BACKLOG, 128)
-                    .childOption(ChannelOption.SO_KEEPALIVE, true);
-
-            ChannelFuture f = b.bind(port).sync();
-            f.channel().closeFuture().sync();
-        } finally {
+    public void stop() {
+        if (serverChannel != null) {
+            serverChannel.close();
+            serverChannel = null;
+        }
+        if (streamer != null) {
+            streamer.stop();
+            streamer = null;
+        }
+        if (workerGroup != null) {
             workerGroup.shutdownGracefully();
+            workerGroup = null;
+        }
+        if (masterGroup != null) {
             masterGroup.shutdownGracefully();
+            masterGroup = null;
         }
+        log.info("REST Server is stopped");
     }
 }
@@ -0,0 +1,75 @@
+package org.onosproject.orch.trace;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+
+// a part of a traced request, such as the path computation or a segment sent to a child;
+// ended once, on any thread
+public class Span {
+
+    // of no trace; ending it does nothing
+    static final Span NONE = new Span(null, null, 0);
+
+
+    private final String name;
+    private final String detail;
+    private final long startNanos;
+
+    private volatile long endNanos;
+    private volatile String status; // null while in progress
+
+
+    Span(String name, String detail, long startNanos) {
+        this.name = name;
+        this.detail = detail;
+        this.startNanos = startNanos;
+    }
+
+
+    public void end() {
+        end(null);
+    }
+
+    public void end(Throwable cause) {
+        if (this == NONE || status != null) {
+            return;
+        }
+        Throwable c = (cause instanceof CompletionException && cause.getCause() != null) ? cause.getCause() : cause;
+        endNanos = System.nanoTime();
+        status = (c == null) ? "ok" : c.toString();
+    }
+
+    public <T> CompletableFuture<T> endWhenComplete(CompletableFuture<T> future) {
+        if (this != NONE) {
+            future.whenComplete((result, cause) -> end(cause));
+        }
+        return future;
+    }
+
+
+    // {"name":...,"detail":...,"start":...,"duration":...,"status":"ok"}; in ms after the start of the trace
+    void toJson(ObjectNode spanNode, long traceStartNanos) {
+        spanNode.put("name", name);
+        if (detail != null) {
+            spanNode.put("detail", detail);
+        }
+        spanNode.put("start", toMillis(startNanos - traceStartNanos));
+
+        String currentStatus = status;
+        if (currentStatus == null) {
+            spanNode.put("status", "in progress");
+        } else {
+            spanNode.put("duration", toMillis(endNanos - startNanos));
+            spanNode.put("status", currentStatus);
+        }
+    }
+
+    static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.onosproject.orch.trace;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+
+// spans of one request handled by this controller, under an id shared with the requests it causes on children.
+// the trace of a request is attached to the thread handling it, so that spans are started without passing it around;
+// requests to children created on that thread carry the id of the trace in a header
+public class Trace {
+
+    public static final String HEADER = "X-Orch-Trace-Id";
+
+    private static final Pattern VALID_ID = Pattern.compile("[0-9A-Za-z_-]{1,64}");
+    private static final int MAX_SPANS = 256; // not to grow without bound on a large batch
+
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+
+    private final String id;
+    private final String name;
+    private final long startTime; // ms since epoch
+    private final long startNanos;
+
+    private final List<Span> spans;
+    private int droppedSpans;
+
+    private volatile long endNanos;
+    private volatile int status; // 0 while in progress
+
+
+    Trace(String id, String name) {
+        this.id = id;
+        this.name = name;
+        startTime = System.currentTimeMillis();
+        startNanos = System.nanoTime();
+
+        spans = new ArrayList<>();
+        droppedSpans = 0;
+    }
+
+
+    public static String newId() {
+        return String.format("%016x", ThreadLocalRandom.current().nextLong());
+    }
+
+    // ids from other controllers are taken as they are if they look like ids
+    public static boolean isValidId(String id) {
+        return id != null && VALID_ID.matcher(id).matches();
+    }
+
+
+    // null if the request handled by this thread is not traced
+    public static Trace current() {
+        return CURRENT.get();
+    }
+
+    public void attach() {
+        CURRENT.set(this);
+    }
+
+    public static void detach() {
+        CURRENT.remove();
+    }
+
+    // on the trace attached to this thread, or nothing
+    public static Span startSpan(String name, String detail) {
+        return startSpan(name, detail, System.nanoTime());
+    }
+
+    public static Span startSpan(String name, String detail, long startNanos) {
+        Trace trace = CURRENT.get();
+        return (trace == null) ? Span.NONE : trace.addSpan(name, detail, startNanos);
+    }
+
+    private synchronized Span addSpan(String name, String detail, long startNanos) {
+        if (spans.size() >= MAX_SPANS) {
+            droppedSpans++;
+            return Span.NONE;
+        }
+        Span span = new Span(name, detail, startNanos);
+        spans.add(span);
+        return span;
+    }
+
+
+    // when the response is written
+    public void finish(int status) {
+        endNanos = System.nanoTime();
+        this.status = status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+
+    // {"name":"POST /provisioning","start":<ms since epoch>,"duration":...,"status":200,"spans":[...]};
+    // without duration and status while in progress
+    synchronized ObjectNode toJson(ObjectNode traceNode, boolean withSpans) {
+        traceNode.put("name", name);
+        traceNode.put("start", startTime);
+
+        int currentStatus = status;
+        if (currentStatus != 0) {
+            traceNode.put("duration", Span.toMillis(endNanos - startNanos));
+            traceNode.put("status", currentStatus);
+        }
+
+        if (withSpans) {
+            ArrayNode spansNode = traceNode.putArray("spans");
+            for (Span span : spans) {
+                span.toJson(spansNode.addObject(), startNanos);
+            }
+            if (droppedSpans > 0) {
+                traceNode.put("droppedSpans", droppedSpans);
+            }
+        }
+        return traceNode;
+    }
+
+}
@@ -0,0 +1,101 @@
+package org.onosproject.orch.trace;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.onosproject.orch.json.Json;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+// traces of the last requests of this controller by their ids; the oldest id is dropped when full.
+// a trace of a parent may reach this controller more than once, as segments of a path leaving and entering
+// its domain again, so an id has the last requests of it
+public class TraceStore {
+
+    private static final int MAX_REQUESTS = 16; // of an id, not to grow without bound on a long path
+
+
+    private final LinkedHashMap<String, Requests> traces;
+
+
+    public TraceStore(int maxTraces) {
+        traces = new LinkedHashMap<String, Requests>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Requests> eldest) {
+                return size() > maxTraces;
+            }
+        };
+    }
+
+
+    public synchronized Trace start(String id, String name) {
+        Trace trace = new Trace(id, name);
+        Requests requests = traces.computeIfAbsent(id, k -> new Requests());
+        if (requests.traces.size() >= MAX_REQUESTS) {
+            requests.traces.remove(0);
+            requests.dropped++;
+        }
+        requests.traces.add(trace);
+        return trace;
+    }
+
+
+    // {"id":...,"requests":[{"name":...,"spans":[...]},...]}, or null if the id is unknown
+    public ObjectNode toJson(String id) {
+        List<Trace> requests;
+        int dropped;
+        synchronized (this) {
+            Requests stored = traces.get(id);
+            if (stored == null) {
+                return null;
+            }
+            requests = new ArrayList<>(stored.traces);
+            dropped = stored.dropped;
+        }
+
+        ObjectNode root = Json.objectNode();
+        root.put("id", id);
+        if (dropped > 0) {
+            root.put("droppedRequests", dropped);
+        }
+        ArrayNode requestsNode = root.putArray("requests");
+        for (Trace trace : requests) {
+            trace.toJson(requestsNode.addObject(), true);
+        }
+        return root;
+    }
+
+    // {"traces":[{"id":...,"name":...,"start":...,"duration":...,"status":...},...]} by the first request kept of
+    // each id, from the latest
+    public ObjectNode toJson() {
+        List<Trace> firstRequests = new ArrayList<>();
+        synchronized (this) {
+            for (Requests requests : traces.values()) {
+                firstRequests.add(requests.traces.get(0));
+            }
+        }
+
+        ObjectNode root = Json.objectNode();
+        ArrayNode tracesNode = root.putArray("traces");
+        for (int i = firstRequests.size() - 1; i >= 0; i--) {
+            Trace trace = firstRequests.get(i);
+            ObjectNode traceNode = tracesNode.addObject();
+            traceNode.put("id", trace.getId());
+            trace.toJson(traceNode, false);
+        }
+        return root;
+    }
+
+
+    // of an id, from the oldest kept
+    private static class Requests {
+
+        private final List<Trace> traces = new ArrayList<>();
+        private int dropped = 0;
+
+    }
+
+}
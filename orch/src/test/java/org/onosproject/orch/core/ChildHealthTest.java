@@ -0,0 +1,113 @@
+package org.onosproject.orch.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class ChildHealthTest {
+
+    private static final long TIMEOUT_MS = 60000;
+
+
+    private final ChildHealth health = new ChildHealth();
+
+
+    private void fail(int times, long now) {
+        for (int i = 0; i < times; i++) {
+            health.recordFailure(now);
+        }
+    }
+
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        fail(2, 0);
+        assertEquals(ChildHealth.State.CLOSED, health.getState());
+        assertTrue(health.allowRequest(0));
+
+        fail(1, 0);
+        assertEquals(ChildHealth.State.OPEN, health.getState());
+        assertFalse(health.allowRequest(4999));
+        assertEquals(1, health.getRetryDelay(4999));
+    }
+
+    @Test
+    public void successesInBetweenKeepItClosed() {
+        fail(2, 0);
+        health.recordSuccess(10, 0);
+        fail(2, 0);
+
+        assertEquals(ChildHealth.State.CLOSED, health.getState());
+        assertEquals(2, health.getConsecutiveFailures());
+    }
+
+    @Test
+    public void letsOneProbeThroughAfterTheBackoff() {
+        fail(3, 0);
+
+        assertTrue(health.allowRequest(5000));
+        assertEquals(ChildHealth.State.HALF_OPEN, health.getState());
+        assertFalse(health.allowRequest(5000));
+        assertEquals(5000, health.getRetryDelay(5000));
+
+        assertFalse(health.recordSuccess(20, 5100));
+        assertEquals(ChildHealth.State.CLOSED, health.getState());
+        assertTrue(health.allowRequest(5100));
+        assertEquals(0, health.getRetryDelay(5100));
+    }
+
+    @Test
+    public void doublesTheBackoffOnFailedProbesUpToItsMaximum() {
+        fail(3, 0);
+        long now = 0;
+        long backoff = 5000;
+        while (backoff < 300000) {
+            now += backoff;
+            assertTrue(health.allowRequest(now));
+            fail(1, now);
+            backoff *= 2;
+            assertEquals(Math.min(300000, backoff), health.getRetryDelay(now));
+        }
+
+        now += 300000;
+        assertTrue(health.allowRequest(now));
+        fail(1, now);
+        assertEquals(300000, health.getRetryDelay(now));
+    }
+
+    @Test
+    public void withdrawsOncePerOutage() {
+        fail(3, 1000);
+
+        assertFalse(health.shouldWithdraw(1000 + TIMEOUT_MS - 1, TIMEOUT_MS));
+        assertTrue(health.shouldWithdraw(1000 + TIMEOUT_MS, TIMEOUT_MS));
+        assertFalse(health.shouldWithdraw(1000 + 2 * TIMEOUT_MS, TIMEOUT_MS));
+        assertTrue(health.isWithdrawn());
+
+        // the child is discovered again when it answers, and a later outage withdraws it again
+        assertTrue(health.recordSuccess(10, 200000));
+        assertFalse(health.isWithdrawn());
+        fail(3, 300000);
+        assertTrue(health.shouldWithdraw(300000 + TIMEOUT_MS, TIMEOUT_MS));
+    }
+
+    @Test
+    public void neverWithdrawsWithoutATimeout() {
+        fail(3, 0);
+        assertFalse(health.shouldWithdraw(Long.MAX_VALUE / 2, 0));
+    }
+
+    @Test
+    public void averagesTheRttOfSamplesOnly() {
+        health.recordSuccess(100, 0);
+        health.recordSuccess(-1, 0);
+        assertEquals(100, health.getRttEwma(), 0.001);
+
+        health.recordSuccess(200, 0);
+        assertEquals(0.2 * 200 + 0.8 * 100, health.getRttEwma(), 0.001);
+    }
+
+}
@@ -0,0 +1,167 @@
+package org.onosproject.orch.core;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.graph.ScalarWeight;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.DefaultPath;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.Path;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.link.LinkService;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyService;
+import org.onosproject.orch.Orchestration;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+
+public class PathCacheTest {
+
+    private static final ProviderId PROVIDER_ID = new ProviderId("of", "org.onosproject.orch.test");
+
+    private static final DeviceId A = DeviceId.deviceId("of:1");
+    private static final DeviceId B = DeviceId.deviceId("of:2");
+    private static final DeviceId C = DeviceId.deviceId("of:3");
+
+
+    private final Map<List<ConnectPoint>, Link> links = new HashMap<>();
+    private final Map<List<DeviceId>, Path> paths = new HashMap<>();
+    private final List<List<DeviceId>> computed = new ArrayList<>(); // by the topology service
+
+    private Topology topology;
+    private PathCache cache;
+
+
+    // answered by the name of the method, and null otherwise
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (p, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            if (method.getName().equals("equals")) {
+                return p == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(p);
+            }
+            return null;
+        }));
+    }
+
+    private static ConnectPoint point(DeviceId device, long port) {
+        return new ConnectPoint(device, PortNumber.portNumber(port));
+    }
+
+    // both directions of a link between the two points
+    private void addLink(ConnectPoint a, ConnectPoint b) {
+        links.put(Arrays.asList(a, b), DefaultLink.builder().providerId(PROVIDER_ID).src(a).dst(b)
+                .type(Link.Type.DIRECT).state(Link.State.ACTIVE).build());
+        links.put(Arrays.asList(b, a), DefaultLink.builder().providerId(PROVIDER_ID).src(b).dst(a)
+                .type(Link.Type.DIRECT).state(Link.State.ACTIVE).build());
+    }
+
+    private void addPath(DeviceId src, DeviceId dst, ConnectPoint... points) {
+        List<Link> pathLinks = new ArrayList<>();
+        for (int i = 0; i < points.length; i += 2) {
+            pathLinks.add(links.get(Arrays.asList(points[i], points[i + 1])));
+        }
+        paths.put(Arrays.asList(src, dst), new DefaultPath(PROVIDER_ID, pathLinks, ScalarWeight.toWeight(1)));
+    }
+
+    private void newTopology() {
+        topology = stub(Topology.class, Collections.emptyMap());
+    }
+
+
+    @Before
+    public void setUp() {
+        addLink(point(A, 2), point(B, 1));
+        addLink(point(B, 2), point(C, 1));
+        addPath(A, C, point(A, 2), point(B, 1), point(B, 2), point(C, 1));
+        newTopology();
+
+        Map<String, Function<Object[], Object>> topologyAnswers = new HashMap<>();
+        topologyAnswers.put("currentTopology", args -> topology);
+        topologyAnswers.put("getPaths", args -> {
+            List<DeviceId> ends = Arrays.asList((DeviceId) args[1], (DeviceId) args[2]);
+            computed.add(ends);
+            Path path = paths.get(ends);
+            return (path == null) ? Collections.emptySet() : Collections.singleton(path);
+        });
+        TopologyService topologyService = stub(TopologyService.class, topologyAnswers);
+
+        Map<String, Function<Object[], Object>> linkAnswers = new HashMap<>();
+        linkAnswers.put("getLink", args -> links.get(Arrays.asList(args[0], args[1])));
+        LinkService linkService = stub(LinkService.class, linkAnswers);
+
+        Map<String, Function<Object[], Object>> orchAnswers = new HashMap<>();
+        orchAnswers.put("getTopologyService", args -> topologyService);
+        orchAnswers.put("getLinkService", args -> linkService);
+        cache = new PathCache(stub(Orchestration.class, orchAnswers));
+    }
+
+
+    @Test
+    public void computesAPathOncePerTopology() {
+        Path path = cache.getPath(A, C);
+        assertSame(path, cache.getPath(A, C));
+
+        assertEquals(Collections.singletonList(Arrays.asList(A, C)), computed);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void buildsTheReversePathFromTheReverseLinks() {
+        cache.getPath(A, C);
+        Path reverse = cache.getPath(C, A);
+
+        assertEquals(1, computed.size());
+        assertEquals(1, cache.getReversedHitCount());
+        assertEquals(Arrays.asList(links.get(Arrays.asList(point(C, 1), point(B, 2))),
+                links.get(Arrays.asList(point(B, 1), point(A, 2)))), reverse.links());
+        assertEquals(C, reverse.src().deviceId());
+        assertEquals(A, reverse.dst().deviceId());
+    }
+
+    @Test
+    public void computesTheReversePathIfAReverseLinkIsMissing() {
+        cache.getPath(A, C);
+        links.remove(Arrays.asList(point(B, 1), point(A, 2)));
+
+        assertNull(cache.getPath(C, A)); // no path known to the topology service in this direction
+        assertEquals(Arrays.asList(Arrays.asList(A, C), Arrays.asList(C, A)), computed);
+        assertEquals(0, cache.getReversedHitCount());
+    }
+
+    @Test
+    public void recomputesPathsOfANewTopology() {
+        cache.getPath(A, C);
+        newTopology();
+        cache.getPath(A, C);
+        assertEquals(2, computed.size());
+
+        // an event drops every path, even before onos replaces the topology
+        cache.event(null);
+        cache.getPath(A, C);
+        assertEquals(3, computed.size());
+        assertEquals(1, cache.getInvalidationCount());
+    }
+
+}
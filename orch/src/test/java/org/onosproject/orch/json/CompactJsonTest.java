@@ -0,0 +1,137 @@
+package org.onosproject.orch.json;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class CompactJsonTest {
+
+    // device ids repeated across links, so most strings are sent as references to the table
+    private static ObjectNode linksDocument(int links) {
+        ObjectNode root = Json.objectNode();
+        ArrayNode linksNode = root.putArray("links");
+        for (int i = 0; i < links; i++) {
+            ObjectNode link = linksNode.addObject();
+            link.putObject("src").put("device", String.format("imvs:f192f168f000f%03d", i)).put("port", "2");
+            link.putObject("dst").put("device", String.format("imvs:f192f168f000f%03d", i + 1)).put("port", "1");
+            link.put("delay", -i).put("weight", 1.5).put("active", i % 2 == 0).putNull("annotations");
+            link.putArray("path").add(i).add("x").addObject().put("k", "v");
+        }
+        root.put("seq", 123456789012L);
+        return root;
+    }
+
+    // tokens of the parser fed in the given chunk sizes, cycled until the document is fed
+    private static List<String> tokens(byte[] document, int... chunkSizes) throws IOException {
+        CompactJson.Parser parser = new CompactJson.Parser();
+        List<String> tokens = new ArrayList<>();
+        int offset = 0;
+        for (int i = 0; offset < document.length; i++) {
+            int length = Math.min(chunkSizes[i % chunkSizes.length], document.length - offset);
+            parser.feed(document, offset, length);
+            offset += length;
+            readAvailableTokens(parser, tokens);
+        }
+        parser.endOfInput();
+        readAvailableTokens(parser, tokens);
+        assertNull(parser.nextToken());
+        return tokens;
+    }
+
+    private static void readAvailableTokens(CompactJson.Parser parser, List<String> tokens) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case FIELD_NAME:
+                    tokens.add(token + " " + parser.getCurrentName());
+                    break;
+                case VALUE_STRING:
+                    tokens.add(token + " " + parser.getText());
+                    break;
+                case VALUE_NUMBER_INT:
+                    tokens.add(token + " " + parser.getLongValue());
+                    break;
+                case VALUE_NUMBER_FLOAT:
+                    tokens.add(token + " " + parser.getDoubleValue());
+                    break;
+                default:
+                    tokens.add(token.toString());
+                    break;
+            }
+        }
+    }
+
+
+    @Test
+    public void decodesTheSameTree() throws IOException {
+        ObjectNode document = linksDocument(200);
+        byte[] compact = CompactJson.encode(document);
+
+        assertEquals(document.toString(), CompactJson.decodeObject(compact).toString());
+        assertTrue(compact.length < Json.encode(document).length);
+    }
+
+    @Test
+    public void decodesSmallAndUnevenChunks() throws IOException {
+        byte[] compact = CompactJson.encode(linksDocument(500));
+        List<String> whole = tokens(compact, compact.length);
+
+        assertEquals(whole, tokens(compact, 1));
+        assertEquals(whole, tokens(compact, 3, 7, 1, 64));
+        // a small chunk first leaves the start of the buffer behind when a large one makes it grow
+        assertEquals(whole, tokens(compact, 100, 8192));
+    }
+
+    @Test
+    public void refersToInternedStrings() throws IOException {
+        ObjectNode document = Json.objectNode();
+        ArrayNode devices = document.putArray("devices");
+        for (int i = 0; i < 100; i++) {
+            devices.addObject().put("id", "imvs:f192f168f000f001");
+        }
+        byte[] compact = CompactJson.encode(document);
+
+        // the id and the name of its field are sent once, then as references of a few bytes each
+        assertTrue(compact.length < 100 * 8);
+        for (JsonNode device : CompactJson.decodeObject(compact).get("devices")) {
+            assertEquals("imvs:f192f168f000f001", device.get("id").asText());
+        }
+    }
+
+    @Test
+    public void keepsLongStringsOutOfTheTable() throws IOException {
+        char[] chars = new char[100];
+        Arrays.fill(chars, 'a');
+        String longString = new String(chars);
+
+        ObjectNode document = Json.objectNode();
+        document.putArray("values").add(longString).add("short").add(longString).add("short");
+
+        assertEquals(document.toString(), CompactJson.decodeObject(CompactJson.encode(document)).toString());
+    }
+
+    @Test
+    public void failsOnTruncatedDocuments() {
+        byte[] compact = CompactJson.encode(linksDocument(10));
+        try {
+            CompactJson.decodeObject(Arrays.copyOf(compact, compact.length - 3));
+            fail("decoded a truncated document");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+}
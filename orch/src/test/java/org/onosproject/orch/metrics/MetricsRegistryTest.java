@@ -0,0 +1,73 @@
+package org.onosproject.orch.metrics;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class MetricsRegistryTest {
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+
+    @Test
+    public void writesCountersWithAndWithoutLabels() {
+        registry.counter("orch_polls_total", "Polls of the children.").add(3);
+        MetricsRegistry.Counter requests = registry.counter("orch_requests_total", "Requests.", "method", "path");
+        requests.inc("GET", "/links");
+        requests.inc("GET", "/links");
+
+        assertEquals("# HELP orch_polls_total Polls of the children.\n"
+                + "# TYPE orch_polls_total counter\n"
+                + "orch_polls_total 3\n"
+                + "# HELP orch_requests_total Requests.\n"
+                + "# TYPE orch_requests_total counter\n"
+                + "orch_requests_total{method=\"GET\",path=\"/links\"} 2\n", registry.scrape());
+    }
+
+    @Test
+    public void writesCumulativeBuckets() {
+        MetricsRegistry.Histogram latency = registry.histogram("orch_latency_seconds", "Latency.",
+                new double[] {0.01, 0.1}, "child");
+        latency.observe(0.005, "c1");
+        latency.observe(0.01, "c1"); // an upper bound is in its bucket
+        latency.observeNanos(50000000, "c1");
+        latency.observe(2, "c1");
+
+        assertEquals("# HELP orch_latency_seconds Latency.\n"
+                + "# TYPE orch_latency_seconds histogram\n"
+                + "orch_latency_seconds_bucket{child=\"c1\",le=\"0.01\"} 2\n"
+                + "orch_latency_seconds_bucket{child=\"c1\",le=\"0.1\"} 3\n"
+                + "orch_latency_seconds_bucket{child=\"c1\",le=\"+Inf\"} 4\n"
+                + "orch_latency_seconds_sum{child=\"c1\"} 2.065\n"
+                + "orch_latency_seconds_count{child=\"c1\"} 4\n", registry.scrape());
+    }
+
+    @Test
+    public void readsGaugesWhenScraped() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        registry.gauge("orch_queue_size", "Queued requests.", "child", () -> sizes);
+        sizes.put("c1", 4);
+
+        assertEquals("# HELP orch_queue_size Queued requests.\n"
+                + "# TYPE orch_queue_size gauge\n"
+                + "orch_queue_size{child=\"c1\"} 4\n", registry.scrape());
+    }
+
+    @Test
+    public void escapesLabelValues() {
+        registry.counter("orch_errors_total", "Errors.", "cause").inc("a \"b\" \\ c\nd");
+
+        assertTrue(registry.scrape().contains("orch_errors_total{cause=\"a \\\"b\\\" \\\\ c\\nd\"} 1\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAWrongNumberOfLabels() {
+        registry.counter("orch_requests_total", "Requests.", "method", "path").inc("GET");
+    }
+
+}
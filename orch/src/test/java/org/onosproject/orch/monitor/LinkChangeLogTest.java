@@ -0,0 +1,94 @@
+package org.onosproject.orch.monitor;
+
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.orch.adt.elem.DirectedLink;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class LinkChangeLogTest {
+
+    private static DirectedLink link(int i) {
+        return new DirectedLink(DeviceId.deviceId("of:" + i), 2, DeviceId.deviceId("of:" + (i + 1)), 1);
+    }
+
+    private static List<Long> seqs(Collection<LinkChangeLog.Entry> entries) {
+        List<Long> seqs = new ArrayList<>();
+        for (LinkChangeLog.Entry entry : entries) {
+            seqs.add(entry.seq);
+        }
+        return seqs;
+    }
+
+
+    @Test
+    public void givesTheChangesAfterTheCursorInOrder() {
+        LinkChangeLog log = new LinkChangeLog(16);
+        long start = log.getLastSeq();
+        LinkChangeLog.Entry first = log.append(link(0), false, null, null, null);
+        LinkChangeLog.Entry second = log.append(link(1), false, null, null, null);
+        LinkChangeLog.Entry third = log.append(link(0), true, null, null, null);
+
+        assertEquals(third.seq, log.getLastSeq());
+        assertEquals(Arrays.asList(first.seq, second.seq, third.seq), seqs(log.getChangesSince(start)));
+        assertEquals(Arrays.asList(third.seq), seqs(log.getChangesSince(second.seq)));
+        assertTrue(log.getChangesSince(third.seq).isEmpty());
+
+        // the latest change of each link, in the order of the latest ones
+        assertEquals(Arrays.asList(second.seq, third.seq), seqs(log.getNetChangesSince(start)));
+    }
+
+    @Test
+    public void rejectsCursorsOfAnotherRun() {
+        LinkChangeLog log = new LinkChangeLog(16);
+        long start = log.getLastSeq();
+        log.append(link(0), false, null, null, null);
+
+        // a cursor of a previous run is older, and none is ahead of the log
+        assertFalse(log.isValidCursor(start - 1));
+        assertNull(log.getChangesSince(start - 1));
+        assertNull(log.getNetChangesSince(log.getLastSeq() + 1));
+        assertTrue(log.isValidCursor(start));
+    }
+
+    @Test
+    public void compactsSupersededChangesWithoutInvalidatingCursors() {
+        LinkChangeLog log = new LinkChangeLog(4);
+        long start = log.getLastSeq();
+        for (int i = 0; i < 10; i++) {
+            log.append(link(i % 2), i % 3 == 0, null, null, null);
+        }
+
+        assertTrue(log.isValidCursor(start));
+        List<LinkChangeLog.Entry> changes = log.getChangesSince(start);
+        assertTrue(changes.size() <= 4);
+        assertEquals(log.getLastSeq(), changes.get(changes.size() - 1).seq);
+        assertEquals(seqs(log.getNetChangesSince(start)), seqs(changes).subList(changes.size() - 2, changes.size()));
+    }
+
+    @Test
+    public void rejectsCursorsTooOldAfterEviction() {
+        LinkChangeLog log = new LinkChangeLog(4);
+        long start = log.getLastSeq();
+        List<LinkChangeLog.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            entries.add(log.append(link(i), false, null, null, null));
+        }
+
+        // the oldest of 4 distinct links is evicted to make room for the fifth
+        assertFalse(log.isValidCursor(start));
+        assertNull(log.getChangesSince(start));
+        assertEquals(Arrays.asList(entries.get(1).seq, entries.get(2).seq, entries.get(3).seq, entries.get(4).seq),
+                seqs(log.getChangesSince(entries.get(0).seq)));
+    }
+
+}
@@ -0,0 +1,98 @@
+package org.onosproject.orch.rest.client;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class AbstractStreamHandlerTest {
+
+    private final RecordingListener listener = new RecordingListener();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    private final EmbeddedChannel channel = new ChildChannel(new AbstractStreamHandler(completion) {
+        @Override
+        protected StreamingJsonDecoder.Listener createContentListener() {
+            return listener;
+        }
+    });
+
+
+    // the handler takes the address of the child from the channel
+    private static class ChildChannel extends EmbeddedChannel {
+
+        ChildChannel(AbstractStreamHandler handler) {
+            super(handler);
+        }
+
+        @Override
+        protected SocketAddress remoteAddress0() {
+            return new InetSocketAddress("10.0.0.1", 8181);
+        }
+
+    }
+
+
+    private void subscribe() {
+        channel.writeInbound(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+    }
+
+    private void send(byte[] bytes, int from, int to) {
+        channel.writeInbound(new DefaultHttpContent(Unpooled.copiedBuffer(bytes, from, to - from)));
+    }
+
+
+    @Test
+    public void decodesCharactersSplitBetweenChunks() {
+        byte[] event = "data: {\"added\":[{\"name\":\"h\u00f4te\"}]}\n\n".getBytes(StandardCharsets.UTF_8);
+        int split = new String(event, StandardCharsets.UTF_8).indexOf('\u00f4') + 1; // between its two bytes
+
+        subscribe();
+        send(event, 0, split);
+        assertEquals(Collections.emptyList(), listener.calls);
+        send(event, split, event.length);
+
+        assertEquals(Arrays.asList("array added", "element added {\"name\":\"h\u00f4te\"}", "finished"),
+                listener.calls);
+        assertTrue(channel.isOpen());
+    }
+
+    @Test
+    public void joinsDataLinesAndSkipsHeartbeats() {
+        byte[] events = (": heartbeat\n\ndata: {\"seq\":\ndata: 7}\n\n").getBytes(StandardCharsets.UTF_8);
+
+        subscribe();
+        send(events, 0, events.length);
+
+        assertEquals(Arrays.asList("value seq 7", "finished"), listener.calls);
+    }
+
+    @Test
+    public void closesTheStreamOnBrokenEvents() {
+        byte[] events = "data: {\"added\":[{\"name\":\"a\"}\n\ndata: {\"seq\":8}\n\n".getBytes(StandardCharsets.UTF_8);
+
+        subscribe();
+        send(events, 0, events.length);
+
+        // the poll since the cursor after the stream gets the change of the broken event
+        assertFalse(channel.isOpen());
+        assertTrue(completion.isDone());
+        assertFalse(listener.calls.contains("value seq 8"));
+    }
+
+}
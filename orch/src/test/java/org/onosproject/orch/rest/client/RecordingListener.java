@@ -0,0 +1,36 @@
+package org.onosproject.orch.rest.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+// callbacks of the decoder in order, such as "element links {...}"
+class RecordingListener implements StreamingJsonDecoder.Listener {
+
+    final List<String> calls = new ArrayList<>();
+
+
+    @Override
+    public void arrayStarted(String path) {
+        calls.add("array " + path);
+    }
+
+    @Override
+    public void elementDecoded(String path, ObjectNode element) {
+        calls.add("element " + path + " " + element);
+    }
+
+    @Override
+    public void valueDecoded(String path, JsonNode value) {
+        calls.add("value " + path + " " + value);
+    }
+
+    @Override
+    public void decodingFinished() {
+        calls.add("finished");
+    }
+
+}
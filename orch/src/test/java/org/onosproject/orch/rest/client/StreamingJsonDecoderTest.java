@@ -0,0 +1,105 @@
+package org.onosproject.orch.rest.client;
+
+import org.junit.Test;
+import org.onosproject.orch.json.CompactJson;
+import org.onosproject.orch.json.Json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class StreamingJsonDecoderTest {
+
+    private static final String DOCUMENT = "{\"edgeUpdates\":{\"seq\":5,\"snapshot\":false,"
+            + "\"added\":[{\"src\":{\"device\":\"of:1\",\"port\":\"2\"},\"tags\":[\"a\",\"\u00fc\"]},{\"x\":1}],"
+            + "\"deleted\":[]},\"links\":[]}";
+
+    private static final List<String> CALLS = Arrays.asList(
+            "value edgeUpdates/seq 5",
+            "value edgeUpdates/snapshot false",
+            "array edgeUpdates/added",
+            "element edgeUpdates/added {\"src\":{\"device\":\"of:1\",\"port\":\"2\"},\"tags\":[\"a\",\"\u00fc\"]}",
+            "element edgeUpdates/added {\"x\":1}",
+            "array edgeUpdates/deleted",
+            "array links",
+            "finished");
+
+
+    // calls of the listener while the document is fed in the given chunks, and at its end
+    private static List<String> decode(boolean compact, byte[] document, int... splits) {
+        RecordingListener listener = new RecordingListener();
+        StreamingJsonDecoder decoder = new StreamingJsonDecoder(listener, compact);
+        int from = 0;
+        for (int split : splits) {
+            decoder.feed(document, from, split - from);
+            from = split;
+        }
+        decoder.feed(document, from, document.length - from);
+        assertTrue(decoder.end());
+        assertEquals(document.length, decoder.getDecodedBytes());
+        return listener.calls;
+    }
+
+
+    @Test
+    public void callsTheListenerByPath() {
+        assertEquals(CALLS, decode(false, DOCUMENT.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void givesTheSameCallsWhereverTheDocumentIsSplit() {
+        byte[] document = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+        for (int split = 1; split < document.length; split++) {
+            assertEquals("split at " + split, CALLS, decode(false, document, split));
+        }
+
+        int[] everyByte = new int[document.length - 1];
+        for (int i = 0; i < everyByte.length; i++) {
+            everyByte[i] = i + 1;
+        }
+        assertEquals(CALLS, decode(false, document, everyByte));
+    }
+
+    @Test
+    public void givesTheSameCallsForCompactDocuments() throws Exception {
+        byte[] document = CompactJson.encode(Json.MAPPER.readTree(DOCUMENT));
+        for (int split = 1; split < document.length; split++) {
+            assertEquals("split at " + split, CALLS, decode(true, document, split));
+        }
+    }
+
+    @Test
+    public void doesNotFinishTruncatedDocuments() {
+        byte[] document = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+        RecordingListener listener = new RecordingListener();
+        StreamingJsonDecoder decoder = new StreamingJsonDecoder(listener);
+        decoder.feed(document, 0, document.length - 1);
+
+        assertFalse(decoder.end());
+        assertEquals(CALLS.subList(0, CALLS.size() - 1), listener.calls);
+    }
+
+    @Test
+    public void failsOnBrokenDocuments() {
+        byte[] document = "{\"links\":[{\"a\":1}}".getBytes(StandardCharsets.UTF_8);
+        RecordingListener listener = new RecordingListener();
+        StreamingJsonDecoder decoder = new StreamingJsonDecoder(listener);
+        decoder.feed(document, 0, document.length);
+
+        assertTrue(decoder.isFailed());
+        assertFalse(decoder.end());
+        assertFalse(listener.calls.contains("finished"));
+    }
+
+    @Test
+    public void finishesEmptyInput() {
+        RecordingListener listener = new RecordingListener();
+        assertTrue(new StreamingJsonDecoder(listener).end());
+    }
+
+}